@@ -5,6 +5,7 @@ plugins {
     id("org.springframework.boot") version "3.5.6"
     id("io.spring.dependency-management") version "1.1.7"
     id("nu.studer.jooq") version "8.0" // jOOQ codegen
+    id("me.champeau.jmh") version "0.7.3" // benchmark (src/jmh)
 }
 
 group = "com.ssafy"
@@ -47,13 +48,22 @@ dependencies {
     jooqGenerator("org.jooq:jooq-meta-extensions:3.20.0")
     implementation("org.springframework.boot:spring-boot-starter-jooq")
 
-    // jgltf
-    implementation("de.javagl:jgltf-model:2.0.3")
-    implementation("de.javagl:jgltf-impl-v2:2.0.3")
+    // cache
+    implementation("com.github.ben-manes.caffeine:caffeine")
+
+    // metrics
+    implementation("org.springframework.boot:spring-boot-starter-actuator")
+    runtimeOnly("io.micrometer:micrometer-registry-prometheus")
+
+    // compression
+    implementation("org.lz4:lz4-java:1.8.0")
 
     // minio - test
     implementation("io.minio:minio:8.5.11")
     testImplementation("org.assertj:assertj-core:3.24.2")
+
+    // jgltf - test (GlbWriter 출력을 독립 구현으로 읽어 검증)
+    testImplementation("de.javagl:jgltf-model:2.0.3")
 }
 
 
@@ -133,3 +143,14 @@ tasks.named("clean") {
 tasks.withType<Test> {
     useJUnitPlatform()
 }
+
+// ./gradlew jmh (특정 벤치마크만: -PjmhIncludes=GLBGenerator), 결과는 build/results/jmh/results.json
+// gc 프로파일러로 gc.alloc.rate.norm (op 당 할당 바이트) 함께 기록
+jmh {
+    warmupIterations.set(3)
+    iterations.set(5)
+    fork.set(1)
+    profilers.set(listOf("gc"))
+    resultFormat.set("JSON")
+    (project.findProperty("jmhIncludes") as String?)?.let { includes.set(listOf(it)) }
+}
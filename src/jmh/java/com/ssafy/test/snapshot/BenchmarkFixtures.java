@@ -0,0 +1,77 @@
+package com.ssafy.test.snapshot;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.ssafy.test.snapshot.codec.DeltaCodec;
+import com.ssafy.test.snapshot.dto.DeltaDTO;
+
+import java.lang.reflect.Field;
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * 벤치마크 공용 입력 (시드 고정 → 실행마다 같은 데이터)
+ */
+public final class BenchmarkFixtures {
+
+    public static final String WORLD = "bench";
+    public static final ObjectMapper OBJECT_MAPPER = JsonMapper.builder().findAndAddModules().build();
+    private static final Instant BASE_TIME = Instant.parse("2025-01-01T00:00:00Z");
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * 256^3 청크 안 서로 다른 위치의 voxel count 개 (vSeq = startSeq)
+     */
+    public static List<DeltaDTO> voxels(int count, long seed, int startSeq) {
+        Random random = new Random(seed);
+        Set<Integer> used = new HashSet<>(count * 2);
+        List<DeltaDTO> deltas = new ArrayList<>(count);
+        while (deltas.size() < count) {
+            int voxelId = random.nextInt(1 << 24);
+            if (used.add(voxelId)) {
+                deltas.add(voxel(random, voxelId, startSeq));
+            }
+        }
+        return deltas;
+    }
+
+    /**
+     * base 의 앞쪽 voxel 을 덮어쓰는 갱신 count 개 (vSeq 증가)
+     */
+    public static List<DeltaDTO> updates(List<DeltaDTO> base, int count, long seed) {
+        Random random = new Random(seed);
+        List<DeltaDTO> deltas = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            deltas.add(voxel(random, base.get(i % base.size()).voxelId(), 2));
+        }
+        return deltas;
+    }
+
+    public static DeltaCodec codec(DeltaCodec.Format format) {
+        DeltaCodec codec = new DeltaCodec(OBJECT_MAPPER);
+        try {
+            Field field = DeltaCodec.class.getDeclaredField("format");
+            field.setAccessible(true);
+            field.set(codec, format);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+        return codec;
+    }
+
+    private static DeltaDTO voxel(Random random, int voxelId, int vSeq) {
+        return new DeltaDTO(
+                new UUID(random.nextLong(), random.nextLong()),
+                vSeq,
+                voxelId,
+                63,
+                DeltaDTO.ColorSchema.RGB1,
+                new byte[]{(byte) random.nextInt(256), (byte) random.nextInt(256), (byte) random.nextInt(256)},
+                "system",
+                "bench",
+                BASE_TIME.plusMillis(vSeq)
+        );
+    }
+}
@@ -0,0 +1,40 @@
+package com.ssafy.test.snapshot.codec;
+
+import com.ssafy.test.snapshot.BenchmarkFixtures;
+import com.ssafy.test.snapshot.dto.DeltaDTO;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Delta 단건 직렬화/역직렬화 (쓰기 경로 인코딩, 수집 단계 파싱)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DeltaCodecBenchmark {
+
+    @Param({"BINARY", "JSON"})
+    DeltaCodec.Format format;
+
+    private DeltaCodec codec;
+    private DeltaDTO delta;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() {
+        codec = BenchmarkFixtures.codec(format);
+        delta = BenchmarkFixtures.voxels(1, 42, 1).get(0);
+        encoded = codec.encode(delta);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return codec.encode(delta);
+    }
+
+    @Benchmark
+    public DeltaDTO decode() {
+        return codec.decode(encoded);
+    }
+}
@@ -0,0 +1,21 @@
+package com.ssafy.test.snapshot.service;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 청크 키 파싱 (배치마다 청크 수만큼 호출)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ChunkInfoBenchmark {
+
+    private final String chunkKey = "op_ids:{world:exampleWorld}:l0:x-11921:y15797:z15084";
+
+    @Benchmark
+    public ChunkInfo fromKey() {
+        return ChunkInfo.fromKey(chunkKey);
+    }
+}
@@ -0,0 +1,49 @@
+package com.ssafy.test.snapshot.service;
+
+import com.ssafy.test.snapshot.BenchmarkFixtures;
+import com.ssafy.test.snapshot.config.MeshProperties;
+import com.ssafy.test.snapshot.dto.DeltaDTO;
+import com.ssafy.test.snapshot.mesh.GreedyMesher;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 청크 상태 → GLB 바이트 (업로드 제외)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class GLBGeneratorBenchmark {
+
+    @Param({"1", "1000", "100000"})
+    int voxels;
+
+    private final GLBGeneratorService generator = new GLBGeneratorService(new GreedyMesher(), new MeshProperties());
+    private final ChunkInfo chunkInfo = new ChunkInfo(BenchmarkFixtures.WORLD, 0, 0, 0, 0);
+    private List<DeltaDTO> state;
+
+    @Setup
+    public void setUp() {
+        state = BenchmarkFixtures.voxels(voxels, 42, 1);
+    }
+
+    /**
+     * 설정된 메쉬 방식(MeshProperties 기본값) 그대로
+     */
+    @Benchmark
+    public byte[] generate() {
+        return generator.generateGLB(state, chunkInfo);
+    }
+
+    @Benchmark
+    public byte[] greedy() {
+        return generator.generateGreedyGLB(state);
+    }
+
+    @Benchmark
+    public byte[] separateMeshes() {
+        return generator.generateGLBWithSeparateMeshes(state);
+    }
+}
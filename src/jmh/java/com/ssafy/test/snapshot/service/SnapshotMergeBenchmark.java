@@ -0,0 +1,111 @@
+package com.ssafy.test.snapshot.service;
+
+import com.ssafy.test.snapshot.BenchmarkFixtures;
+import com.ssafy.test.snapshot.codec.DeltaCodec;
+import com.ssafy.test.snapshot.dto.DeltaDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 기존 상태 + 수집된 Delta 병합 (S3/DB 는 메모리 대역)
+ * - merge: 상태 캐시 적중 (정상 상태의 배치 경로)
+ * - mergeFromStorage: 캐시 미스 → 저장된 전체 스냅샷 파싱 후 병합
+ * - parseSnapshot: 스냅샷 파싱만
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SnapshotMergeBenchmark {
+
+    private static final int UPDATES = 1000;
+    private static final int VERSION = 1;
+
+    @Param({"1000", "100000"})
+    int baseVoxels;
+
+    @Param({"BINARY", "JSON"})
+    DeltaCodec.Format format;
+
+    private final ChunkInfo chunkInfo = new ChunkInfo(BenchmarkFixtures.WORLD, 0, 0, 0, 0);
+    private Map<UUID, DeltaDTO> updates;
+    private byte[] storedSnapshot;
+    private DeltaCodec codec;
+    private SnapshotMergeService cachedMerger;
+    private SnapshotMergeService storageMerger;
+
+    @Setup
+    public void setUp() {
+        List<DeltaDTO> base = BenchmarkFixtures.voxels(baseVoxels, 42, 1);
+        updates = new HashMap<>();
+        for (DeltaDTO delta : BenchmarkFixtures.updates(base, UPDATES, 7)) {
+            updates.put(delta.opId(), delta);
+        }
+        codec = BenchmarkFixtures.codec(format);
+        storedSnapshot = codec.encodeSnapshot(base);
+
+        SnapshotBulkheads bulkheads = new SnapshotBulkheads(new SnapshotMetrics(new SimpleMeterRegistry()), 32, 8, 0, 32);
+        ChunkMetadataService metadata = new InMemoryMetadata();
+        S3StorageService storage = new InMemoryStorage(storedSnapshot);
+
+        SnapshotStateCache warmCache = new SnapshotStateCache(true, 1L << 30, Duration.ofHours(1));
+        warmCache.put(chunkInfo, VERSION, base);
+        cachedMerger = new SnapshotMergeService(storage, codec, warmCache, metadata, bulkheads);
+
+        SnapshotStateCache noCache = new SnapshotStateCache(false, 0, Duration.ofHours(1));
+        storageMerger = new SnapshotMergeService(storage, codec, noCache, metadata, bulkheads);
+    }
+
+    @Benchmark
+    public SnapshotMergeService.MergedSnapshot merge() {
+        return cachedMerger.mergeSnapshot(chunkInfo, updates, Set.of(), VERSION);
+    }
+
+    @Benchmark
+    public SnapshotMergeService.MergedSnapshot mergeFromStorage() {
+        return storageMerger.mergeSnapshot(chunkInfo, updates, Set.of(), VERSION);
+    }
+
+    @Benchmark
+    public List<DeltaDTO> parseSnapshot() {
+        return codec.decodeSnapshot(storedSnapshot);
+    }
+
+    /**
+     * 세그먼트 없이 매 버전이 전체 스냅샷
+     */
+    private static final class InMemoryMetadata extends ChunkMetadataService {
+
+        InMemoryMetadata() {
+            super(null, null);
+        }
+
+        @Override
+        public long findBaseVersion(ChunkInfo chunkInfo, long version) {
+            return version;
+        }
+
+        @Override
+        public Map<Long, String> findSnapshotUris(ChunkInfo chunkInfo, long fromVersion, long toVersion) {
+            return Map.of();
+        }
+    }
+
+    private static final class InMemoryStorage extends S3StorageService {
+
+        private final byte[] snapshot;
+
+        InMemoryStorage(byte[] snapshot) {
+            super(null);
+            this.snapshot = snapshot;
+        }
+
+        @Override
+        public Optional<byte[]> getLatestSnapshot(ChunkInfo chunkInfo, int version, String storageUri) {
+            return Optional.of(snapshot);
+        }
+    }
+}
@@ -1,14 +1,17 @@
 package com.ssafy.test.global.config;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.ssafy.test.snapshot.codec.DeltaCodec;
 import com.ssafy.test.snapshot.dto.DeltaDTO;
+import com.ssafy.test.snapshot.service.DeltaStreamService;
+import com.ssafy.test.snapshot.service.DirtyChunkRegistry;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.Random;
 import java.util.UUID;
@@ -20,6 +23,9 @@ import java.util.concurrent.Executors;
 public class RedisDummyMaker {
 
     private final RedisTemplate<String, String> redisTemplate;
+    private final DirtyChunkRegistry dirtyChunkRegistry;
+    private final DeltaCodec deltaCodec;
+    private final DeltaStreamService deltaStream;
 
     private final Random random = new Random();
     private final ExecutorService executor = Executors.newSingleThreadExecutor();
@@ -70,11 +76,6 @@ public class RedisDummyMaker {
                     String sortedSetKey = "op_ids:" + chunkId;
                     String hashKey = "deltas:" + chunkId;
 
-                    // ObjectMapper 준비 (Instant 등 JavaTimeModule 자동 등록)
-                    ObjectMapper objectMapper = JsonMapper.builder()
-                            .findAndAddModules()  // JavaTimeModule 포함
-                            .build();
-
                     // DeltaDTO 생성 (Builder 사용)
                     DeltaDTO dto = new DeltaDTO(
                             UUID.randomUUID(),
@@ -93,14 +94,31 @@ public class RedisDummyMaker {
                             Instant.now()
                     );
 
-                    String json = objectMapper.writeValueAsString(dto);
+                    // 코덱 설정(snapshot.codec.format)에 따라 바이너리/JSON 직렬화
+                    byte[] payload = deltaCodec.encode(dto);
+
+                    // 스트림 모드: 파티션 스트림에 추가 (Sorted Set/Hash/dirty 인덱스 미사용)
+                    if (deltaStream.isEnabled()) {
+                        deltaStream.append(sortedSetKey, payload);
+                        System.out.printf("[+] %s 스트림에 더미 데이터 추가 (op_id=%s)%n", chunkId, dto.opId());
+                        cnt++;
+                        Thread.sleep(1000);
+                        continue;
+                    }
 
                     // Sorted Set에 op_id 저장 (score = timestamp)
                     double score = (double) dto.timestamp().toEpochMilli();
                     redisTemplate.opsForZSet().add(sortedSetKey, dto.opId().toString(), score);
 
-                    // Hash에 DTO 직렬화 바이트 저장
-                    redisTemplate.opsForHash().put(hashKey, dto.opId().toString(), json);
+                    // Hash에 DTO 직렬화 바이트 저장 (바이너리 값이므로 raw 커맨드 사용)
+                    redisTemplate.execute((RedisCallback<Boolean>) connection -> connection.hashCommands().hSet(
+                            hashKey.getBytes(StandardCharsets.UTF_8),
+                            dto.opId().toString().getBytes(StandardCharsets.UTF_8),
+                            payload
+                    ));
+
+                    // dirty 청크 인덱스 등록 (op 저장 이후)
+                    dirtyChunkRegistry.markDirty(sortedSetKey, score);
 
                     System.out.printf("[+] %s 에 더미 데이터 추가 (op_id=%s)%n", chunkId, dto.opId());
                     cnt++;
@@ -4,6 +4,8 @@ import lombok.Getter;
 
 @Getter
 public class CustomException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
     private final ErrorCode errorCode;
 
     public CustomException(ErrorCode errorCode) {
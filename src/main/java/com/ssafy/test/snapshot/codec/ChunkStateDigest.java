@@ -0,0 +1,98 @@
+package com.ssafy.test.snapshot.codec;
+
+import com.ssafy.test.snapshot.dto.DeltaDTO;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * 청크 상태의 정규화 SHA-256
+ * - 보이는 내용(voxelId, faceMask, colorSchema, colorBytes) + LWW 판정 값(vSeq, timestamp, opId) 반영
+ *   → 같은 색이라도 승자가 바뀌면 다른 해시 (이후 병합/tombstone 이 현재 승자 기준으로 동작해야 하므로)
+ *   → actor/policyTags 만 다른 경우, 전부 tombstone 된 배치 등은 같은 해시
+ * - visibleSha256: 보이는 내용만 반영 (메쉬 재생성 여부 판단용, chunk_mesh.checksum_sha256)
+ * - voxelId 오름차순 상태(VoxelDeltaMap.toSortedList)를 입력으로 가정
+ * - 직렬화 없이 고정 버퍼로 나눠 digest 에 공급
+ */
+public final class ChunkStateDigest {
+
+    public static final String ALGORITHM = "SHA-256";
+
+    private static final int BUFFER_BYTES = 8192;
+    // voxelId(4) faceMask(1) schema(1) vSeq(4) timestamp(8 + 4) opId(16) colorLength(4)
+    private static final int RECORD_HEADER_BYTES = 42;
+    // voxelId(4) faceMask(1) schema(1) colorLength(4)
+    private static final int VISIBLE_HEADER_BYTES = 10;
+
+    private ChunkStateDigest() {
+    }
+
+    public static byte[] sha256(Collection<DeltaDTO> sortedState) {
+        return digest(sortedState, true);
+    }
+
+    /**
+     * 보이는 내용(voxelId, faceMask, colorSchema, colorBytes)만의 해시 (승자만 바뀐 상태는 같은 해시)
+     */
+    public static byte[] visibleSha256(Collection<DeltaDTO> sortedState) {
+        return digest(sortedState, false);
+    }
+
+    private static byte[] digest(Collection<DeltaDTO> sortedState, boolean withWinner) {
+        MessageDigest digest = newDigest();
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES);
+        buffer.putInt(sortedState.size());
+        int headerBytes = withWinner ? RECORD_HEADER_BYTES : VISIBLE_HEADER_BYTES;
+
+        for (DeltaDTO delta : sortedState) {
+            byte[] colors = delta.colorBytes();
+            if (buffer.remaining() < headerBytes) {
+                flush(digest, buffer);
+            }
+            buffer.putInt(delta.voxelId())
+                    .put((byte) delta.faceMask())
+                    .put(delta.colorSchema() == null ? (byte) -1 : (byte) delta.colorSchema().ordinal());
+            if (withWinner) {
+                buffer.putInt(delta.vSeq());
+                Instant timestamp = delta.timestamp();
+                buffer.putLong(timestamp == null ? Long.MIN_VALUE : timestamp.getEpochSecond())
+                        .putInt(timestamp == null ? -1 : timestamp.getNano());
+                UUID opId = delta.opId();
+                buffer.putLong(opId == null ? 0 : opId.getMostSignificantBits())
+                        .putLong(opId == null ? 0 : opId.getLeastSignificantBits());
+            }
+            buffer.putInt(colors == null ? -1 : colors.length);
+            if (colors == null) {
+                continue;
+            }
+            if (buffer.remaining() < colors.length) {
+                flush(digest, buffer);
+                if (colors.length > BUFFER_BYTES) {
+                    digest.update(colors);
+                    continue;
+                }
+            }
+            buffer.put(colors);
+        }
+
+        flush(digest, buffer);
+        return digest.digest();
+    }
+
+    private static void flush(MessageDigest digest, ByteBuffer buffer) {
+        digest.update(buffer.array(), 0, buffer.position());
+        buffer.clear();
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance(ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(ALGORITHM + " 미지원", e);
+        }
+    }
+}
@@ -0,0 +1,470 @@
+package com.ssafy.test.snapshot.codec;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ssafy.test.snapshot.dto.DeltaDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * DeltaDTO 바이너리 코덱 (v1)
+ *
+ * 단건 (Redis deltas: 해시 값)
+ *   [0xD7][ver] opId(16) vSeq(4) voxelId(4) faceMask(1) schema(1) colors(varint len + bytes)
+ *   actor(varint len + UTF-8) policyTags(varint len + UTF-8) timestamp(epochSecond 8 + nano 4)
+ *
+ * 스냅샷 (S3 snapshot 객체)
+ *   [0xD8][ver] 문자열 사전(varint 개수 + 문자열들) varint 레코드 수
+ *   레코드: 단건과 동일하나 actor/policyTags 는 사전 인덱스(varint)
+ *
+ * 세그먼트 (S3 snapshot .seg 객체, 직전 버전 대비 변경분)
+ *   [0xD9][ver] 스냅샷과 같은 사전 + 레코드(갱신된 voxel), varint 제거 수 + 제거 voxelId 차이값(varint)
+ *
+ * - 길이/인덱스 varint 값은 +1 저장, 0 은 null
+ * - 디코딩 시 첫 바이트로 포맷 판별 → 기존 JSON 데이터도 그대로 읽음
+ */
+@Component
+@RequiredArgsConstructor
+public class DeltaCodec {
+
+    public static final byte DELTA_MAGIC = (byte) 0xD7;
+    public static final byte SNAPSHOT_MAGIC = (byte) 0xD8;
+    public static final byte SEGMENT_MAGIC = (byte) 0xD9;
+    public static final byte VERSION = 1;
+
+    private static final byte NULL_SCHEMA = (byte) 0xFF;
+    private static final long NULL_TIMESTAMP = Long.MIN_VALUE;
+    private static final DeltaDTO.ColorSchema[] SCHEMAS = DeltaDTO.ColorSchema.values();
+    // opId(16) vSeq(4) voxelId(4) faceMask(1) schema(1)
+    private static final int FIXED_BYTES = 26;
+    private static final int TIMESTAMP_BYTES = 12;
+    private static final int WRITE_BUFFER_BYTES = 8192;
+
+    private final ObjectMapper objectMapper;
+
+    @Value("${snapshot.codec.format:BINARY}")
+    private Format format;
+
+    public enum Format {
+        BINARY("bin", "application/octet-stream"),
+        JSON("json", "application/json");
+
+        private final String extension;
+        private final String contentType;
+
+        Format(String extension, String contentType) {
+            this.extension = extension;
+            this.contentType = contentType;
+        }
+
+        public String extension() {
+            return extension;
+        }
+
+        public String contentType() {
+            return contentType;
+        }
+    }
+
+    /**
+     * 쓰기에 사용할 포맷 (읽기는 항상 자동 판별)
+     */
+    public Format format() {
+        return format;
+    }
+
+    // ================== 단건 ==================
+
+    public byte[] encode(DeltaDTO delta) {
+        try {
+            if (format == Format.JSON) {
+                return objectMapper.writeValueAsBytes(delta);
+            }
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(DELTA_MAGIC);
+            out.writeByte(VERSION);
+            writeFixed(out, delta);
+            writeString(out, delta.actor());
+            writeString(out, delta.policyTags());
+            writeTimestamp(out, delta.timestamp());
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Delta 인코딩 실패. opId: " + delta.opId(), e);
+        }
+    }
+
+    public DeltaDTO decode(byte[] payload) {
+        if (payload.length > 0 && payload[0] == DELTA_MAGIC) {
+            ByteBuffer in = ByteBuffer.wrap(payload);
+            in.get();
+            checkVersion(in.get());
+            try {
+                DeltaDTO.Builder builder = readFixed(in);
+                return builder
+                        .actor(readString(in))
+                        .policyTags(readString(in))
+                        .timestamp(readTimestamp(in))
+                        .build();
+            } catch (BufferUnderflowException | IndexOutOfBoundsException | DateTimeException e) {
+                throw new IllegalArgumentException("손상된 Delta 바이너리", e);
+            }
+        }
+        try {
+            return objectMapper.readValue(payload, DeltaDTO.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Delta JSON 파싱 실패", e);
+        }
+    }
+
+    // ================== 스냅샷 ==================
+
+    public byte[] encodeSnapshot(Collection<DeltaDTO> deltas) {
+        SnapshotWriter writer = snapshotWriter(deltas);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream((int) writer.size());
+        try {
+            writer.writeTo(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException("스냅샷 인코딩 실패", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * 스냅샷 스트리밍 직렬화 준비 (바이트 길이를 먼저 계산, 중간 byte[] 없이 기록)
+     * - JSON 은 이전 포맷 호환용이라 미리 직렬화해 둠
+     */
+    public SnapshotWriter snapshotWriter(Collection<DeltaDTO> deltas) {
+        if (format == Format.JSON) {
+            try {
+                byte[] json = objectMapper.writeValueAsBytes(deltas);
+                return new SnapshotWriter(json.length, out -> out.write(json));
+            } catch (IOException e) {
+                throw new UncheckedIOException("스냅샷 인코딩 실패", e);
+            }
+        }
+
+        return binaryWriter(SNAPSHOT_MAGIC, deltas, null);
+    }
+
+    /**
+     * 직전 버전 대비 변경분 세그먼트 직렬화 (항상 바이너리)
+     * @param segment 갱신된 voxel 최종값 + 제거된 voxelId(오름차순)
+     */
+    public SnapshotWriter segmentWriter(Segment segment) {
+        return binaryWriter(SEGMENT_MAGIC, segment.upserts(), segment.removedVoxelIds());
+    }
+
+    /**
+     * 스냅샷/세그먼트 공통 바이너리 본문: 사전 + 레코드 (+ 세그먼트면 제거 목록)
+     */
+    private SnapshotWriter binaryWriter(byte magic, Collection<DeltaDTO> deltas, int[] removedVoxelIds) {
+        // actor/policyTags 사전 구성
+        Map<String, Integer> dictionary = new LinkedHashMap<>();
+        for (DeltaDTO delta : deltas) {
+            if (delta.actor() != null) dictionary.putIfAbsent(delta.actor(), dictionary.size());
+            if (delta.policyTags() != null) dictionary.putIfAbsent(delta.policyTags(), dictionary.size());
+        }
+
+        long size = 2 + varIntSize(dictionary.size()) + varIntSize(deltas.size());
+        for (String value : dictionary.keySet()) {
+            size += stringSize(value);
+        }
+        for (DeltaDTO delta : deltas) {
+            byte[] colors = delta.colorBytes();
+            size += FIXED_BYTES + TIMESTAMP_BYTES
+                    + (colors == null ? 1 : varIntSize(colors.length + 1) + colors.length)
+                    + varIntSize(delta.actor() == null ? 0 : dictionary.get(delta.actor()) + 1)
+                    + varIntSize(delta.policyTags() == null ? 0 : dictionary.get(delta.policyTags()) + 1);
+        }
+        if (removedVoxelIds != null) {
+            size += varIntSize(removedVoxelIds.length);
+            int previous = 0;
+            for (int voxelId : removedVoxelIds) {
+                size += varIntSize(voxelId - previous);
+                previous = voxelId;
+            }
+        }
+
+        return new SnapshotWriter(size, target -> {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(target, WRITE_BUFFER_BYTES));
+            out.writeByte(magic);
+            out.writeByte(VERSION);
+
+            writeVarInt(out, dictionary.size());
+            for (String value : dictionary.keySet()) {
+                writeString(out, value);
+            }
+
+            writeVarInt(out, deltas.size());
+            for (DeltaDTO delta : deltas) {
+                writeFixed(out, delta);
+                writeVarInt(out, delta.actor() == null ? 0 : dictionary.get(delta.actor()) + 1);
+                writeVarInt(out, delta.policyTags() == null ? 0 : dictionary.get(delta.policyTags()) + 1);
+                writeTimestamp(out, delta.timestamp());
+            }
+
+            // 제거 목록: 오름차순 voxelId 의 차이값
+            if (removedVoxelIds != null) {
+                writeVarInt(out, removedVoxelIds.length);
+                int previous = 0;
+                for (int voxelId : removedVoxelIds) {
+                    writeVarInt(out, voxelId - previous);
+                    previous = voxelId;
+                }
+            }
+            out.flush();
+        });
+    }
+
+    /**
+     * 직렬화 결과의 정확한 바이트 길이 + 대상 스트림에 기록하는 본문
+     */
+    public record SnapshotWriter(long size, Body body) {
+
+        public void writeTo(OutputStream out) throws IOException {
+            body.writeTo(out);
+        }
+
+        @FunctionalInterface
+        public interface Body {
+            void writeTo(OutputStream out) throws IOException;
+        }
+    }
+
+    public List<DeltaDTO> decodeSnapshot(byte[] payload) {
+        if (payload.length > 0 && payload[0] == SNAPSHOT_MAGIC) {
+            return decodeBinarySnapshot(payload);
+        }
+        return decodeJsonSnapshot(payload);
+    }
+
+    private List<DeltaDTO> decodeBinarySnapshot(byte[] payload) {
+        ByteBuffer in = ByteBuffer.wrap(payload);
+        in.get();
+        checkVersion(in.get());
+        try {
+            return readRecords(in);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | DateTimeException e) {
+            throw new IllegalArgumentException("손상된 스냅샷 바이너리", e);
+        }
+    }
+
+    public Segment decodeSegment(byte[] payload) {
+        if (payload.length == 0 || payload[0] != SEGMENT_MAGIC) {
+            throw new IllegalArgumentException("스냅샷 세그먼트가 아님");
+        }
+        ByteBuffer in = ByteBuffer.wrap(payload);
+        in.get();
+        checkVersion(in.get());
+        try {
+            List<DeltaDTO> upserts = readRecords(in);
+            int[] removed = new int[readLength(in)];
+            int previous = 0;
+            for (int i = 0; i < removed.length; i++) {
+                previous += readVarInt(in);
+                removed[i] = previous;
+            }
+            return new Segment(upserts, removed);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | DateTimeException e) {
+            throw new IllegalArgumentException("손상된 스냅샷 세그먼트", e);
+        }
+    }
+
+    /**
+     * 직전 버전 대비 변경분
+     * @param upserts 추가/변경된 voxel 의 최종값
+     * @param removedVoxelIds 제거된 voxelId (오름차순)
+     */
+    public record Segment(List<DeltaDTO> upserts, int[] removedVoxelIds) {
+
+        public boolean isEmpty() {
+            return upserts.isEmpty() && removedVoxelIds.length == 0;
+        }
+    }
+
+    private List<DeltaDTO> readRecords(ByteBuffer in) {
+        int dictionarySize = readLength(in);
+        String[] dictionary = new String[dictionarySize];
+        for (int i = 0; i < dictionarySize; i++) {
+            dictionary[i] = readString(in);
+        }
+
+        int count = readLength(in);
+        List<DeltaDTO> deltas = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            DeltaDTO.Builder builder = readFixed(in);
+            int actor = readVarInt(in);
+            int policyTags = readVarInt(in);
+            deltas.add(builder
+                    .actor(actor == 0 ? null : dictionary[actor - 1])
+                    .policyTags(policyTags == 0 ? null : dictionary[policyTags - 1])
+                    .timestamp(readTimestamp(in))
+                    .build());
+        }
+        return deltas;
+    }
+
+    private List<DeltaDTO> decodeJsonSnapshot(byte[] payload) {
+        List<DeltaDTO> deltas = new ArrayList<>();
+        try (JsonParser parser = objectMapper.getFactory().createParser(payload)) {
+            if (parser.nextToken() == JsonToken.START_ARRAY) {
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    deltas.add(parser.readValueAs(DeltaDTO.class));
+                }
+            }
+            return deltas;
+        } catch (IOException e) {
+            throw new UncheckedIOException("스냅샷 JSON 파싱 실패", e);
+        }
+    }
+
+    // ================== 필드 ==================
+
+    private void writeFixed(DataOutputStream out, DeltaDTO delta) throws IOException {
+        if (delta.faceMask() < 0 || delta.faceMask() > 0xFF) {
+            throw new IllegalArgumentException("faceMask 범위 초과: " + delta.faceMask());
+        }
+        out.writeLong(delta.opId().getMostSignificantBits());
+        out.writeLong(delta.opId().getLeastSignificantBits());
+        out.writeInt(delta.vSeq());
+        out.writeInt(delta.voxelId());
+        out.writeByte(delta.faceMask());
+        out.writeByte(delta.colorSchema() == null ? NULL_SCHEMA : delta.colorSchema().ordinal());
+
+        byte[] colors = delta.colorBytes();
+        writeVarInt(out, colors == null ? 0 : colors.length + 1);
+        if (colors != null) {
+            out.write(colors);
+        }
+    }
+
+    private DeltaDTO.Builder readFixed(ByteBuffer in) {
+        UUID opId = new UUID(in.getLong(), in.getLong());
+        int vSeq = in.getInt();
+        int voxelId = in.getInt();
+        int faceMask = in.get() & 0xFF;
+        byte schema = in.get();
+        if (schema != NULL_SCHEMA && (schema < 0 || schema >= SCHEMAS.length)) {
+            throw new IllegalArgumentException("알 수 없는 색상 스키마: " + schema);
+        }
+
+        byte[] colors = null;
+        int colorLength = readLength(in);
+        if (colorLength > 0) {
+            colors = new byte[colorLength - 1];
+            in.get(colors);
+        }
+
+        return DeltaDTO.builder()
+                .opId(opId)
+                .vSeq(vSeq)
+                .voxelId(voxelId)
+                .faceMask(faceMask)
+                .colorSchema(schema == NULL_SCHEMA ? null : SCHEMAS[schema])
+                .colorBytes(colors);
+    }
+
+    private void writeTimestamp(DataOutputStream out, Instant timestamp) throws IOException {
+        if (timestamp == null) {
+            out.writeLong(NULL_TIMESTAMP);
+            out.writeInt(0);
+            return;
+        }
+        out.writeLong(timestamp.getEpochSecond());
+        out.writeInt(timestamp.getNano());
+    }
+
+    private Instant readTimestamp(ByteBuffer in) {
+        long seconds = in.getLong();
+        int nanos = in.getInt();
+        return seconds == NULL_TIMESTAMP ? null : Instant.ofEpochSecond(seconds, nanos);
+    }
+
+    private void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            writeVarInt(out, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, bytes.length + 1);
+        out.write(bytes);
+    }
+
+    private String readString(ByteBuffer in) {
+        int length = readLength(in);
+        if (length == 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length - 1];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int varIntSize(int value) {
+        int size = 1;
+        while ((value & ~0x7F) != 0) {
+            size++;
+            value >>>= 7;
+        }
+        return size;
+    }
+
+    private static int stringSize(String value) {
+        int length = value.getBytes(StandardCharsets.UTF_8).length;
+        return varIntSize(length + 1) + length;
+    }
+
+    private static int readVarInt(ByteBuffer in) {
+        int result = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = in.get();
+            result |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IllegalArgumentException("잘못된 varint");
+    }
+
+    /**
+     * 길이/개수 varint (항목마다 1바이트 이상이고 null 표시로 +1 이므로 남은 바이트 + 1 이하)
+     * 손상된 값으로 음수/거대 배열을 만들지 않도록 먼저 거부
+     */
+    private static int readLength(ByteBuffer in) {
+        int length = readVarInt(in);
+        if (length < 0 || length > in.remaining() + 1) {
+            throw new IllegalArgumentException("잘못된 길이: " + length);
+        }
+        return length;
+    }
+
+    private static void checkVersion(byte version) {
+        if (version != VERSION) {
+            throw new IllegalArgumentException("지원하지 않는 코덱 버전: " + version);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.ssafy.test.snapshot.codec;
+
+import net.jpountz.lz4.LZ4FrameInputStream;
+import net.jpountz.lz4.LZ4FrameOutputStream;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 오브젝트 스토리지 저장 시 압축 방식
+ * - 업로드 시 Content-Encoding 헤더로 기록
+ * - 읽을 때는 헤더가 아닌 앞부분 매직 바이트로 판별 (HTTP 클라이언트가 이미 풀었거나 이전 비압축 객체여도 동작)
+ */
+public enum StorageCompression {
+    NONE(null),
+    GZIP("gzip"),
+    LZ4("x-lz4");
+
+    private static final int BUFFER_BYTES = 8192;
+    private static final int LZ4_FRAME_MAGIC = 0x184D2204;
+
+    private final String contentEncoding;
+
+    StorageCompression(String contentEncoding) {
+        this.contentEncoding = contentEncoding;
+    }
+
+    /**
+     * @return Content-Encoding 헤더 값 (NONE 이면 null)
+     */
+    public String contentEncoding() {
+        return contentEncoding;
+    }
+
+    /**
+     * 압축 스트림으로 감쌈. close() 해야 마지막 블록/트레일러가 기록됨
+     */
+    public OutputStream wrap(OutputStream out) throws IOException {
+        return switch (this) {
+            case NONE -> out;
+            case GZIP -> new GZIPOutputStream(out, BUFFER_BYTES);
+            case LZ4 -> new LZ4FrameOutputStream(out, LZ4FrameOutputStream.BLOCKSIZE.SIZE_64KB);
+        };
+    }
+
+    /**
+     * 저장된 바이트의 압축 방식 판별
+     */
+    public static StorageCompression detect(byte[] stored) {
+        if (stored.length >= 2 && (stored[0] & 0xFF) == 0x1F && (stored[1] & 0xFF) == 0x8B) {
+            return GZIP;
+        }
+        if (stored.length >= 4) {
+            int magic = (stored[0] & 0xFF) | (stored[1] & 0xFF) << 8 | (stored[2] & 0xFF) << 16 | (stored[3] & 0xFF) << 24;
+            if (magic == LZ4_FRAME_MAGIC) {
+                return LZ4;
+            }
+        }
+        return NONE;
+    }
+
+    /**
+     * 압축 여부를 판별해 원본 바이트 복원 (비압축이면 그대로 반환)
+     */
+    public static byte[] decompress(byte[] stored) throws IOException {
+        StorageCompression compression = detect(stored);
+        if (compression == NONE) {
+            return stored;
+        }
+        try (InputStream in = compression == GZIP
+                ? new GZIPInputStream(new ByteArrayInputStream(stored), BUFFER_BYTES)
+                : new LZ4FrameInputStream(new ByteArrayInputStream(stored))) {
+            return in.readAllBytes();
+        }
+    }
+}
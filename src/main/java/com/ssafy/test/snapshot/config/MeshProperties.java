@@ -0,0 +1,43 @@
+package com.ssafy.test.snapshot.config;
+
+import com.ssafy.test.snapshot.mesh.MeshCompression;
+import com.ssafy.test.snapshot.mesh.MeshMode;
+import com.ssafy.test.snapshot.mesh.VertexProfile;
+import com.ssafy.test.snapshot.service.ChunkInfo;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * GLB 메쉬 생성 설정
+ * snapshot.mesh.mode=GREEDY
+ * snapshot.mesh.overrides.exampleWorld-l0=SEPARATE   (키: {월드}-l{LOD})
+ * snapshot.mesh.vertex-profile=QUANTIZED
+ * snapshot.mesh.compression=MESHOPT
+ */
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "snapshot.mesh")
+public class MeshProperties {
+
+    private MeshMode mode = MeshMode.SEPARATE;
+
+    private Map<String, MeshMode> overrides = new HashMap<>();
+
+    private VertexProfile vertexProfile = VertexProfile.FLOAT;
+
+    private MeshCompression compression = MeshCompression.NONE;
+
+    public MeshMode modeFor(ChunkInfo chunkInfo) {
+        return overrides.getOrDefault(overrideKey(chunkInfo), mode);
+    }
+
+    private String overrideKey(ChunkInfo chunkInfo) {
+        return chunkInfo.worldName() + "-l" + chunkInfo.lod();
+    }
+}
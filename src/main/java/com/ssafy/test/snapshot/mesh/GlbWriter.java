@@ -0,0 +1,419 @@
+package com.ssafy.test.snapshot.mesh;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * jgltf 객체 모델을 거치지 않는 GLB 직접 작성기
+ *
+ * 1) bufferView/accessor/mesh/node 를 등록하면서 BIN 레이아웃(오프셋)을 미리 확정
+ * 2) JSON 청크를 직접 작성하고 전체 크기를 계산
+ * 3) 대상 ByteBuffer(힙/다이렉트/풀링 모두 가능) 하나에 header + JSON + BIN 을 순서대로 기록
+ *    → 호출자는 binPosition(view) 위치에 정점/인덱스를 바로 씀 (중간 버퍼, 박싱 없음)
+ *
+ * meshopt 모드에서는 allocate() 가 비압축 레이아웃의 작업 버퍼를 돌려주고,
+ * toByteArray() 에서 bufferView 별로 EXT_meshopt_compression 인코딩 후 GLB 를 조립
+ * (BIN = 압축 데이터 buffer 0, 비압축 레이아웃은 데이터 없는 fallback buffer 1)
+ */
+public final class GlbWriter {
+
+    public static final int ARRAY_BUFFER = 34962;
+    public static final int ELEMENT_ARRAY_BUFFER = 34963;
+
+    public static final int BYTE = 5120;
+    public static final int UNSIGNED_BYTE = 5121;
+    public static final int UNSIGNED_SHORT = 5123;
+    public static final int UNSIGNED_INT = 5125;
+    public static final int FLOAT = 5126;
+
+    private static final int GLB_MAGIC = 0x46546C67;     // "glTF"
+    private static final int GLB_VERSION = 2;
+    private static final int CHUNK_JSON = 0x4E4F534A;    // "JSON"
+    private static final int CHUNK_BIN = 0x004E4942;     // "BIN\0"
+    private static final int HEADER_BYTES = 12;
+    private static final int CHUNK_HEADER_BYTES = 8;
+
+    private final String generator;
+    private final boolean meshopt;
+
+    private final StringBuilder accessors = new StringBuilder();
+    private final StringBuilder materials = new StringBuilder();
+    private final StringBuilder meshes = new StringBuilder();
+    private final StringBuilder nodes = new StringBuilder();
+    private final Set<String> extensionsUsed = new LinkedHashSet<>();
+    private final Set<String> extensionsRequired = new LinkedHashSet<>();
+
+    // bufferView 별 offset / length / target / elementSize / strided
+    private int[] viewOffsets = new int[8];
+    private int[] viewLengths = new int[8];
+    private int[] viewTargets = new int[8];
+    private int[] viewElementSizes = new int[8];
+    private boolean[] viewStrided = new boolean[8];
+    private int bufferViewCount;
+    private int accessorCount;
+    private int materialCount;
+    private int meshCount;
+    private int nodeCount;
+    private int binLength;
+
+    private byte[] json;
+    private int jsonPadded;
+    private int bufferStart = -1;
+    private int binBase;
+
+    public GlbWriter(String generator) {
+        this(generator, false);
+    }
+
+    public GlbWriter(String generator, boolean meshopt) {
+        this.generator = generator;
+        this.meshopt = meshopt;
+    }
+
+    // ================== 레이아웃 등록 ==================
+
+    /**
+     * @param elementSize 정점 1개(또는 인덱스 1개)의 바이트 수
+     * @param strided     true 면 byteStride=elementSize 기록 (정렬 패딩이 있는 양자화 속성)
+     * @return bufferView 인덱스
+     */
+    public int addBufferView(int byteLength, int target, int elementSize, boolean strided) {
+        checkOpen();
+        if (bufferViewCount == viewOffsets.length) {
+            int capacity = viewOffsets.length * 2;
+            viewOffsets = Arrays.copyOf(viewOffsets, capacity);
+            viewLengths = Arrays.copyOf(viewLengths, capacity);
+            viewTargets = Arrays.copyOf(viewTargets, capacity);
+            viewElementSizes = Arrays.copyOf(viewElementSizes, capacity);
+            viewStrided = Arrays.copyOf(viewStrided, capacity);
+        }
+        int offset = align4(binLength);
+        viewOffsets[bufferViewCount] = offset;
+        viewLengths[bufferViewCount] = byteLength;
+        viewTargets[bufferViewCount] = target;
+        viewElementSizes[bufferViewCount] = elementSize;
+        viewStrided[bufferViewCount] = strided;
+        binLength = offset + byteLength;
+        return bufferViewCount++;
+    }
+
+    /**
+     * @param min/max POSITION 에는 필수, 그 외 null
+     * @return accessor 인덱스
+     */
+    public int addAccessor(int bufferView, int byteOffset, int componentType, boolean normalized,
+                           int count, String type, float[] min, float[] max) {
+        checkOpen();
+        separate(accessors, accessorCount)
+                .append("{\"bufferView\":").append(bufferView);
+        if (byteOffset > 0) {
+            accessors.append(",\"byteOffset\":").append(byteOffset);
+        }
+        accessors.append(",\"componentType\":").append(componentType);
+        if (normalized) {
+            accessors.append(",\"normalized\":true");
+        }
+        accessors.append(",\"count\":").append(count)
+                .append(",\"type\":\"").append(type).append('"');
+        if (min != null && max != null) {
+            appendNumbers(accessors.append(",\"min\":"), min);
+            appendNumbers(accessors.append(",\"max\":"), max);
+        }
+        accessors.append('}');
+        return accessorCount++;
+    }
+
+    public int addMaterial(boolean doubleSided) {
+        checkOpen();
+        separate(materials, materialCount)
+                .append("{\"doubleSided\":").append(doubleSided).append('}');
+        return materialCount++;
+    }
+
+    public int addMesh(String name, int positionAccessor, int colorAccessor, int indicesAccessor, int material) {
+        checkOpen();
+        separate(meshes, meshCount)
+                .append("{\"name\":\"").append(name)
+                .append("\",\"primitives\":[{\"attributes\":{\"POSITION\":").append(positionAccessor)
+                .append(",\"COLOR_0\":").append(colorAccessor)
+                .append("},\"indices\":").append(indicesAccessor)
+                .append(",\"material\":").append(material)
+                .append("}]}");
+        return meshCount++;
+    }
+
+    /**
+     * 노드는 모두 기본 scene 에 포함
+     */
+    public int addNode(String name, int mesh) {
+        return addNode(name, mesh, 1.0f);
+    }
+
+    /**
+     * @param scale 균일 스케일 (양자화 좌표 → 실제 크기), 1 이면 생략
+     */
+    public int addNode(String name, int mesh, float scale) {
+        checkOpen();
+        separate(nodes, nodeCount)
+                .append("{\"name\":\"").append(name)
+                .append("\",\"mesh\":").append(mesh);
+        if (scale != 1.0f) {
+            appendNumbers(nodes.append(",\"scale\":"), new float[]{scale, scale, scale});
+        }
+        nodes.append('}');
+        return nodeCount++;
+    }
+
+    public void useExtension(String name, boolean required) {
+        checkOpen();
+        extensionsUsed.add(name);
+        if (required) {
+            extensionsRequired.add(name);
+        }
+    }
+
+    // ================== 출력 ==================
+
+    /**
+     * 레이아웃 확정 후 GLB 전체 크기 (비압축 모드)
+     */
+    public int byteLength() {
+        checkPlain();
+        if (json == null) {
+            finish(null, null, 0);
+        }
+        return containerLength(binLength);
+    }
+
+    /**
+     * header + JSON + BIN 청크 헤더를 기록하고 BIN 영역을 0 으로 채움 (비압축 모드)
+     * 이후 binPosition(view) 위치에 데이터를 기록
+     * @return target (little-endian, position 은 BIN 데이터 시작)
+     */
+    public ByteBuffer writeTo(ByteBuffer target) {
+        int total = byteLength();
+        if (target.remaining() < total) {
+            throw new IllegalArgumentException("GLB 버퍼 용량 부족: " + target.remaining() + " < " + total);
+        }
+        ByteBuffer out = target.order(ByteOrder.LITTLE_ENDIAN);
+        int start = out.position();
+        writeContainer(out, binLength);
+        int binStart = out.position();
+        for (int i = 0; i < align4(binLength); i++) {
+            out.put(binStart + i, (byte) 0);
+        }
+        binBase = binStart - start;
+        bufferStart = start;
+        return out;
+    }
+
+    /**
+     * 비압축: 정확한 크기의 힙 배열에 GLB 작성 (업로드 payload 로 그대로 사용)
+     * meshopt: 비압축 BIN 레이아웃의 작업 버퍼
+     */
+    public ByteBuffer allocate() {
+        if (!meshopt) {
+            return writeTo(ByteBuffer.allocate(byteLength()));
+        }
+        checkOpen();
+        bufferStart = 0;
+        binBase = 0;
+        return ByteBuffer.allocate(align4(binLength)).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * allocate()/writeTo() 이후 bufferView 데이터가 시작되는 절대 위치
+     */
+    public int binPosition(int bufferView) {
+        if (bufferStart < 0) {
+            throw new IllegalStateException("allocate/writeTo 호출 전");
+        }
+        return bufferStart + binBase + viewOffsets[bufferView];
+    }
+
+    /**
+     * allocate() 로 받은 버퍼에 데이터를 다 쓴 뒤 최종 GLB 바이트
+     */
+    public byte[] toByteArray(ByteBuffer written) {
+        if (!meshopt) {
+            if (written.hasArray() && written.arrayOffset() == 0 && written.capacity() == byteLength()) {
+                return written.array();
+            }
+            byte[] copy = new byte[byteLength()];
+            written.get(bufferStart, copy);
+            return copy;
+        }
+
+        byte[][] compressed = new byte[bufferViewCount][];
+        int[] compressedOffsets = new int[bufferViewCount];
+        int compressedLength = 0;
+        for (int view = 0; view < bufferViewCount; view++) {
+            int count = viewLengths[view] / viewElementSizes[view];
+            compressed[view] = viewTargets[view] == ELEMENT_ARRAY_BUFFER
+                    ? MeshoptEncoder.encodeIndexSequence(written, viewOffsets[view], count, viewElementSizes[view])
+                    : MeshoptEncoder.encodeVertexBuffer(written, viewOffsets[view], count, viewElementSizes[view]);
+            compressedOffsets[view] = align4(compressedLength);
+            compressedLength = compressedOffsets[view] + compressed[view].length;
+        }
+
+        finish(compressedOffsets, compressed, compressedLength);
+        ByteBuffer out = ByteBuffer.allocate(containerLength(compressedLength)).order(ByteOrder.LITTLE_ENDIAN);
+        writeContainer(out, compressedLength);
+        int binStart = out.position();
+        for (int view = 0; view < bufferViewCount; view++) {
+            out.put(binStart + compressedOffsets[view], compressed[view]);
+        }
+        return out.array();
+    }
+
+    // ================== 내부 ==================
+
+    private int containerLength(int bin) {
+        int length = HEADER_BYTES + CHUNK_HEADER_BYTES + jsonPadded;
+        if (bin > 0) {
+            length += CHUNK_HEADER_BYTES + align4(bin);
+        }
+        return length;
+    }
+
+    private void writeContainer(ByteBuffer out, int bin) {
+        out.putInt(GLB_MAGIC);
+        out.putInt(GLB_VERSION);
+        out.putInt(containerLength(bin));
+
+        out.putInt(jsonPadded);
+        out.putInt(CHUNK_JSON);
+        out.put(json);
+        for (int i = json.length; i < jsonPadded; i++) {
+            out.put((byte) ' ');
+        }
+
+        if (bin > 0) {
+            out.putInt(align4(bin));
+            out.putInt(CHUNK_BIN);
+        }
+    }
+
+    /**
+     * @param compressedOffsets null 이면 비압축 레이아웃
+     */
+    private void finish(int[] compressedOffsets, byte[][] compressed, int compressedLength) {
+        boolean packed = compressedOffsets != null && bufferViewCount > 0;
+        if (packed) {
+            extensionsUsed.add(MeshoptEncoder.EXTENSION);
+            extensionsRequired.add(MeshoptEncoder.EXTENSION);
+        }
+
+        StringBuilder doc = new StringBuilder(256 + bufferViewCount * 192 + accessors.length()
+                + meshes.length() + nodes.length());
+        doc.append("{\"asset\":{\"version\":\"2.0\",\"generator\":\"").append(generator).append("\"}");
+        appendNames(doc, "extensionsUsed", extensionsUsed);
+        appendNames(doc, "extensionsRequired", extensionsRequired);
+        doc.append(",\"scene\":0,\"scenes\":[{\"nodes\":[");
+        for (int i = 0; i < nodeCount; i++) {
+            if (i > 0) doc.append(',');
+            doc.append(i);
+        }
+        doc.append("]}]");
+        appendArray(doc, "nodes", nodes, nodeCount);
+        appendArray(doc, "meshes", meshes, meshCount);
+        appendArray(doc, "materials", materials, materialCount);
+        appendArray(doc, "accessors", accessors, accessorCount);
+
+        if (bufferViewCount > 0) {
+            doc.append(",\"bufferViews\":[");
+            for (int view = 0; view < bufferViewCount; view++) {
+                if (view > 0) doc.append(',');
+                doc.append("{\"buffer\":").append(packed ? 1 : 0)
+                        .append(",\"byteOffset\":").append(viewOffsets[view])
+                        .append(",\"byteLength\":").append(viewLengths[view]);
+                if (viewStrided[view]) {
+                    doc.append(",\"byteStride\":").append(viewElementSizes[view]);
+                }
+                doc.append(",\"target\":").append(viewTargets[view]);
+                if (packed) {
+                    doc.append(",\"extensions\":{\"").append(MeshoptEncoder.EXTENSION)
+                            .append("\":{\"buffer\":0,\"byteOffset\":").append(compressedOffsets[view])
+                            .append(",\"byteLength\":").append(compressed[view].length)
+                            .append(",\"byteStride\":").append(viewElementSizes[view])
+                            .append(",\"count\":").append(viewLengths[view] / viewElementSizes[view])
+                            .append(",\"mode\":\"")
+                            .append(viewTargets[view] == ELEMENT_ARRAY_BUFFER ? "INDICES" : "ATTRIBUTES")
+                            .append("\"}}");
+                }
+                doc.append('}');
+            }
+            doc.append(']');
+
+            if (packed) {
+                doc.append(",\"buffers\":[{\"byteLength\":").append(align4(compressedLength))
+                        .append("},{\"byteLength\":").append(align4(binLength))
+                        .append(",\"extensions\":{\"").append(MeshoptEncoder.EXTENSION)
+                        .append("\":{\"fallback\":true}}}]");
+            } else {
+                doc.append(",\"buffers\":[{\"byteLength\":").append(align4(binLength)).append("}]");
+            }
+        }
+        doc.append('}');
+
+        json = doc.toString().getBytes(StandardCharsets.UTF_8);
+        jsonPadded = align4(json.length);
+    }
+
+    private void checkOpen() {
+        if (json != null) {
+            throw new IllegalStateException("레이아웃이 이미 확정됨");
+        }
+    }
+
+    private void checkPlain() {
+        if (meshopt) {
+            throw new IllegalStateException("meshopt 모드는 압축 후 크기가 정해지므로 toByteArray 사용");
+        }
+    }
+
+    private static void appendArray(StringBuilder doc, String name, StringBuilder items, int count) {
+        if (count > 0) {
+            doc.append(",\"").append(name).append("\":[").append(items).append(']');
+        }
+    }
+
+    private static void appendNames(StringBuilder doc, String name, Set<String> values) {
+        if (values.isEmpty()) {
+            return;
+        }
+        doc.append(",\"").append(name).append("\":[");
+        int i = 0;
+        for (String value : values) {
+            if (i++ > 0) doc.append(',');
+            doc.append('"').append(value).append('"');
+        }
+        doc.append(']');
+    }
+
+    private static StringBuilder separate(StringBuilder items, int count) {
+        return count > 0 ? items.append(',') : items;
+    }
+
+    private static void appendNumbers(StringBuilder sb, float[] values) {
+        sb.append('[');
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) sb.append(',');
+            float v = values[i];
+            if (v == (int) v) {
+                sb.append((int) v);
+            } else {
+                sb.append(v);
+            }
+        }
+        sb.append(']');
+    }
+
+    private static int align4(int value) {
+        return (value + 3) & ~3;
+    }
+}
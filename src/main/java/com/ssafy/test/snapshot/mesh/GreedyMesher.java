@@ -0,0 +1,222 @@
+package com.ssafy.test.snapshot.mesh;
+
+import com.ssafy.test.snapshot.dto.DeltaDTO;
+import com.ssafy.test.snapshot.service.VoxelDeltaMap;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Greedy meshing
+ * - 인접한 voxel 사이의 면은 생성하지 않음 (청크 경계 면은 유지)
+ * - 같은 방향/평면/색의 면을 가능한 큰 사각형으로 병합
+ * - 결과는 청크 전체에 대한 Mesh 1개
+ */
+@Component
+public class GreedyMesher {
+
+    private static final int EDGE = 256;
+    private static final int DEFAULT_COLOR = 0x808080;
+
+    public MeshData mesh(List<DeltaDTO> deltas, float voxelSize) {
+        VoxelDeltaMap occupied = new VoxelDeltaMap(deltas.size());
+        for (DeltaDTO delta : deltas) {
+            occupied.put(delta);
+        }
+
+        MeshBuilder builder = new MeshBuilder(Math.max(16, deltas.size()));
+        int[] mask = new int[EDGE * EDGE];
+        int[] sliceCounts = new int[EDGE + 1];
+        // 면 버킷: slice 별로 정렬된 (u, v, color)
+        int[] faceU = new int[deltas.size()];
+        int[] faceV = new int[deltas.size()];
+        int[] faceColor = new int[deltas.size()];
+        int[] coord = new int[3];
+
+        for (int axis = 0; axis < 3; axis++) {
+            int uAxis = (axis + 1) % 3;
+            int vAxis = (axis + 2) % 3;
+
+            for (int sign = 1; sign >= -1; sign -= 2) {
+                int face = axis * 2 + (sign > 0 ? 0 : 1);
+
+                // 1) 보이는 면을 slice 별로 버킷팅 (counting sort)
+                Arrays.fill(sliceCounts, 0);
+                for (DeltaDTO delta : deltas) {
+                    unpack(delta.voxelId(), coord);
+                    if (isVisible(occupied, delta.voxelId(), coord, axis, sign)) {
+                        sliceCounts[coord[axis] + 1]++;
+                    }
+                }
+                for (int i = 1; i <= EDGE; i++) {
+                    sliceCounts[i] += sliceCounts[i - 1];
+                }
+                int[] cursor = Arrays.copyOf(sliceCounts, EDGE);
+                for (DeltaDTO delta : deltas) {
+                    unpack(delta.voxelId(), coord);
+                    if (isVisible(occupied, delta.voxelId(), coord, axis, sign)) {
+                        int at = cursor[coord[axis]]++;
+                        faceU[at] = coord[uAxis];
+                        faceV[at] = coord[vAxis];
+                        faceColor[at] = faceColor(delta, face);
+                    }
+                }
+
+                // 2) slice 마다 2D 마스크에서 사각형 병합
+                for (int slice = 0; slice < EDGE; slice++) {
+                    int from = sliceCounts[slice];
+                    int to = sliceCounts[slice + 1];
+                    if (from == to) {
+                        continue;
+                    }
+
+                    int uMin = EDGE, vMin = EDGE, uMax = -1, vMax = -1;
+                    for (int i = from; i < to; i++) {
+                        mask[faceU[i] + faceV[i] * EDGE] = faceColor[i] + 1;
+                        uMin = Math.min(uMin, faceU[i]);
+                        uMax = Math.max(uMax, faceU[i]);
+                        vMin = Math.min(vMin, faceV[i]);
+                        vMax = Math.max(vMax, faceV[i]);
+                    }
+
+                    int plane = slice + (sign > 0 ? 1 : 0);
+                    for (int v = vMin; v <= vMax; v++) {
+                        for (int u = uMin; u <= uMax; ) {
+                            int color = mask[u + v * EDGE];
+                            if (color == 0) {
+                                u++;
+                                continue;
+                            }
+
+                            int width = 1;
+                            while (u + width <= uMax && mask[u + width + v * EDGE] == color) {
+                                width++;
+                            }
+
+                            int height = 1;
+                            grow:
+                            while (v + height <= vMax) {
+                                int row = (v + height) * EDGE;
+                                for (int k = 0; k < width; k++) {
+                                    if (mask[u + k + row] != color) {
+                                        break grow;
+                                    }
+                                }
+                                height++;
+                            }
+
+                            for (int dv = 0; dv < height; dv++) {
+                                Arrays.fill(mask, u + (v + dv) * EDGE, u + width + (v + dv) * EDGE, 0);
+                            }
+
+                            builder.addQuad(axis, uAxis, vAxis, sign, plane, u, v, width, height,
+                                    color - 1, voxelSize);
+                            u += width;
+                        }
+                    }
+                }
+            }
+        }
+
+        return builder.build();
+    }
+
+    private static boolean isVisible(VoxelDeltaMap occupied, int voxelId, int[] coord, int axis, int sign) {
+        int neighbor = coord[axis] + sign;
+        if (neighbor < 0 || neighbor >= EDGE) {
+            // 이웃 청크 정보가 없으므로 경계 면은 항상 생성
+            return true;
+        }
+        // voxelId = x<<16 | y<<8 | z
+        return !occupied.contains(voxelId + (sign << (16 - axis * 8)));
+    }
+
+    /**
+     * RGB_FACES 이면서 6면 색이 모두 있으면 면별 색, 아니면 첫 RGB
+     */
+    private static int faceColor(DeltaDTO delta, int face) {
+        byte[] colors = delta.colorBytes();
+        if (colors == null || colors.length < 3) {
+            return DEFAULT_COLOR;
+        }
+        int offset = 0;
+        if (delta.colorSchema() == DeltaDTO.ColorSchema.RGB_FACES && colors.length >= 18) {
+            offset = face * 3;
+        }
+        return ((colors[offset] & 0xFF) << 16) | ((colors[offset + 1] & 0xFF) << 8) | (colors[offset + 2] & 0xFF);
+    }
+
+    private static void unpack(int voxelId, int[] coord) {
+        coord[0] = (voxelId >> 16) & 0xFF;
+        coord[1] = (voxelId >> 8) & 0xFF;
+        coord[2] = voxelId & 0xFF;
+    }
+
+    /**
+     * 박싱 없는 가변 primitive 버퍼
+     */
+    private static final class MeshBuilder {
+        private float[] positions;
+        private float[] colors;
+        private int[] indices;
+        private int vertexCount;
+        private int indexCount;
+
+        MeshBuilder(int expectedQuads) {
+            positions = new float[expectedQuads * 12];
+            colors = new float[expectedQuads * 12];
+            indices = new int[expectedQuads * 6];
+        }
+
+        void addQuad(int axis, int uAxis, int vAxis, int sign, int plane,
+                     int u, int v, int width, int height, int rgb, float voxelSize) {
+            ensureCapacity();
+            float r = ((rgb >> 16) & 0xFF) / 255.0f;
+            float g = ((rgb >> 8) & 0xFF) / 255.0f;
+            float b = (rgb & 0xFF) / 255.0f;
+
+            int base = vertexCount;
+            int[][] corners = {{u, v}, {u + width, v}, {u + width, v + height}, {u, v + height}};
+            for (int[] corner : corners) {
+                int p = vertexCount * 3;
+                positions[p + axis] = plane * voxelSize;
+                positions[p + uAxis] = corner[0] * voxelSize;
+                positions[p + vAxis] = corner[1] * voxelSize;
+                colors[p] = r;
+                colors[p + 1] = g;
+                colors[p + 2] = b;
+                vertexCount++;
+            }
+
+            // u × v = axis 방향이므로 +방향 면은 그대로, -방향 면은 뒤집어 바깥쪽이 CCW
+            if (sign > 0) {
+                putTriangle(base, base + 1, base + 2);
+                putTriangle(base, base + 2, base + 3);
+            } else {
+                putTriangle(base, base + 2, base + 1);
+                putTriangle(base, base + 3, base + 2);
+            }
+        }
+
+        private void putTriangle(int a, int b, int c) {
+            indices[indexCount++] = a;
+            indices[indexCount++] = b;
+            indices[indexCount++] = c;
+        }
+
+        private void ensureCapacity() {
+            if ((vertexCount + 4) * 3 > positions.length) {
+                positions = Arrays.copyOf(positions, positions.length * 2);
+                colors = Arrays.copyOf(colors, colors.length * 2);
+            }
+            if (indexCount + 6 > indices.length) {
+                indices = Arrays.copyOf(indices, indices.length * 2);
+            }
+        }
+
+        MeshData build() {
+            return new MeshData(positions, colors, indices, vertexCount, indexCount);
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.ssafy.test.snapshot.mesh;
+
+public enum MeshCompression {
+    // 비압축 GLB (artifact_kind = glb)
+    NONE,
+    // EXT_meshopt_compression 적용 GLB (artifact_kind = gltf+meshopt)
+    MESHOPT
+}
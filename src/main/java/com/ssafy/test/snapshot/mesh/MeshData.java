@@ -0,0 +1,48 @@
+package com.ssafy.test.snapshot.mesh;
+
+/**
+ * 청크 단일 메쉬 (버퍼는 용량이 더 클 수 있으므로 count 까지만 유효)
+ * - positions: xyz (청크 상대 좌표)
+ * - colors: rgb 0~1
+ * - indices: 삼각형 목록
+ */
+public record MeshData(
+        float[] positions,
+        float[] colors,
+        int[] indices,
+        int vertexCount,
+        int indexCount
+) {
+
+    public boolean isEmpty() {
+        return indexCount == 0;
+    }
+
+    public int triangleCount() {
+        return indexCount / 3;
+    }
+
+    public float[] min() {
+        return bound(true);
+    }
+
+    public float[] max() {
+        return bound(false);
+    }
+
+    private float[] bound(boolean min) {
+        float[] result = new float[3];
+        if (vertexCount == 0) {
+            return result;
+        }
+        for (int axis = 0; axis < 3; axis++) {
+            float value = positions[axis];
+            for (int i = 1; i < vertexCount; i++) {
+                float p = positions[i * 3 + axis];
+                value = min ? Math.min(value, p) : Math.max(value, p);
+            }
+            result[axis] = value;
+        }
+        return result;
+    }
+}
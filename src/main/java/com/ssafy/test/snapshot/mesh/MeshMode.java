@@ -0,0 +1,8 @@
+package com.ssafy.test.snapshot.mesh;
+
+public enum MeshMode {
+    // voxel 당 큐브 1개, Mesh/Node 1개 (기존 방식)
+    SEPARATE,
+    // 청크 당 Mesh 1개, 인접 면 제거 + 같은 색 평면 병합
+    GREEDY
+}
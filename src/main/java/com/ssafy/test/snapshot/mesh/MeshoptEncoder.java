@@ -0,0 +1,204 @@
+package com.ssafy.test.snapshot.mesh;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * EXT_meshopt_compression 인코더 (meshoptimizer 비트스트림 호환, 네이티브 의존성 없음)
+ * - ATTRIBUTES: vertex codec v0 (블록 단위 byte 열 delta + zigzag + 2/4/8bit 그룹 패킹)
+ * - INDICES: index sequence codec v1 (두 기준값 delta + zigzag + varint)
+ */
+public final class MeshoptEncoder {
+
+    public static final String EXTENSION = "EXT_meshopt_compression";
+
+    private static final int VERTEX_HEADER = 0xA0;       // v0
+    private static final int SEQUENCE_HEADER = 0xD1;     // v1
+    private static final int VERTEX_BLOCK_BYTES = 8192;
+    private static final int VERTEX_BLOCK_MAX = 256;
+    private static final int BYTE_GROUP = 16;
+    private static final int TAIL_MAX = 32;
+    private static final int[] GROUP_BITS = {0, 2, 4, 8};
+
+    private MeshoptEncoder() {
+    }
+
+    /**
+     * @param source     little-endian 정점 데이터
+     * @param offset     source 내 시작 위치 (절대)
+     * @param vertexSize 4의 배수, 256 이하
+     */
+    public static byte[] encodeVertexBuffer(ByteBuffer source, int offset, int count, int vertexSize) {
+        if (vertexSize <= 0 || vertexSize > 256 || vertexSize % 4 != 0) {
+            throw new IllegalArgumentException("잘못된 정점 크기: " + vertexSize);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(count * vertexSize / 2 + TAIL_MAX + 16);
+        out.write(VERTEX_HEADER);
+
+        byte[] firstVertex = new byte[vertexSize];
+        for (int k = 0; k < vertexSize && count > 0; k++) {
+            firstVertex[k] = source.get(offset + k);
+        }
+        byte[] lastVertex = firstVertex.clone();
+
+        int blockSize = Math.min((VERTEX_BLOCK_BYTES / vertexSize) & ~(BYTE_GROUP - 1), VERTEX_BLOCK_MAX);
+        byte[] deltas = new byte[VERTEX_BLOCK_MAX];
+        byte[] scratch = new byte[BYTE_GROUP * 2];
+
+        for (int start = 0; start < count; start += blockSize) {
+            int blockCount = Math.min(blockSize, count - start);
+            int aligned = (blockCount + BYTE_GROUP - 1) & ~(BYTE_GROUP - 1);
+
+            for (int k = 0; k < vertexSize; k++) {
+                int previous = lastVertex[k] & 0xFF;
+                int at = offset + start * vertexSize + k;
+                for (int i = 0; i < blockCount; i++, at += vertexSize) {
+                    int value = source.get(at) & 0xFF;
+                    deltas[i] = (byte) zigzag8(value - previous);
+                    previous = value;
+                }
+                for (int i = blockCount; i < aligned; i++) {
+                    deltas[i] = 0;
+                }
+                encodeBytes(out, deltas, aligned, scratch);
+            }
+
+            int last = offset + (start + blockCount - 1) * vertexSize;
+            for (int k = 0; k < vertexSize; k++) {
+                lastVertex[k] = source.get(last + k);
+            }
+        }
+
+        // 디코더의 경계 검사를 단순화하기 위해 첫 정점을 32바이트로 패딩해 꼬리에 기록
+        for (int i = vertexSize; i < TAIL_MAX; i++) {
+            out.write(0);
+        }
+        out.write(firstVertex, 0, vertexSize);
+        return out.toByteArray();
+    }
+
+    /**
+     * @param indexSize 2 또는 4
+     */
+    public static byte[] encodeIndexSequence(ByteBuffer source, int offset, int count, int indexSize) {
+        if (indexSize != 2 && indexSize != 4) {
+            throw new IllegalArgumentException("잘못된 인덱스 크기: " + indexSize);
+        }
+        ByteBuffer in = source.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(count + 8);
+        out.write(SEQUENCE_HEADER);
+
+        int[] last = new int[2];
+        int current = 0;
+        for (int i = 0; i < count; i++) {
+            int at = offset + i * indexSize;
+            int index = indexSize == 2 ? in.getShort(at) & 0xFFFF : in.getInt(at);
+
+            // delta 가 1바이트(부호/기준값 비트 제외 5bit)를 넘으면 다른 기준값으로 전환
+            int cd = index - last[current];
+            if (Math.abs(cd) >= 30) {
+                current ^= 1;
+            }
+
+            int d = index - last[current];
+            int v = (d << 1) ^ (d >> 31);
+            writeVarint(out, (v << 1) | current);
+            last[current] = index;
+        }
+
+        for (int i = 0; i < 4; i++) {
+            out.write(0);
+        }
+        return out.toByteArray();
+    }
+
+    private static void encodeBytes(ByteArrayOutputStream out, byte[] buffer, int size, byte[] scratch) {
+        int groups = size / BYTE_GROUP;
+        byte[] header = new byte[(groups + 3) / 4];
+        byte[] codes = new byte[groups];
+
+        for (int group = 0; group < groups; group++) {
+            int best = 3;
+            int bestSize = BYTE_GROUP;
+            for (int code = 0; code < 3; code++) {
+                int measured = measureGroup(buffer, group * BYTE_GROUP, GROUP_BITS[code]);
+                if (measured < bestSize) {
+                    best = code;
+                    bestSize = measured;
+                }
+            }
+            codes[group] = (byte) best;
+            header[group / 4] |= (byte) (best << ((group % 4) * 2));
+        }
+
+        out.write(header, 0, header.length);
+        for (int group = 0; group < groups; group++) {
+            int written = encodeGroup(buffer, group * BYTE_GROUP, GROUP_BITS[codes[group]], scratch);
+            out.write(scratch, 0, written);
+        }
+    }
+
+    private static int measureGroup(byte[] buffer, int from, int bits) {
+        if (bits == 0) {
+            for (int i = 0; i < BYTE_GROUP; i++) {
+                if (buffer[from + i] != 0) {
+                    return Integer.MAX_VALUE;
+                }
+            }
+            return 0;
+        }
+        int sentinel = (1 << bits) - 1;
+        int size = BYTE_GROUP * bits / 8;
+        for (int i = 0; i < BYTE_GROUP; i++) {
+            if ((buffer[from + i] & 0xFF) >= sentinel) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * 값은 MSB 부터 채우고, sentinel 이상 값은 패킹 뒤에 원본 바이트로 이어 씀
+     */
+    private static int encodeGroup(byte[] buffer, int from, int bits, byte[] out) {
+        if (bits == 0) {
+            return 0;
+        }
+        if (bits == 8) {
+            System.arraycopy(buffer, from, out, 0, BYTE_GROUP);
+            return BYTE_GROUP;
+        }
+        int perByte = 8 / bits;
+        int sentinel = (1 << bits) - 1;
+        int n = 0;
+        for (int i = 0; i < BYTE_GROUP; i += perByte) {
+            int packed = 0;
+            for (int k = 0; k < perByte; k++) {
+                int value = buffer[from + i + k] & 0xFF;
+                packed = (packed << bits) | Math.min(value, sentinel);
+            }
+            out[n++] = (byte) packed;
+        }
+        for (int i = 0; i < BYTE_GROUP; i++) {
+            if ((buffer[from + i] & 0xFF) >= sentinel) {
+                out[n++] = buffer[from + i];
+            }
+        }
+        return n;
+    }
+
+    private static int zigzag8(int delta) {
+        int d = delta & 0xFF;
+        return ((d << 1) ^ ((byte) d >> 7)) & 0xFF;
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, int value) {
+        int v = value;
+        do {
+            int b = v & 0x7F;
+            v >>>= 7;
+            out.write(v != 0 ? b | 0x80 : b);
+        } while (v != 0);
+    }
+}
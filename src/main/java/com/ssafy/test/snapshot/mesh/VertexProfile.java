@@ -0,0 +1,8 @@
+package com.ssafy.test.snapshot.mesh;
+
+public enum VertexProfile {
+    // FLOAT32 위치/색, UNSIGNED_INT 인덱스
+    FLOAT,
+    // KHR_mesh_quantization: UNSIGNED_SHORT 위치(voxel 격자 단위), 정규화 UNSIGNED_BYTE 색, 가능하면 16bit 인덱스
+    QUANTIZED
+}
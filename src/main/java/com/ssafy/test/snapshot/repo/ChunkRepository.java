@@ -4,12 +4,21 @@ import com.example.jooq.generated.enums.ArtifactKindEnum;
 import com.example.jooq.generated.enums.SnapshotKindEnum;
 import lombok.RequiredArgsConstructor;
 import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.Record2;
+import org.jooq.Record5;
+import org.jooq.Row5;
+import org.jooq.SelectOnConditionStep;
+import org.jooq.Table;
 import org.jooq.impl.DSL;
 import org.springframework.stereotype.Repository;
 
+import java.security.MessageDigest;
 import java.time.Instant;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -50,27 +59,56 @@ public class ChunkRepository {
                 ));
     }
 
-    public Optional<UUID> findChunkIndexUuid(UUID worldUuid, short lod, int x, int y, int z) {
-        return dsl.select(CHUNK_INDEX.UUID)
-                .from(CHUNK_INDEX)
+    /**
+     * 청크 좌표로 chunk_index 현재 버전/상태 해시 조회
+     */
+    public Optional<ChunkHead> findChunkHead(UUID worldUuid, short lod, int x, int y, int z) {
+        return selectChunkHead()
                 .where(CHUNK_INDEX.WORLD_ID.eq(worldUuid))
                 .and(CHUNK_INDEX.LOD.eq(lod))
                 .and(CHUNK_INDEX.IX.eq(x))
                 .and(CHUNK_INDEX.IY.eq(y))
                 .and(CHUNK_INDEX.IZ.eq(z))
                 .and(CHUNK_INDEX.DELETED_AT.isNull())
-                .fetchOptional(CHUNK_INDEX.UUID);
+                .fetchOptional(this::toChunkHead);
+    }
+
+    /**
+     * chunk_index PK 로 현재 버전/상태 해시 조회 (MAX 스캔 없이 chunk_index 한 행)
+     */
+    public Optional<ChunkHead> findChunkHead(UUID chunkUuid) {
+        return selectChunkHead()
+                .where(CHUNK_INDEX.UUID.eq(chunkUuid))
+                .and(CHUNK_INDEX.DELETED_AT.isNull())
+                .fetchOptional(this::toChunkHead);
+    }
+
+    private SelectOnConditionStep<Record5<UUID, Long, byte[], UUID, byte[]>> selectChunkHead() {
+        return dsl.select(CHUNK_INDEX.UUID, CHUNK_INDEX.CURRENT_VERSION, CHUNK_SNAPSHOT.CHECKSUM_SHA256,
+                        CHUNK_MESH.UUID, CHUNK_MESH.CHECKSUM_SHA256)
+                .from(CHUNK_INDEX)
+                .leftJoin(CHUNK_SNAPSHOT).on(CHUNK_SNAPSHOT.UUID.eq(CHUNK_INDEX.CURRENT_SNAPSHOT_ID))
+                .and(CHUNK_SNAPSHOT.DELETED_AT.isNull())
+                .leftJoin(CHUNK_MESH).on(CHUNK_MESH.UUID.eq(CHUNK_INDEX.CURRENT_MESH_ID))
+                .and(CHUNK_MESH.DELETED_AT.isNull());
+    }
+
+    private ChunkHead toChunkHead(Record5<UUID, Long, byte[], UUID, byte[]> record) {
+        return new ChunkHead(record.value1(), record.value2().intValue(), record.value3(),
+                record.value4(), record.value5());
     }
 
-    public UUID insertChunkIndex(UUID worldUuid, short lod, int x, int y, int z,
-                                 int edgeCells, double voxelSizeM,
-                                 double minX, double minY, double minZ,
-                                 double maxX, double maxY, double maxZ) {
-        UUID chunkUuid = UUID.randomUUID();
+    /**
+     * 청크 인덱스 생성 (같은 좌표가 이미 있으면 아무것도 하지 않고 empty)
+     */
+    public Optional<ChunkHead> insertChunkIndexIfAbsent(UUID worldUuid, short lod, int x, int y, int z,
+                                                        int edgeCells, double voxelSizeM,
+                                                        double minX, double minY, double minZ,
+                                                        double maxX, double maxY, double maxZ) {
         OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
 
-        dsl.insertInto(CHUNK_INDEX)
-                .set(CHUNK_INDEX.UUID, chunkUuid)
+        return dsl.insertInto(CHUNK_INDEX)
+                .set(CHUNK_INDEX.UUID, UUID.randomUUID())
                 .set(CHUNK_INDEX.WORLD_ID, worldUuid)
                 .set(CHUNK_INDEX.LOD, lod)
                 .set(CHUNK_INDEX.IX, x)
@@ -88,84 +126,251 @@ public class ChunkRepository {
                 .set(CHUNK_INDEX.CURRENT_MESH_VERSION, 0L)
                 .set(CHUNK_INDEX.CREATED_AT, now)
                 .set(CHUNK_INDEX.UPDATED_AT, now)
-                .execute();
+                .onConflict(CHUNK_INDEX.WORLD_ID, CHUNK_INDEX.LOD, CHUNK_INDEX.IX, CHUNK_INDEX.IY, CHUNK_INDEX.IZ)
+                .doNothing()
+                .returningResult(CHUNK_INDEX.UUID, CHUNK_INDEX.CURRENT_VERSION)
+                .fetchOptional(record -> new ChunkHead(record.value1(), record.value2().intValue(), null, null, null));
+    }
 
-        return chunkUuid;
+    /**
+     * version 이 속한 세그먼트 체인 요약: 기준 스냅샷 버전/크기, 그 이후 version 까지의 세그먼트 수/크기
+     */
+    public Optional<SnapshotChain> findSnapshotChain(UUID chunkUuid, long version) {
+        return findBaseVersion(chunkUuid, version).map(baseVersion -> dsl.select(
+                        DSL.max(CHUNK_SNAPSHOT.COMPRESSED_BYTES).filterWhere(CHUNK_SNAPSHOT.VERSION.eq(baseVersion)),
+                        DSL.count().filterWhere(CHUNK_SNAPSHOT.VERSION.gt(baseVersion)),
+                        DSL.sum(CHUNK_SNAPSHOT.COMPRESSED_BYTES).filterWhere(CHUNK_SNAPSHOT.VERSION.gt(baseVersion))
+                )
+                .from(CHUNK_SNAPSHOT)
+                .where(CHUNK_SNAPSHOT.CHUNK_ID.eq(chunkUuid))
+                .and(CHUNK_SNAPSHOT.VERSION.between(baseVersion, version))
+                .and(CHUNK_SNAPSHOT.DELETED_AT.isNull())
+                .fetchOne(record -> new SnapshotChain(
+                        baseVersion,
+                        record.value1() == null ? 0 : record.value1(),
+                        record.value2(),
+                        record.value3() == null ? 0L : record.value3().longValue()
+                )));
     }
 
-    public Optional<Integer> findMaxSnapshotVersion(UUID chunkUuid) {
+    /**
+     * version 이하에서 가장 최근 전체 스냅샷 버전 (version 자신이 전체 스냅샷이면 version)
+     * - 세그먼트는 항상 직전 버전 대비라 이후 버전은 모두 이 기준 + 세그먼트로 복원 가능
+     * - 압축(compaction)으로 중간 버전이 전체 스냅샷이 되면 이후 버전도 그 지점부터 복원
+     */
+    public Optional<Long> findBaseVersion(UUID chunkUuid, long version) {
         return dsl.select(DSL.max(CHUNK_SNAPSHOT.VERSION))
                 .from(CHUNK_SNAPSHOT)
                 .where(CHUNK_SNAPSHOT.CHUNK_ID.eq(chunkUuid))
+                .and(CHUNK_SNAPSHOT.VERSION.le(version))
+                .and(DSL.coalesce(CHUNK_SNAPSHOT.BASE_VERSION, CHUNK_SNAPSHOT.VERSION).eq(CHUNK_SNAPSHOT.VERSION))
                 .and(CHUNK_SNAPSHOT.DELETED_AT.isNull())
-                .fetchOptional(0, Integer.class);
+                .fetchOptional(0, Long.class);
     }
 
-    public Optional<Long> findMaxMeshVersion(UUID chunkUuid) {
-        return dsl.select(DSL.max(CHUNK_MESH.MESH_VERSION))
-                .from(CHUNK_MESH)
-                .where(CHUNK_MESH.CHUNK_ID.eq(chunkUuid))
-                .and(CHUNK_MESH.DELETED_AT.isNull())
-                .fetchOptional(0, Long.class);
+    /**
+     * fromVersion ~ toVersion 스냅샷/세그먼트 객체 키 (버전 → storage_uri)
+     */
+    public Map<Long, String> findSnapshotUris(UUID chunkUuid, long fromVersion, long toVersion) {
+        return dsl.select(CHUNK_SNAPSHOT.VERSION, CHUNK_SNAPSHOT.STORAGE_URI)
+                .from(CHUNK_SNAPSHOT)
+                .where(CHUNK_SNAPSHOT.CHUNK_ID.eq(chunkUuid))
+                .and(CHUNK_SNAPSHOT.VERSION.between(fromVersion, toVersion))
+                .and(CHUNK_SNAPSHOT.DELETED_AT.isNull())
+                .fetchMap(Record2::value1, Record2::value2);
     }
 
-    public UUID insertChunkSnapshot(UUID chunkUuid, long version, String storageUri,
-                                    int compressedBytes, int nonEmptyCells) {
-        UUID snapshotUuid = UUID.randomUUID();
-        OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+    public Optional<byte[]> findSnapshotChecksum(UUID chunkUuid, long version) {
+        return dsl.select(CHUNK_SNAPSHOT.CHECKSUM_SHA256)
+                .from(CHUNK_SNAPSHOT)
+                .where(CHUNK_SNAPSHOT.CHUNK_ID.eq(chunkUuid))
+                .and(CHUNK_SNAPSHOT.VERSION.eq(version))
+                .and(CHUNK_SNAPSHOT.DELETED_AT.isNull())
+                .fetchOptional(CHUNK_SNAPSHOT.CHECKSUM_SHA256);
+    }
 
-        dsl.insertInto(CHUNK_SNAPSHOT)
-                .set(CHUNK_SNAPSHOT.UUID, snapshotUuid)
-                .set(CHUNK_SNAPSHOT.CHUNK_ID, chunkUuid)
-                .set(CHUNK_SNAPSHOT.VERSION, version)
-                .set(CHUNK_SNAPSHOT.SCHEMA_VERSION, (short) 1)
+    /**
+     * 세그먼트 버전을 전체 스냅샷으로 교체 (압축 결과 반영)
+     */
+    public int rebaseSnapshot(UUID chunkUuid, long version, String storageUri, int compressedBytes) {
+        return dsl.update(CHUNK_SNAPSHOT)
+                .set(CHUNK_SNAPSHOT.BASE_VERSION, version)
                 .set(CHUNK_SNAPSHOT.STORAGE_URI, storageUri)
-                .set(CHUNK_SNAPSHOT.SNAPSHOT_KIND, SnapshotKindEnum.sparse_voxel)
-                .set(CHUNK_SNAPSHOT.NON_EMPTY_CELLS, nonEmptyCells)
                 .set(CHUNK_SNAPSHOT.COMPRESSED_BYTES, compressedBytes)
-                .set(CHUNK_SNAPSHOT.CREATED_AT, now)
-                .set(CHUNK_SNAPSHOT.UPDATED_AT, now)
+                .set(CHUNK_SNAPSHOT.UPDATED_AT, OffsetDateTime.now(ZoneOffset.UTC))
+                .where(CHUNK_SNAPSHOT.CHUNK_ID.eq(chunkUuid))
+                .and(CHUNK_SNAPSHOT.VERSION.eq(version))
                 .execute();
+    }
 
-        return snapshotUuid;
+    public Optional<ChunkLocation> findChunkLocation(UUID chunkUuid) {
+        return dsl.select(WORLD.NAME, CHUNK_INDEX.LOD, CHUNK_INDEX.IX, CHUNK_INDEX.IY, CHUNK_INDEX.IZ)
+                .from(CHUNK_INDEX)
+                .join(WORLD).on(WORLD.UUID.eq(CHUNK_INDEX.WORLD_ID))
+                .where(CHUNK_INDEX.UUID.eq(chunkUuid))
+                .fetchOptional(record -> new ChunkLocation(
+                        record.value1(),
+                        record.value2(),
+                        record.value3(),
+                        record.value4(),
+                        record.value5()
+                ));
     }
 
-    public UUID insertChunkMesh(UUID chunkUuid, UUID snapshotUuid, long meshVersion,
-                                String artifactUri, int compressedBytes) {
-        UUID meshUuid = UUID.randomUUID();
+    /**
+     * 스냅샷 행 multi-row INSERT (버전은 advanceChunkIndexes 에서 이미 확정)
+     */
+    public int insertChunkSnapshots(List<PublishedChunk> chunks) {
         OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
 
-        dsl.insertInto(CHUNK_MESH)
-                .set(CHUNK_MESH.UUID, meshUuid)
-                .set(CHUNK_MESH.CHUNK_ID, chunkUuid)
-                .set(CHUNK_MESH.SNAPSHOT_ID, snapshotUuid)
-                .set(CHUNK_MESH.MESH_VERSION, meshVersion)
-                .set(CHUNK_MESH.ARTIFACT_URI, artifactUri)
-                .set(CHUNK_MESH.ARTIFACT_KIND, ArtifactKindEnum.glb)
-                .set(CHUNK_MESH.COMPRESSED_BYTES, compressedBytes)
-                .set(CHUNK_MESH.CREATED_AT, now)
-                .set(CHUNK_MESH.UPDATED_AT, now)
-                .execute();
+        var insert = dsl.insertInto(CHUNK_SNAPSHOT,
+                CHUNK_SNAPSHOT.UUID,
+                CHUNK_SNAPSHOT.CHUNK_ID,
+                CHUNK_SNAPSHOT.VERSION,
+                CHUNK_SNAPSHOT.BASE_VERSION,
+                CHUNK_SNAPSHOT.SCHEMA_VERSION,
+                CHUNK_SNAPSHOT.STORAGE_URI,
+                CHUNK_SNAPSHOT.SNAPSHOT_KIND,
+                CHUNK_SNAPSHOT.NON_EMPTY_CELLS,
+                CHUNK_SNAPSHOT.COMPRESSED_BYTES,
+                CHUNK_SNAPSHOT.CHECKSUM_SHA256,
+                CHUNK_SNAPSHOT.CREATED_AT,
+                CHUNK_SNAPSHOT.UPDATED_AT);
+        for (PublishedChunk chunk : chunks) {
+            insert = insert.values(
+                    chunk.snapshotUuid(),
+                    chunk.chunkUuid(),
+                    chunk.version(),
+                    chunk.baseVersion(),
+                    (short) 1,
+                    chunk.snapshotUri(),
+                    SnapshotKindEnum.sparse_voxel,
+                    chunk.nonEmptyCells(),
+                    chunk.snapshotBytes(),
+                    chunk.checksumSha256(),
+                    now,
+                    now);
+        }
 
-        return meshUuid;
+        return insert.execute();
     }
 
-    public int updateChunkIndexAfterSnapshot(UUID chunkUuid, UUID snapshotUuid,
-                                             long version, UUID meshUuid, long meshVersion,
-                                             Instant lastWriteAt) {
-        OffsetDateTime writeAt = OffsetDateTime.ofInstant(lastWriteAt, ZoneOffset.UTC);
+    /**
+     * 메쉬 행 multi-row INSERT (이전 메쉬를 그대로 쓰는 청크는 제외)
+     */
+    public int insertChunkMeshes(List<PublishedChunk> chunks, Map<UUID, Long> meshVersions) {
+        List<PublishedChunk> meshed = chunks.stream().filter(PublishedChunk::hasNewMesh).toList();
+        if (meshed.isEmpty()) {
+            return 0;
+        }
         OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
 
+        var insert = dsl.insertInto(CHUNK_MESH,
+                CHUNK_MESH.UUID,
+                CHUNK_MESH.CHUNK_ID,
+                CHUNK_MESH.SNAPSHOT_ID,
+                CHUNK_MESH.MESH_VERSION,
+                CHUNK_MESH.ARTIFACT_URI,
+                CHUNK_MESH.ARTIFACT_KIND,
+                CHUNK_MESH.COMPRESSED_BYTES,
+                CHUNK_MESH.CHECKSUM_SHA256,
+                CHUNK_MESH.CREATED_AT,
+                CHUNK_MESH.UPDATED_AT);
+        for (PublishedChunk chunk : meshed) {
+            insert = insert.values(
+                    chunk.meshUuid(),
+                    chunk.chunkUuid(),
+                    chunk.snapshotUuid(),
+                    meshVersions.get(chunk.chunkUuid()),
+                    chunk.meshUri(),
+                    chunk.meshKind(),
+                    chunk.meshBytes(),
+                    chunk.meshChecksumSha256(),
+                    now,
+                    now);
+        }
+
+        return insert.execute();
+    }
+
+    /**
+     * chunk_index 현재 스냅샷/메쉬 포인터 일괄 갱신 (UPDATE ... FROM (VALUES ...) 1회)
+     * - current_version 이 version - 1 인 청크만 갱신 (다른 노드가 먼저 발행했으면 제외)
+     * - 메쉬 버전은 current_mesh_version + 1 로 같은 행에서 할당 (이전 메쉬를 그대로 쓰면 유지)
+     * @return 갱신된 청크 UUID → 할당된 메쉬 버전
+     */
+    @SuppressWarnings("unchecked")
+    public Map<UUID, Long> advanceChunkIndexes(List<PublishedChunk> chunks) {
+        Row5<UUID, UUID, Long, UUID, OffsetDateTime>[] rows = chunks.stream()
+                .map(chunk -> DSL.row(
+                        chunk.chunkUuid(),
+                        chunk.snapshotUuid(),
+                        chunk.version(),
+                        chunk.meshUuid(),
+                        OffsetDateTime.ofInstant(chunk.lastWriteAt(), ZoneOffset.UTC)))
+                .toArray(Row5[]::new);
+
+        Table<Record5<UUID, UUID, Long, UUID, OffsetDateTime>> published = DSL.values(rows)
+                .as("published", "chunk_id", "snapshot_id", "version", "mesh_id", "last_write_at");
+        Field<Long> version = published.field("version", Long.class);
+        Field<UUID> meshId = published.field("mesh_id", UUID.class);
+
         return dsl.update(CHUNK_INDEX)
-                .set(CHUNK_INDEX.CURRENT_SNAPSHOT_ID, snapshotUuid)
+                .set(CHUNK_INDEX.CURRENT_SNAPSHOT_ID, published.field("snapshot_id", UUID.class))
                 .set(CHUNK_INDEX.CURRENT_VERSION, version)
-                .set(CHUNK_INDEX.CURRENT_MESH_ID, meshUuid)
-                .set(CHUNK_INDEX.CURRENT_MESH_VERSION, meshVersion)
-                .set(CHUNK_INDEX.LAST_WRITE_AT, writeAt)
-                .set(CHUNK_INDEX.UPDATED_AT, now)
-                .where(CHUNK_INDEX.UUID.eq(chunkUuid))
-                .execute();
+                .set(CHUNK_INDEX.CURRENT_MESH_ID, meshId)
+                .set(CHUNK_INDEX.CURRENT_MESH_VERSION, CHUNK_INDEX.CURRENT_MESH_VERSION.plus(
+                        DSL.when(CHUNK_INDEX.CURRENT_MESH_ID.eq(meshId), 0L).otherwise(1L)))
+                .set(CHUNK_INDEX.LAST_WRITE_AT, published.field("last_write_at", OffsetDateTime.class))
+                .set(CHUNK_INDEX.UPDATED_AT, OffsetDateTime.now(ZoneOffset.UTC))
+                .from(published)
+                .where(CHUNK_INDEX.UUID.eq(published.field("chunk_id", UUID.class)))
+                .and(CHUNK_INDEX.CURRENT_VERSION.eq(version.minus(1L)))
+                .and(CHUNK_INDEX.DELETED_AT.isNull())
+                .returningResult(CHUNK_INDEX.UUID, CHUNK_INDEX.CURRENT_MESH_VERSION)
+                .fetchMap(Record2::value1, Record2::value2);
     }
 
     public record WorldLodInfo(UUID uuid, int edgeCells, double voxelSizeM) {}
+
+    /**
+     * chunk_index 한 행에서 읽은 청크 현재 상태
+     * - checksumSha256: 현재 스냅샷 상태 해시, meshChecksumSha256: 현재 메쉬의 보이는 내용 해시 (없으면 null)
+     */
+    public record ChunkHead(UUID chunkUuid, int version, byte[] checksumSha256,
+                            UUID meshUuid, byte[] meshChecksumSha256) {
+
+        /**
+         * 현재 스냅샷과 상태 해시가 같으면 true (해시가 없는 이전 스냅샷은 항상 false)
+         */
+        public boolean hasChecksum(byte[] checksum) {
+            return checksumSha256 != null && MessageDigest.isEqual(checksumSha256, checksum);
+        }
+
+        /**
+         * 현재 메쉬와 보이는 내용 해시가 같으면 true (메쉬가 없거나 해시가 없으면 false)
+         */
+        public boolean hasMeshChecksum(byte[] visibleChecksum) {
+            return meshUuid != null && meshChecksumSha256 != null
+                    && MessageDigest.isEqual(meshChecksumSha256, visibleChecksum);
+        }
+    }
+
+    public record SnapshotChain(long baseVersion, int baseBytes, int segmentCount, long segmentBytes) {}
+
+    public record ChunkLocation(String worldName, int lod, int x, int y, int z) {}
+
+    /**
+     * 발행된 청크 1개의 스냅샷/메쉬 메타데이터 (일괄 커밋 단위)
+     * - 보이는 내용이 같아 이전 메쉬를 그대로 쓰면 meshUuid 는 현재 메쉬, meshUri 는 null (메쉬 행 추가 없음)
+     */
+    public record PublishedChunk(UUID chunkUuid, UUID snapshotUuid, long version, long baseVersion,
+                                 String snapshotUri, int snapshotBytes, int nonEmptyCells, byte[] checksumSha256,
+                                 UUID meshUuid, String meshUri, ArtifactKindEnum meshKind, int meshBytes,
+                                 byte[] meshChecksumSha256, Instant lastWriteAt) {
+
+        public boolean hasNewMesh() {
+            return meshUri != null;
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,103 @@
+package com.ssafy.test.snapshot.repo;
+
+import com.example.jooq.generated.enums.CompactionStatusEnum;
+import lombok.RequiredArgsConstructor;
+import org.jooq.DSLContext;
+import org.jooq.impl.DSL;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+
+import static com.example.jooq.generated.Tables.CHUNK_COMPACTION_JOB;
+
+@Repository
+@RequiredArgsConstructor
+public class CompactionJobRepository {
+
+    private final DSLContext dsl;
+
+    /**
+     * 여러 청크의 작업을 한 번의 다중 행 INSERT 로 등록 (대기/실행 중인 작업이 있는 청크는 건너뜀)
+     * - 부분 유니크 인덱스(uq_compaction_chunk_active)와 ON CONFLICT DO NOTHING 으로 동시 등록도 청크당 하나만 삽입
+     * @return 실제로 등록된 청크 UUID
+     */
+    public List<UUID> insertAllIfAbsent(List<CompactionJob> jobs) {
+        if (jobs.isEmpty()) {
+            return List.of();
+        }
+        OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+
+        var insert = dsl.insertInto(CHUNK_COMPACTION_JOB,
+                CHUNK_COMPACTION_JOB.UUID,
+                CHUNK_COMPACTION_JOB.CHUNK_ID,
+                CHUNK_COMPACTION_JOB.FROM_VERSION,
+                CHUNK_COMPACTION_JOB.TO_VERSION,
+                CHUNK_COMPACTION_JOB.STATUS,
+                CHUNK_COMPACTION_JOB.CREATED_AT,
+                CHUNK_COMPACTION_JOB.UPDATED_AT);
+        for (CompactionJob job : jobs) {
+            insert = insert.values(job.uuid(), job.chunkUuid(), job.fromVersion(), job.toVersion(),
+                    CompactionStatusEnum.queued, now, now);
+        }
+        return insert.onConflictDoNothing()
+                .returning(CHUNK_COMPACTION_JOB.CHUNK_ID)
+                .fetch(CHUNK_COMPACTION_JOB.CHUNK_ID);
+    }
+
+    /**
+     * 대기 작업(또는 staleAfter 보다 오래 실행 중인 작업)을 최대 limit 개 선점
+     * - FOR UPDATE SKIP LOCKED 로 여러 노드가 같은 작업을 가져가지 않음
+     * - 단일 UPDATE ... RETURNING 이라 선점과 상태 변경이 원자적
+     */
+    public List<CompactionJob> claim(int limit, Duration staleAfter) {
+        OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+
+        return dsl.update(CHUNK_COMPACTION_JOB)
+                .set(CHUNK_COMPACTION_JOB.STATUS, CompactionStatusEnum.running)
+                .set(CHUNK_COMPACTION_JOB.STARTED_AT, now)
+                .set(CHUNK_COMPACTION_JOB.UPDATED_AT, now)
+                .where(CHUNK_COMPACTION_JOB.UUID.in(
+                        DSL.select(CHUNK_COMPACTION_JOB.UUID)
+                                .from(CHUNK_COMPACTION_JOB)
+                                .where(CHUNK_COMPACTION_JOB.DELETED_AT.isNull())
+                                .and(CHUNK_COMPACTION_JOB.STATUS.eq(CompactionStatusEnum.queued)
+                                        .or(CHUNK_COMPACTION_JOB.STATUS.eq(CompactionStatusEnum.running)
+                                                .and(CHUNK_COMPACTION_JOB.STARTED_AT.lt(now.minus(staleAfter)))))
+                                .orderBy(CHUNK_COMPACTION_JOB.CREATED_AT)
+                                .limit(limit)
+                                .forUpdate()
+                                .skipLocked()
+                ))
+                .returning(
+                        CHUNK_COMPACTION_JOB.UUID,
+                        CHUNK_COMPACTION_JOB.CHUNK_ID,
+                        CHUNK_COMPACTION_JOB.FROM_VERSION,
+                        CHUNK_COMPACTION_JOB.TO_VERSION
+                )
+                .fetch(record -> new CompactionJob(
+                        record.get(CHUNK_COMPACTION_JOB.UUID),
+                        record.get(CHUNK_COMPACTION_JOB.CHUNK_ID),
+                        record.get(CHUNK_COMPACTION_JOB.FROM_VERSION),
+                        record.get(CHUNK_COMPACTION_JOB.TO_VERSION)
+                ));
+    }
+
+    public int finish(UUID jobUuid, CompactionStatusEnum status, String statsJson) {
+        OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+
+        return dsl.update(CHUNK_COMPACTION_JOB)
+                .set(CHUNK_COMPACTION_JOB.STATUS, status)
+                .set(CHUNK_COMPACTION_JOB.FINISHED_AT, now)
+                .set(CHUNK_COMPACTION_JOB.STATS, DSL.field("cast({0} as jsonb)",
+                        CHUNK_COMPACTION_JOB.STATS.getDataType(), DSL.val(statsJson)))
+                .set(CHUNK_COMPACTION_JOB.UPDATED_AT, now)
+                .where(CHUNK_COMPACTION_JOB.UUID.eq(jobUuid))
+                .execute();
+    }
+
+    public record CompactionJob(UUID uuid, UUID chunkUuid, long fromVersion, Long toVersion) {}
+}
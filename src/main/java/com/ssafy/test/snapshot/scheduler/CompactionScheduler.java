@@ -0,0 +1,28 @@
+package com.ssafy.test.snapshot.scheduler;
+
+import com.ssafy.test.snapshot.service.SnapshotCompactionService;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 압축 작업 선점만 하고 바로 반환 (실행은 SnapshotCompactionService 의 별도 실행기)
+ */
+@Component
+@RequiredArgsConstructor
+class CompactionScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(CompactionScheduler.class);
+    private final SnapshotCompactionService compactionService;
+
+    @Scheduled(fixedDelayString = "${snapshot.compaction.poll-interval-ms:5000}")
+    public void dispatchCompactionJobs() {
+        try {
+            compactionService.dispatch();
+        } catch (Exception e) {
+            log.error("스냅샷 압축 작업 선점 실패", e);
+        }
+    }
+}
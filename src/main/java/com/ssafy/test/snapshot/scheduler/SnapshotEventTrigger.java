@@ -0,0 +1,96 @@
+package com.ssafy.test.snapshot.scheduler;
+
+import com.ssafy.test.snapshot.service.ChunkDebouncer;
+import com.ssafy.test.snapshot.service.DirtyChunkRegistry;
+import com.ssafy.test.snapshot.service.SnapshotOrchestrator;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 변경 이벤트 기반 스냅샷 트리거 (snapshot.trigger.event.enabled=true)
+ * - snapshot:dirty 채널 구독 → 청크별 debounce → 처리 시점이 된 청크만 배치 실행
+ * - 조용한 청크는 debounce 직후, 계속 바뀌는 청크는 max-delay 마다 처리
+ * - Pub/Sub 은 유실될 수 있으므로 SnapshotScheduler 주기 배치가 보정
+ * - 배치는 전용 스레드에서 실행 (공용 스케줄러 스레드를 막지 않음)
+ */
+@Component
+@ConditionalOnProperty(name = "snapshot.trigger.event.enabled", havingValue = "true")
+class SnapshotEventTrigger implements MessageListener {
+
+    private static final Logger log = LoggerFactory.getLogger(SnapshotEventTrigger.class);
+
+    private final SnapshotOrchestrator orchestrator;
+    private final RedisConnectionFactory connectionFactory;
+    private final ChunkDebouncer debouncer;
+    private final long tickMillis;
+    private final RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+    private final ScheduledExecutorService dispatcher = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("snapshot-event-trigger").daemon().factory());
+
+    SnapshotEventTrigger(
+            SnapshotOrchestrator orchestrator,
+            RedisConnectionFactory connectionFactory,
+            @Value("${snapshot.trigger.event.debounce:250ms}") Duration debounce,
+            @Value("${snapshot.trigger.event.max-delay:2s}") Duration maxDelay,
+            @Value("${snapshot.trigger.event.tick-ms:50}") long tickMillis) {
+        this.orchestrator = orchestrator;
+        this.connectionFactory = connectionFactory;
+        this.debouncer = new ChunkDebouncer(debounce, maxDelay);
+        this.tickMillis = Math.max(10, tickMillis);
+    }
+
+    @PostConstruct
+    void start() {
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(this, new ChannelTopic(DirtyChunkRegistry.DIRTY_CHANNEL));
+        container.afterPropertiesSet();
+        container.start();
+        dispatcher.scheduleWithFixedDelay(this::dispatchDue, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+        log.info("이벤트 스냅샷 트리거 시작. 채널: {}", DirtyChunkRegistry.DIRTY_CHANNEL);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        debouncer.record(new String(message.getBody(), StandardCharsets.UTF_8), System.nanoTime());
+    }
+
+    private void dispatchDue() {
+        Set<String> due = debouncer.drainDue(System.nanoTime());
+        if (due.isEmpty()) {
+            return;
+        }
+        try {
+            orchestrator.executeSnapshotBatch(due);
+        } catch (Exception e) {
+            // 처리 못 한 op 는 dirty 인덱스에 남아 주기 배치에서 처리
+            log.error("이벤트 스냅샷 배치 실패. 청크 수: {}, 대기 중: {}", due.size(), debouncer.size(), e);
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        dispatcher.shutdownNow();
+        try {
+            container.destroy();
+        } catch (Exception e) {
+            log.warn("이벤트 구독 종료 실패", e);
+        }
+    }
+}
@@ -19,7 +19,8 @@ class SnapshotScheduler {
     private static final Logger log = LoggerFactory.getLogger(SnapshotScheduler.class);
     private final SnapshotOrchestrator orchestrator;
 
-    @Scheduled(fixedRate = 10000)
+    // 이벤트 모드에서는 Pub/Sub 유실 보정용이라 간격을 늘려도 됨
+    @Scheduled(fixedDelayString = "${snapshot.trigger.sweep-interval-ms:10000}")
     public void executeSnapshotBatch() {
         log.info("=== 스냅샷 배치 스케줄 시작 ===");
         try {
@@ -0,0 +1,149 @@
+package com.ssafy.test.snapshot.scheduler;
+
+import com.ssafy.test.snapshot.service.DeltaCollectorService;
+import com.ssafy.test.snapshot.service.DeltaCollectorService.DeltaCollectionResult;
+import com.ssafy.test.snapshot.service.DeltaStreamService;
+import com.ssafy.test.snapshot.service.DeltaStreamService.StreamDelta;
+import com.ssafy.test.snapshot.service.SnapshotMembership;
+import com.ssafy.test.snapshot.service.SnapshotOrchestrator;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * 스트림 모드 스냅샷 워커 (snapshot.ingest.mode=STREAM)
+ * - 전용 스레드에서 XREADGROUP → 청크별로 묶어 배치 실행 → 처리된 청크의 항목만 XACK
+ * - claim-interval 마다 claim-min-idle 이상 pending 인 항목을 XAUTOCLAIM (중단된 노드, 커밋 충돌 항목)
+ * - 노드를 추가하면 같은 group 의 consumer 로 참여 (분산 락 없음)
+ * - 멤버십 활성화 시 소유 파티션만 읽음, consumer 이름 기본값은 멤버십 노드 ID
+ */
+@Component
+@ConditionalOnProperty(name = "snapshot.ingest.mode", havingValue = "STREAM")
+class SnapshotStreamWorker {
+
+    private static final Logger log = LoggerFactory.getLogger(SnapshotStreamWorker.class);
+    private static final long ERROR_BACKOFF_MILLIS = 1000;
+
+    private final SnapshotOrchestrator orchestrator;
+    private final DeltaStreamService deltaStream;
+    private final DeltaCollectorService deltaCollector;
+    private final SnapshotMembership membership;
+    private final String consumer;
+    private final int batchSize;
+    private final Duration block;
+    private final Duration claimMinIdle;
+    private final long claimIntervalNanos;
+    private final Thread worker;
+    private volatile boolean running = true;
+
+    SnapshotStreamWorker(
+            SnapshotOrchestrator orchestrator,
+            DeltaStreamService deltaStream,
+            DeltaCollectorService deltaCollector,
+            SnapshotMembership membership,
+            @Value("${snapshot.ingest.stream.consumer:}") String consumer,
+            @Value("${snapshot.ingest.stream.batch-size:512}") int batchSize,
+            @Value("${snapshot.ingest.stream.block:1s}") Duration block,
+            @Value("${snapshot.ingest.stream.claim-min-idle:60s}") Duration claimMinIdle,
+            @Value("${snapshot.ingest.stream.claim-interval:10s}") Duration claimInterval) {
+        this.orchestrator = orchestrator;
+        this.deltaStream = deltaStream;
+        this.deltaCollector = deltaCollector;
+        this.membership = membership;
+        this.consumer = consumer.isBlank() ? membership.nodeId() : consumer;
+        this.batchSize = Math.max(1, batchSize);
+        this.block = block;
+        this.claimMinIdle = claimMinIdle;
+        this.claimIntervalNanos = claimInterval.toNanos();
+        this.worker = Thread.ofPlatform().name("snapshot-stream-worker").daemon().unstarted(this::pollLoop);
+    }
+
+    @PostConstruct
+    void start() {
+        deltaStream.ensureGroups();
+        worker.start();
+        log.info("스트림 스냅샷 워커 시작. consumer: {}, 파티션 수: {}", consumer, deltaStream.partitions());
+    }
+
+    private void pollLoop() {
+        // 시작 직후 한 번 재수거 (이전 실행에서 같은 이름으로 남긴 pending 포함)
+        long nextClaimAt = System.nanoTime();
+        while (running) {
+            try {
+                // 멤버 변경 시 다음 반복부터 새 소유 파티션을 읽음 (넘겨준 파티션의 pending 은 새 소유자가 재수거)
+                List<Integer> partitions = membership.ownedPartitions(deltaStream.partitions());
+                if (partitions.isEmpty()) {
+                    sleepQuietly(block.toMillis());
+                    continue;
+                }
+                List<StreamDelta> entries = new ArrayList<>();
+                if (System.nanoTime() - nextClaimAt >= 0) {
+                    entries.addAll(deltaStream.claimStale(consumer, partitions, claimMinIdle, batchSize));
+                    nextClaimAt = System.nanoTime() + claimIntervalNanos;
+                }
+                entries.addAll(deltaStream.read(consumer, partitions, batchSize, block));
+                if (!entries.isEmpty()) {
+                    processEntries(entries);
+                }
+            } catch (Exception e) {
+                if (!running) {
+                    return;
+                }
+                // ack 되지 않은 항목은 pending 으로 남아 재수거
+                log.error("스트림 스냅샷 배치 실패. consumer: {}", consumer, e);
+                sleepQuietly(ERROR_BACKOFF_MILLIS);
+            }
+        }
+    }
+
+    private void processEntries(List<StreamDelta> entries) {
+        Map<String, List<StreamDelta>> byChunk = new LinkedHashMap<>();
+        List<StreamDelta> malformed = new ArrayList<>();
+        for (StreamDelta entry : entries) {
+            if (entry.chunkKey() == null) {
+                malformed.add(entry);
+                continue;
+            }
+            byChunk.computeIfAbsent(entry.chunkKey(), key -> new ArrayList<>()).add(entry);
+        }
+        if (!malformed.isEmpty()) {
+            log.warn("청크 키 없는 스트림 항목 폐기. 항목 수: {}", malformed.size());
+            deltaStream.acknowledge(malformed);
+        }
+
+        Map<String, DeltaCollectionResult> collected = new LinkedHashMap<>();
+        byChunk.forEach((chunkKey, chunkEntries) ->
+                collected.put(chunkKey, deltaCollector.collectFromStream(chunkKey, chunkEntries)));
+
+        Set<String> processed = orchestrator.executeStreamBatch(collected);
+
+        List<StreamDelta> done = new ArrayList<>();
+        for (String chunkKey : processed) {
+            done.addAll(byChunk.get(chunkKey));
+        }
+        deltaStream.acknowledge(done);
+        log.info("스트림 항목 처리 완료. 청크: {}/{}, ack 항목: {}/{}",
+                processed.size(), byChunk.size(), done.size(), entries.size());
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        worker.interrupt();
+    }
+}
@@ -0,0 +1,53 @@
+package com.ssafy.test.snapshot.service;
+
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 청크별 변경 이벤트 debounce
+ * - 마지막 이벤트 후 debounce 동안 조용하면 처리 대상
+ * - 계속 변경되는 청크도 첫 이벤트 후 maxDelay 가 지나면 처리 대상 (그 사이 변경은 한 번에 합쳐짐)
+ * - 시각은 호출자가 nanoTime 기준으로 전달
+ */
+public final class ChunkDebouncer {
+
+    private final long debounceNanos;
+    private final long maxDelayNanos;
+    private final Map<String, Window> pending = new ConcurrentHashMap<>();
+
+    public ChunkDebouncer(Duration debounce, Duration maxDelay) {
+        this.debounceNanos = debounce.toNanos();
+        this.maxDelayNanos = Math.max(debounce.toNanos(), maxDelay.toNanos());
+    }
+
+    public void record(String chunkKey, long now) {
+        pending.merge(chunkKey, new Window(now, now), (old, fresh) -> new Window(old.firstAt(), now));
+    }
+
+    /**
+     * 처리 시점이 된 청크를 꺼냄 (꺼내는 사이 새 이벤트가 들어온 청크는 남겨 둠)
+     */
+    public Set<String> drainDue(long now) {
+        Set<String> due = new LinkedHashSet<>();
+        pending.forEach((chunkKey, window) -> {
+            if (window.isDue(now, debounceNanos, maxDelayNanos) && pending.remove(chunkKey, window)) {
+                due.add(chunkKey);
+            }
+        });
+        return due;
+    }
+
+    public int size() {
+        return pending.size();
+    }
+
+    private record Window(long firstAt, long lastAt) {
+
+        boolean isDue(long now, long debounceNanos, long maxDelayNanos) {
+            return now - lastAt >= debounceNanos || now - firstAt >= maxDelayNanos;
+        }
+    }
+}
@@ -2,6 +2,27 @@ package com.ssafy.test.snapshot.service;
 
 public record ChunkInfo(String worldName, int lod, int x, int y, int z) {
 
+    /**
+     * 한 단계 위 LOD 에서 이 청크를 포함하는 청크 (2×2×2 자식 → 부모 1개)
+     */
+    public ChunkInfo parent() {
+        return new ChunkInfo(worldName, lod + 1, Math.floorDiv(x, 2), Math.floorDiv(y, 2), Math.floorDiv(z, 2));
+    }
+
+    /**
+     * 부모 청크 안에서의 위치 (bit2=x, bit1=y, bit0=z)
+     */
+    public int octant() {
+        return ((x & 1) << 2) | ((y & 1) << 1) | (z & 1);
+    }
+
+    /**
+     * Redis 키에 쓰는 청크 ID ({world:이름}:l0:x1:y2:z3, fromKey 로 다시 파싱)
+     */
+    public String chunkId() {
+        return "{world:" + worldName + "}:l" + lod + ":x" + x + ":y" + y + ":z" + z;
+    }
+
     public static ChunkInfo fromKey(String chunkKey) {
         try {
             String worldName = extractWorldName(chunkKey);
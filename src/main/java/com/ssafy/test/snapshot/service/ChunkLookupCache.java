@@ -0,0 +1,108 @@
+package com.ssafy.test.snapshot.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ssafy.test.snapshot.repo.ChunkRepository.WorldLodInfo;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * 청크 메타데이터 식별자 로컬 캐시
+ * - 월드 이름 → UUID, (월드, LOD) → WorldLodInfo, 청크 좌표 → chunk_index UUID
+ * - 생성 후 바뀌지 않는 매핑이라 이미 아는 청크는 조회 쿼리 없이 처리
+ * - 없는 결과는 캐시하지 않음 (새로 생성되면 다음 조회에서 바로 반영)
+ * - 소프트 삭제: 조회 중 삭제가 확인된 청크는 evictChunk 로 즉시 무효화, 월드/LOD 정의는 expire-after-write 이내 반영
+ */
+@Component
+public class ChunkLookupCache {
+
+    private final boolean enabled;
+    private final Cache<String, UUID> worlds;
+    private final Cache<WorldLodKey, WorldLodInfo> worldLods;
+    private final Cache<ChunkInfo, UUID> chunks;
+
+    public ChunkLookupCache(
+            @Value("${snapshot.lookup-cache.enabled:true}") boolean enabled,
+            @Value("${snapshot.lookup-cache.max-chunks:200000}") long maxChunks,
+            @Value("${snapshot.lookup-cache.expire-after-write:10m}") Duration expireAfterWrite) {
+        this.enabled = enabled;
+        this.worlds = Caffeine.newBuilder()
+                .maximumSize(1_000)
+                .expireAfterWrite(expireAfterWrite)
+                .build();
+        this.worldLods = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(expireAfterWrite)
+                .build();
+        this.chunks = Caffeine.newBuilder()
+                .maximumSize(maxChunks)
+                .expireAfterWrite(expireAfterWrite)
+                .build();
+    }
+
+    public Optional<UUID> worldUuid(String worldName, Function<String, Optional<UUID>> loader) {
+        return lookup(worlds, worldName, loader);
+    }
+
+    public Optional<WorldLodInfo> worldLod(UUID worldUuid, short lod,
+                                           Function<WorldLodKey, Optional<WorldLodInfo>> loader) {
+        return lookup(worldLods, new WorldLodKey(worldUuid, lod), loader);
+    }
+
+    public Optional<UUID> chunkUuid(ChunkInfo chunkInfo, Function<ChunkInfo, Optional<UUID>> loader) {
+        return lookup(chunks, chunkInfo, loader);
+    }
+
+    /**
+     * 로더 없이 캐시된 chunk_index UUID 만 확인
+     */
+    public Optional<UUID> peekChunkUuid(ChunkInfo chunkInfo) {
+        return enabled ? Optional.ofNullable(chunks.getIfPresent(chunkInfo)) : Optional.empty();
+    }
+
+    /**
+     * chunk_index UUID 등록: 트랜잭션이 있으면 커밋 후 반영 (롤백된 UUID 를 캐시하지 않도록)
+     */
+    public void putChunkUuidAfterCommit(ChunkInfo chunkInfo, UUID chunkUuid) {
+        if (!enabled) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            chunks.put(chunkInfo, chunkUuid);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                chunks.put(chunkInfo, chunkUuid);
+            }
+        });
+    }
+
+    public void evictChunk(ChunkInfo chunkInfo) {
+        chunks.invalidate(chunkInfo);
+    }
+
+    private <K, V> Optional<V> lookup(Cache<K, V> cache, K key, Function<K, Optional<V>> loader) {
+        if (!enabled) {
+            return loader.apply(key);
+        }
+        V cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<V> loaded = loader.apply(key);
+        loaded.ifPresent(value -> cache.put(key, value));
+        return loaded;
+    }
+
+    public record WorldLodKey(UUID worldUuid, short lod) {
+    }
+}
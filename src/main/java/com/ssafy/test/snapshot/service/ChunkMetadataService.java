@@ -2,6 +2,9 @@ package com.ssafy.test.snapshot.service;
 
 import com.ssafy.test.global.exception.CustomException;
 import com.ssafy.test.snapshot.repo.ChunkRepository;
+import com.ssafy.test.snapshot.repo.ChunkRepository.ChunkHead;
+import com.ssafy.test.snapshot.repo.ChunkRepository.PublishedChunk;
+import com.ssafy.test.snapshot.repo.ChunkRepository.SnapshotChain;
 import com.ssafy.test.snapshot.repo.ChunkRepository.WorldLodInfo;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
@@ -9,7 +12,12 @@ import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 import static com.ssafy.test.global.exception.ErrorCode.INTERNAL_SERVER_ERROR;
@@ -19,114 +27,203 @@ import static com.ssafy.test.global.exception.ErrorCode.INTERNAL_SERVER_ERROR;
 public class ChunkMetadataService {
 
     private static final Logger log = LoggerFactory.getLogger(ChunkMetadataService.class);
+    // 행 당 바인드 변수 12개 기준, PostgreSQL 한도(65535) 이내로 유지
+    private static final int MAX_ROWS_PER_STATEMENT = 1000;
+
     private final ChunkRepository repository;
+    private final ChunkLookupCache lookupCache;
 
+    /**
+     * 청크 인덱스 조회/생성 + 현재 버전/상태 해시를 chunk_index 한 행에서 읽음
+     * - 아는 청크(조회 캐시): PK 조회 1회
+     * - 새 청크: INSERT ... ON CONFLICT DO NOTHING RETURNING 1회 (동시 생성에 밀린 경우만 재조회)
+     */
     @Transactional
-    public UUID getOrCreateChunkIndex(ChunkInfo chunkInfo) {
-        UUID worldUuid = repository.findWorldUuidByName(chunkInfo.worldName())
+    public ChunkHead getOrCreateChunkHead(ChunkInfo chunkInfo) {
+        Optional<UUID> known = lookupCache.peekChunkUuid(chunkInfo);
+        if (known.isPresent()) {
+            Optional<ChunkHead> head = repository.findChunkHead(known.get());
+            if (head.isPresent()) {
+                return head.get();
+            }
+            // 캐시 이후 소프트 삭제됨
+            lookupCache.evictChunk(chunkInfo);
+        }
+
+        UUID worldUuid = findWorldUuid(chunkInfo.worldName())
+                .orElseThrow(() -> new CustomException(INTERNAL_SERVER_ERROR));
+        ChunkHead head = repository.findChunkHead(
+                        worldUuid, (short) chunkInfo.lod(), chunkInfo.x(), chunkInfo.y(), chunkInfo.z())
+                .or(() -> createChunkIndex(worldUuid, chunkInfo))
+                .orElseThrow(() -> new CustomException(INTERNAL_SERVER_ERROR));
+        lookupCache.putChunkUuidAfterCommit(chunkInfo, head.chunkUuid());
+        return head;
+    }
+
+    private Optional<ChunkHead> createChunkIndex(UUID worldUuid, ChunkInfo chunkInfo) {
+        log.info("새로운 청크 인덱스 생성: {}", chunkInfo);
+
+        WorldLodInfo lodInfo = findWorldLodInfo(worldUuid, (short) chunkInfo.lod())
                 .orElseThrow(() -> new CustomException(INTERNAL_SERVER_ERROR));
 
-        return repository.findChunkIndexUuid(
-                worldUuid,
-                (short) chunkInfo.lod(),
-                chunkInfo.x(),
-                chunkInfo.y(),
-                chunkInfo.z()
-        ).orElseGet(() -> createChunkIndexSafely(worldUuid, chunkInfo));
-    }
-
-    private UUID createChunkIndexSafely(UUID worldUuid, ChunkInfo chunkInfo) {
-        try {
-            log.info("새로운 청크 인덱스 생성: {}", chunkInfo);
-
-            WorldLodInfo lodInfo = repository.findWorldLodInfo(worldUuid, (short) chunkInfo.lod())
-                    .orElseThrow(() -> new CustomException(INTERNAL_SERVER_ERROR));
-
-            double voxelSize = lodInfo.voxelSizeM();
-            int edgeCells = lodInfo.edgeCells();
-
-            double minX = chunkInfo.x() * edgeCells * voxelSize;
-            double minY = chunkInfo.y() * edgeCells * voxelSize;
-            double minZ = chunkInfo.z() * edgeCells * voxelSize;
-            double maxX = minX + edgeCells * voxelSize;
-            double maxY = minY + edgeCells * voxelSize;
-            double maxZ = minZ + edgeCells * voxelSize;
-
-            return repository.insertChunkIndex(
-                    worldUuid, (short) chunkInfo.lod(),
-                    chunkInfo.x(), chunkInfo.y(), chunkInfo.z(),
-                    edgeCells, voxelSize,
-                    minX, minY, minZ, maxX, maxY, maxZ
-            );
-
-        } catch (Exception e) {
-            // 동시 생성 시도로 인한 UNIQUE 위반 - 재조회
-            log.warn("청크 인덱스 생성 실패 (이미 존재). 재조회: {}", chunkInfo);
-            return repository.findChunkIndexUuid(
-                    worldUuid,
-                    (short) chunkInfo.lod(),
-                    chunkInfo.x(),
-                    chunkInfo.y(),
-                    chunkInfo.z()
-            ).orElseThrow(() -> new CustomException(INTERNAL_SERVER_ERROR));
+        double voxelSize = lodInfo.voxelSizeM();
+        int edgeCells = lodInfo.edgeCells();
+
+        double minX = chunkInfo.x() * edgeCells * voxelSize;
+        double minY = chunkInfo.y() * edgeCells * voxelSize;
+        double minZ = chunkInfo.z() * edgeCells * voxelSize;
+        double maxX = minX + edgeCells * voxelSize;
+        double maxY = minY + edgeCells * voxelSize;
+        double maxZ = minZ + edgeCells * voxelSize;
+
+        Optional<ChunkHead> created = repository.insertChunkIndexIfAbsent(
+                worldUuid, (short) chunkInfo.lod(),
+                chunkInfo.x(), chunkInfo.y(), chunkInfo.z(),
+                edgeCells, voxelSize,
+                minX, minY, minZ, maxX, maxY, maxZ
+        );
+        if (created.isPresent()) {
+            return created;
         }
+
+        // 동시 생성 시도에 밀림 - 재조회
+        log.warn("청크 인덱스 생성 건너뜀 (이미 존재). 재조회: {}", chunkInfo);
+        return repository.findChunkHead(
+                worldUuid, (short) chunkInfo.lod(), chunkInfo.x(), chunkInfo.y(), chunkInfo.z());
     }
 
-    @Transactional
-    public int getSnapshotVersion(UUID chunkUuid) {
-        return repository.findMaxSnapshotVersion(chunkUuid).orElse(0);
+    /**
+     * 월드에 해당 LOD 가 정의되어 있는지
+     */
+    @Transactional(readOnly = true)
+    public boolean hasLod(String worldName, int lod) {
+        return findWorldUuid(worldName)
+                .flatMap(worldUuid -> findWorldLodInfo(worldUuid, (short) lod))
+                .isPresent();
     }
 
-    @Transactional
-    public long getNextMeshVersion(UUID chunkUuid) {
-        return repository.findMaxMeshVersion(chunkUuid).orElse(0L) + 1;
+    /**
+     * 청크 인덱스를 만들지 않고 현재 스냅샷 버전 조회 (없으면 0)
+     */
+    @Transactional(readOnly = true)
+    public int findSnapshotVersion(ChunkInfo chunkInfo) {
+        return findChunkUuid(chunkInfo)
+                .flatMap(repository::findChunkHead)
+                .map(ChunkHead::version)
+                .orElse(0);
     }
 
-    @Transactional
-    public UUID saveChunkSnapshot(UUID chunkUuid, long version, String storageUri,
-                                  int compressedBytes, int nonEmptyCells, Instant createdAt) {
-        try {
-            UUID snapshotUuid = repository.insertChunkSnapshot(
-                    chunkUuid, version, storageUri, compressedBytes, nonEmptyCells
-            );
-
-            log.info("스냅샷 메타데이터 저장 완료. UUID: {}, 버전: {}", snapshotUuid, version);
-            return snapshotUuid;
-
-        } catch (Exception e) {
-            log.error("스냅샷 저장 실패 - 버전 충돌. Chunk: {}, Version: {}", chunkUuid, version, e);
-            throw new CustomException(INTERNAL_SERVER_ERROR);
-        }
+    private Optional<UUID> findChunkUuid(ChunkInfo chunkInfo) {
+        return lookupCache.chunkUuid(chunkInfo, info -> findWorldUuid(info.worldName())
+                .flatMap(worldUuid -> repository.findChunkHead(
+                        worldUuid,
+                        (short) info.lod(),
+                        info.x(),
+                        info.y(),
+                        info.z()))
+                .map(ChunkHead::chunkUuid));
     }
 
+    private Optional<UUID> findWorldUuid(String worldName) {
+        return lookupCache.worldUuid(worldName, repository::findWorldUuidByName);
+    }
+
+    private Optional<WorldLodInfo> findWorldLodInfo(UUID worldUuid, short lod) {
+        return lookupCache.worldLod(worldUuid, lod,
+                key -> repository.findWorldLodInfo(key.worldUuid(), key.lod()));
+    }
+
+    /**
+     * version 이 속한 세그먼트 체인 요약 (스냅샷 행이 없으면 empty)
+     */
+    @Transactional(readOnly = true)
+    public Optional<SnapshotChain> findSnapshotChain(UUID chunkUuid, long version) {
+        return repository.findSnapshotChain(chunkUuid, version);
+    }
+
+    /**
+     * version 상태를 복원할 기준 전체 스냅샷 버전 (메타데이터가 없으면 version 자체를 전체 스냅샷으로 간주)
+     */
+    @Transactional(readOnly = true)
+    public long findBaseVersion(ChunkInfo chunkInfo, long version) {
+        return findChunkUuid(chunkInfo)
+                .flatMap(chunkUuid -> repository.findBaseVersion(chunkUuid, version))
+                .orElse(version);
+    }
+
+    @Transactional(readOnly = true)
+    public long findBaseVersion(UUID chunkUuid, long version) {
+        return repository.findBaseVersion(chunkUuid, version).orElse(version);
+    }
+
+    /**
+     * fromVersion ~ toVersion 스냅샷/세그먼트 객체 키 (행이 없는 버전은 빠짐)
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, String> findSnapshotUris(ChunkInfo chunkInfo, long fromVersion, long toVersion) {
+        return findChunkUuid(chunkInfo)
+                .map(chunkUuid -> repository.findSnapshotUris(chunkUuid, fromVersion, toVersion))
+                .orElse(Map.of());
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<byte[]> findSnapshotChecksum(UUID chunkUuid, long version) {
+        return repository.findSnapshotChecksum(chunkUuid, version);
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<ChunkInfo> findChunkInfo(UUID chunkUuid) {
+        return repository.findChunkLocation(chunkUuid)
+                .map(location -> new ChunkInfo(
+                        location.worldName(), location.lod(), location.x(), location.y(), location.z()));
+    }
+
+    /**
+     * 압축 결과 반영: version 을 전체 스냅샷(새 기준)으로 표시
+     */
     @Transactional
-    public UUID saveChunkMesh(UUID chunkUuid, UUID snapshotUuid, long meshVersion,
-                              String artifactUri, int compressedBytes, Instant createdAt) {
-        try {
-            UUID meshUuid = repository.insertChunkMesh(
-                    chunkUuid, snapshotUuid, meshVersion, artifactUri, compressedBytes
-            );
-
-            log.info("메쉬 메타데이터 저장 완료. UUID: {}, 버전: {}", meshUuid, meshVersion);
-            return meshUuid;
-
-        } catch (Exception e) {
-            log.error("메쉬 저장 실패. Chunk: {}, Version: {}", chunkUuid, meshVersion, e);
-            throw new CustomException(INTERNAL_SERVER_ERROR);
+    public void rebaseSnapshot(UUID chunkUuid, long version, String storageUri, int compressedBytes) {
+        int updatedRows = repository.rebaseSnapshot(chunkUuid, version, storageUri, compressedBytes);
+        if (updatedRows == 0) {
+            throw new IllegalStateException("스냅샷 행 없음. Chunk: " + chunkUuid + ", Version: " + version);
         }
+        log.info("스냅샷 기준 갱신 완료. Chunk: {}, 버전: {}", chunkUuid, version);
     }
 
+    /**
+     * 배치에서 발행된 청크들의 메타데이터를 한 트랜잭션으로 일괄 기록
+     * - MAX_ROWS_PER_STATEMENT 개 단위로 chunk_index UPDATE(버전 확정 + 메쉬 버전 할당) → 스냅샷 INSERT → 메쉬 INSERT
+     * - 다른 노드가 먼저 같은 버전을 발행한 청크는 건너뛰고 결과에서 제외
+     * @return 커밋된 청크 UUID
+     */
     @Transactional
-    public void updateChunkIndexAfterSnapshot(UUID chunkUuid, UUID snapshotUuid, UUID meshUuid,
-                                              long version, long meshVersion, Instant lastWriteAt) {
-        int updatedRows = repository.updateChunkIndexAfterSnapshot(
-                chunkUuid, snapshotUuid, version, meshUuid, meshVersion, lastWriteAt
-        );
+    public Set<UUID> commitPublished(List<PublishedChunk> chunks) {
+        Set<UUID> committed = new HashSet<>();
+        for (int from = 0; from < chunks.size(); from += MAX_ROWS_PER_STATEMENT) {
+            List<PublishedChunk> slice = chunks.subList(from, Math.min(chunks.size(), from + MAX_ROWS_PER_STATEMENT));
+            committed.addAll(commitSlice(slice));
+        }
+        log.info("메타데이터 일괄 기록 완료. 커밋: {}/{}", committed.size(), chunks.size());
+        return committed;
+    }
 
-        if (updatedRows == 0) {
-            log.warn("청크 인덱스 업데이트 실패. UUID: {}", chunkUuid);
-        } else {
-            log.info("청크 인덱스 업데이트 완료. UUID: {}", chunkUuid);
+    private Set<UUID> commitSlice(List<PublishedChunk> slice) {
+        // chunk_index 행 잠금 + current_version 비교로 버전 확정 (MAX 스캔 없음)
+        Map<UUID, Long> meshVersions = repository.advanceChunkIndexes(slice);
+        List<PublishedChunk> accepted = new ArrayList<>(meshVersions.size());
+        for (PublishedChunk chunk : slice) {
+            if (meshVersions.containsKey(chunk.chunkUuid())) {
+                accepted.add(chunk);
+            } else {
+                log.warn("스냅샷 저장 건너뜀 - 버전 충돌. Chunk: {}, Version: {}", chunk.chunkUuid(), chunk.version());
+            }
         }
+        if (accepted.isEmpty()) {
+            return Set.of();
+        }
+
+        repository.insertChunkSnapshots(accepted);
+        repository.insertChunkMeshes(accepted, meshVersions);
+        return meshVersions.keySet();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,31 @@
+package com.ssafy.test.snapshot.service;
+
+import java.nio.charset.StandardCharsets;
+
+import static com.ssafy.test.snapshot.service.SnapshotOrchestrator.OPID_PREFIX;
+
+/**
+ * 청크 하나의 미처리 op 관련 Redis 키
+ * - 대기: op_ids:{청크} (Sorted Set), deltas:{청크} (Hash), tombstone:{청크} (Sorted Set)
+ * - 처리 중: inflight:{청크}, inflight_tombstone:{청크} (claim 된 op, 원래 score 유지), inflight_lease:{청크} (claim 토큰, TTL)
+ * - 모두 같은 {world:이름} 해시 태그 → 클러스터에서도 스크립트 하나로 처리
+ */
+record ChunkOpKeys(String ops, String deltas, String tombstones,
+                   String inflightOps, String inflightTombstones, String lease) {
+
+    static ChunkOpKeys of(String chunkKey) {
+        String chunkId = chunkKey.startsWith(OPID_PREFIX) ? chunkKey.substring(OPID_PREFIX.length()) : chunkKey;
+        return new ChunkOpKeys(
+                OPID_PREFIX + chunkId,
+                "deltas:" + chunkId,
+                "tombstone:" + chunkId,
+                "inflight:" + chunkId,
+                "inflight_tombstone:" + chunkId,
+                "inflight_lease:" + chunkId
+        );
+    }
+
+    static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,63 @@
+package com.ssafy.test.snapshot.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * 노드 목록 기반 consistent hash ring (불변)
+ * - 노드마다 virtualNodes 개 지점을 링에 배치 → 키는 시계 방향 첫 지점의 노드가 소유
+ * - 노드 추가/제거 시 해당 노드 몫(약 1/N)의 키만 소유자가 바뀜
+ * - 모든 노드가 같은 멤버 목록이면 같은 소유자를 계산 (해시는 JVM/노드와 무관)
+ */
+public final class ChunkOwnershipRing {
+
+    private final NavigableMap<Long, String> ring = new TreeMap<>();
+    private final Set<String> members;
+
+    public ChunkOwnershipRing(Collection<String> members, int virtualNodes) {
+        this.members = Collections.unmodifiableSet(new TreeSet<>(members));
+        int replicas = Math.max(1, virtualNodes);
+        for (String member : this.members) {
+            for (int i = 0; i < replicas; i++) {
+                // 해시 충돌 시 정렬 순서상 앞선 노드 유지 (모든 노드에서 같은 결과)
+                ring.putIfAbsent(hash(member + "#" + i), member);
+            }
+        }
+    }
+
+    public Set<String> members() {
+        return members;
+    }
+
+    public boolean isEmpty() {
+        return ring.isEmpty();
+    }
+
+    /**
+     * @return 소유 노드 (멤버가 없으면 null)
+     */
+    public String ownerOf(String key) {
+        if (ring.isEmpty()) {
+            return null;
+        }
+        Map.Entry<Long, String> entry = ring.ceilingEntry(hash(key));
+        return (entry != null ? entry : ring.firstEntry()).getValue();
+    }
+
+    /**
+     * FNV-1a 64 + murmur3 finalizer (짧은 키도 링 전체에 고르게 분산)
+     */
+    static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -1,148 +1,219 @@
 package com.ssafy.test.snapshot.service;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ssafy.test.snapshot.dto.DeltaDTO;
+import com.ssafy.test.snapshot.repo.ChunkRepository.ChunkHead;
+import com.ssafy.test.snapshot.service.SnapshotBulkheads.Resource;
 import com.ssafy.test.snapshot.service.SnapshotOrchestrator.ChunkProcessResult;
 import lombok.RequiredArgsConstructor;
-import org.redisson.api.RLock;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.io.UncheckedIOException;
 import java.time.Instant;
 import java.util.*;
-import java.util.concurrent.TimeUnit;
 
 @Service
 @RequiredArgsConstructor
 public class ChunkProcessorService {
 
     private static final Logger log = LoggerFactory.getLogger(ChunkProcessorService.class);
-    private static final int LOCK_WAIT_TIME = 2;
-    private static final int LOCK_LEASE_TIME = -1;
 
     private final DeltaCollectorService deltaCollector;
     private final SnapshotMergeService snapshotMerger;
-    private final GLBGeneratorService glbGenerator;
-    private final S3StorageService s3Storage;
+    private final SnapshotPublisher snapshotPublisher;
     private final ChunkMetadataService chunkMetadataService;
     private final RedisOperationService redisOperation;
-    private final RedissonLockService lockService;
-    private final ObjectMapper objectMapper;
-
-    @Transactional
-    public ChunkProcessResult processChunk(String chunkKey, Instant batchStartTime) {
+    private final DirtyChunkRegistry dirtyChunkRegistry;
+    private final SnapshotBulkheads bulkheads;
+    private final SnapshotMetrics metrics;
+
+    /**
+     * 1단계: Delta claim → 병합 → 스냅샷/GLB 업로드 (메타데이터는 배치 커밋에서 기록)
+     * claim 이후 실패하면 claim 한 op 를 대기열로 복원
+     * @return 다른 배치가 claim 중이면 null
+     */
+    public PreparedChunk prepareChunk(String chunkKey, Instant batchStartTime) {
         log.info("청크 처리 시작: {}", chunkKey);
 
+        DeltaCollectorService.DeltaCollectionResult deltaResult = null;
         try {
             ChunkInfo chunkInfo = ChunkInfo.fromKey(chunkKey);
             log.info("현재 청크 정보: {}", chunkInfo);
             double maxScore = (double) batchStartTime.toEpochMilli();
 
-            DeltaCollectorService.DeltaCollectionResult deltaResult;
-            RLock readLock = lockService.getLock(chunkKey + ":read");
+            // claim: 스크립트 1회로 대상 op 를 처리 중 키로 옮기고 payload 까지 조회 (락 없음)
+            deltaResult = bulkheads.call(Resource.REDIS, () -> metrics.time(SnapshotMetrics.Stage.COLLECT, chunkInfo,
+                    () -> deltaCollector.claimDeltas(chunkKey, maxScore)));
+            if (deltaResult == null) {
+                log.info("다른 배치가 처리 중인 청크. 청크: {}", chunkKey);
+                return null;
+            }
 
-            try {
-                // 락 획득 시도
-                boolean acquired = readLock.tryLock(LOCK_WAIT_TIME, LOCK_LEASE_TIME, TimeUnit.SECONDS);
-                if (!acquired) {
-                    log.info("읽기 락 획득 실패. 청크: {}", chunkKey);
-                    return null;
-                }
+            // 데이터 없으면 종료 (payload 가 모두 유실된 op 는 정리)
+            if (deltaResult.currentDeltas().isEmpty() && deltaResult.tombstoneOpIds().isEmpty()) {
+                log.info("적용할 Delta 없음. 청크: {}", chunkKey);
+                String claimToken = deltaResult.claimToken();
+                bulkheads.run(Resource.REDIS, () -> metrics.time(SnapshotMetrics.Stage.CLEANUP, chunkInfo, () -> {
+                    redisOperation.acknowledge(chunkKey, claimToken);
+                    dirtyChunkRegistry.reconcile(chunkKey);
+                }));
+                return PreparedChunk.done(ChunkProcessResult.success(chunkKey, 0, null, null));
+            }
 
-                log.info("읽기 락 획득 성공 (Watchdog 활성화): {}", chunkKey);
+            return stage(chunkKey, chunkInfo, deltaResult);
 
-                deltaResult = deltaCollector.collectDeltas(chunkKey, maxScore);
+        } catch (UncheckedIOException e) {
+            log.error("직렬화 실패. 청크: {}", chunkKey, e);
+            requeue(chunkKey, deltaResult);
+            return PreparedChunk.done(ChunkProcessResult.failure(chunkKey, "직렬화 실패: " + e.getMessage()));
+        } catch (Exception e) {
+            log.error("청크 처리 실패. 청크: {}", chunkKey, e);
+            requeue(chunkKey, deltaResult);
+            return PreparedChunk.done(ChunkProcessResult.failure(chunkKey, e.getMessage()));
+        }
+    }
 
-            } finally {
-                // 락 해제
-                lockService.unlock(readLock);
-                log.debug("읽기 락 해제: {}", chunkKey);
-            }
+    /**
+     * 스트림 모드 1단계: 이미 읽어 온 Delta 로 병합 → 스냅샷/GLB 업로드 (락 없음, 충돌은 배치 커밋의 버전 비교로 판정)
+     */
+    public PreparedChunk prepareCollectedChunk(String chunkKey, DeltaCollectorService.DeltaCollectionResult deltaResult) {
+        log.info("스트림 청크 처리 시작: {}", chunkKey);
 
-            // 데이터 없으면 종료
-            if (deltaResult.currentDeltas().isEmpty()) {
+        try {
+            ChunkInfo chunkInfo = ChunkInfo.fromKey(chunkKey);
+            if (chunkInfo == null) {
+                log.warn("잘못된 청크 키. 항목 폐기: {}", chunkKey);
+                return PreparedChunk.done(ChunkProcessResult.success(chunkKey, 0, null, null));
+            }
+            if (deltaResult.currentDeltas().isEmpty() && deltaResult.tombstoneOpIds().isEmpty()) {
                 log.info("적용할 Delta 없음. 청크: {}", chunkKey);
-                return ChunkProcessResult.success(chunkKey, 0, null, null);
+                return PreparedChunk.done(ChunkProcessResult.success(chunkKey, 0, null, null));
             }
+            return stage(chunkKey, chunkInfo, deltaResult);
 
-            log.info("수집된 Delta 수: {}", deltaResult.currentDeltas().size());
-
-            // 현재 버전
-            UUID chunkUuid = chunkMetadataService.getOrCreateChunkIndex(chunkInfo);
-            int curVersion = chunkMetadataService.getSnapshotVersion(chunkUuid);
-            int newVersion = curVersion + 1;
-
-            List<DeltaDTO> finalSnapshot = snapshotMerger.mergeSnapshot(
-                    chunkInfo,
-                    deltaResult.currentDeltas(),
-                    deltaResult.tombstoneOpIds(),
-                    curVersion
-            );
-            log.info("최종 스냅샷 Delta 수: {}", finalSnapshot.size());
-
-            // Snapshot 생성, 업로드
-            String snapshotJson = objectMapper.writeValueAsString(finalSnapshot);
-            String snapshotUrl = s3Storage.uploadSnapshot(chunkInfo, newVersion, snapshotJson);
-            log.info("스냅샷 업로드 완료: {}", snapshotUrl);
-
-            // GLB 생성, 업로드
-//            byte[] glbData = glbGenerator.generateGLB(finalSnapshot, chunkInfo);
-            byte[] glbData = glbGenerator.generateGLBWithSeparateMeshes(finalSnapshot);
-
-            String glbUrl = s3Storage.uploadGLB(chunkInfo, newVersion, glbData);
-            log.info("GLB 업로드 완료: {}", glbUrl);
-            //git commit -m "feat(snapshot): 전체 DeltaDTO를 GLB 형식으로 변환하는 기능 구현 [S13P31A207-89]"
-
-            UUID snapshotUuid = chunkMetadataService.saveChunkSnapshot(
-                    chunkUuid, newVersion, snapshotUrl, snapshotJson.length(),
-                    finalSnapshot.size(), Instant.now()
-            );
-
-            long meshVersion = chunkMetadataService.getNextMeshVersion(chunkUuid);
-            UUID meshUuid = chunkMetadataService.saveChunkMesh(
-                    chunkUuid, snapshotUuid, meshVersion, glbUrl,
-                    glbData.length, Instant.now()
-            );
-
-            chunkMetadataService.updateChunkIndexAfterSnapshot(
-                    chunkUuid, snapshotUuid, meshUuid, newVersion, meshVersion, Instant.now()
-            );
-
-            RLock deleteLock = lockService.getLock(chunkKey + ":delete");
-
-            try {
-                boolean acquired = deleteLock.tryLock(LOCK_WAIT_TIME, LOCK_LEASE_TIME, TimeUnit.SECONDS);
-                if (!acquired) {
-                    log.warn("삭제 락 획득 실패. 다음 배치에서 정리됨. 청크: {}", chunkKey);
-                    return ChunkProcessResult.success(chunkKey, finalSnapshot.size(), snapshotUrl, glbUrl);
-                }
-
-                log.info("삭제 락 획득 성공: {}", chunkKey);
-
-                redisOperation.cleanupProcessedData(
-                        chunkKey,
-                        deltaResult.opIds(),
+        } catch (UncheckedIOException e) {
+            log.error("직렬화 실패. 청크: {}", chunkKey, e);
+            return PreparedChunk.done(ChunkProcessResult.failure(chunkKey, "직렬화 실패: " + e.getMessage()));
+        } catch (Exception e) {
+            log.error("청크 처리 실패. 청크: {}", chunkKey, e);
+            return PreparedChunk.done(ChunkProcessResult.failure(chunkKey, e.getMessage()));
+        }
+    }
+
+    /**
+     * 수집된 Delta 병합 → 변경이 있으면 발행 준비
+     */
+    private PreparedChunk stage(String chunkKey, ChunkInfo chunkInfo,
+                                DeltaCollectorService.DeltaCollectionResult deltaResult) {
+        log.info("수집된 Delta 수: {}", deltaResult.currentDeltas().size());
+        metrics.countCollected(chunkInfo, deltaResult.currentDeltas().size(), deltaResult.tombstoneOpIds().size());
+
+        // 현재 버전 (chunk_index 한 행)
+        ChunkHead head = bulkheads.call(Resource.DATABASE,
+                () -> chunkMetadataService.getOrCreateChunkHead(chunkInfo));
+        int curVersion = head.version();
+
+        SnapshotMergeService.MergedSnapshot merged = metrics.time(SnapshotMetrics.Stage.MERGE, chunkInfo,
+                () -> snapshotMerger.mergeSnapshot(
+                        chunkInfo,
+                        deltaResult.currentDeltas(),
                         deltaResult.tombstoneOpIds(),
-                        maxScore
-                );
+                        curVersion
+                ));
+        List<DeltaDTO> finalSnapshot = merged.state();
+        log.info("최종 스냅샷 Delta 수: {}", finalSnapshot.size());
+
+        // 상태 해시가 현재 버전과 같으면 GLB 생성/업로드/버전 증가 생략 (처리한 Delta 정리만 수행)
+        SnapshotPublisher.PendingCommit pending = null;
+        if (head.hasChecksum(merged.checksum())) {
+            log.info("청크 상태 변경 없음. 발행 생략. 청크: {}, 버전: v{}", chunkKey, curVersion);
+        } else {
+            pending = snapshotPublisher.stage(chunkInfo, head, finalSnapshot, merged.changes(), merged.checksum());
+        }
 
-            } finally {
-                lockService.unlock(deleteLock);
-                log.debug("삭제 락 해제: {}", chunkKey);
-            }
+        return new PreparedChunk(chunkKey, deltaResult, finalSnapshot.size(), pending, null);
+    }
 
+    /**
+     * 2단계(배치 커밋 이후): claim 한 Delta ack
+     * 메타데이터가 커밋되지 않은 청크는 Delta 를 대기열로 복원해 다음 배치에서 재처리
+     */
+    public ChunkProcessResult completeChunk(PreparedChunk prepared, boolean committed) {
+        if (prepared.done() != null) {
+            return prepared.done();
+        }
+        String chunkKey = prepared.chunkKey();
+        if (prepared.pending() != null && !committed) {
+            log.warn("메타데이터 커밋 실패. 다음 배치에서 재처리. 청크: {}", chunkKey);
+            requeue(chunkKey, prepared.deltas());
+            return ChunkProcessResult.failure(chunkKey, "메타데이터 커밋 실패");
+        }
+        String snapshotUrl = prepared.pending() == null ? null : prepared.pending().snapshotUrl();
+        String glbUrl = prepared.pending() == null ? null : prepared.pending().glbUrl();
+
+        try {
+            ChunkInfo chunkInfo = prepared.pending() == null ? ChunkInfo.fromKey(chunkKey) : prepared.pending().chunkInfo();
+            bulkheads.run(Resource.REDIS, () -> metrics.time(SnapshotMetrics.Stage.CLEANUP, chunkInfo, () -> {
+                redisOperation.acknowledge(chunkKey, prepared.deltas().claimToken());
+                dirtyChunkRegistry.reconcile(chunkKey);
+            }));
             log.info("청크 처리 완료: {}", chunkKey);
-            return ChunkProcessResult.success(chunkKey, finalSnapshot.size(), snapshotUrl, glbUrl);
+        } catch (Exception e) {
+            // 메타데이터는 이미 커밋됨: lease 만료 후 다음 claim 이 복원, 변경 없음으로 정리
+            log.error("처리 Delta 정리 실패. 청크: {}", chunkKey, e);
+        }
+        return ChunkProcessResult.success(chunkKey, prepared.stateSize(), snapshotUrl, glbUrl);
+    }
 
-        } catch (JsonProcessingException e) {
-            log.error("JSON 처리 실패. 청크: {}", chunkKey, e);
-            return ChunkProcessResult.failure(chunkKey, "JSON 처리 실패: " + e.getMessage());
+    /**
+     * claim 한 op 를 대기열로 복원 (실패해도 lease 만료 후 다음 claim 이 복원)
+     */
+    private void requeue(String chunkKey, DeltaCollectorService.DeltaCollectionResult deltaResult) {
+        if (deltaResult == null || deltaResult.claimToken() == null) {
+            return;
+        }
+        try {
+            bulkheads.run(Resource.REDIS, () -> {
+                redisOperation.requeue(chunkKey, deltaResult.claimToken());
+                dirtyChunkRegistry.reconcile(chunkKey);
+            });
         } catch (Exception e) {
-            log.error("청크 처리 실패. 청크: {}", chunkKey, e);
-            return ChunkProcessResult.failure(chunkKey, e.getMessage());
+            log.error("claim 복원 실패. lease 만료 후 재처리. 청크: {}", chunkKey, e);
+        }
+    }
+
+    /**
+     * 스트림 모드 2단계(배치 커밋 이후): Redis 정리 없음 (성공 결과의 스트림 항목은 호출자가 ack)
+     */
+    public ChunkProcessResult completeCollectedChunk(PreparedChunk prepared, boolean committed) {
+        if (prepared.done() != null) {
+            return prepared.done();
+        }
+        String chunkKey = prepared.chunkKey();
+        if (prepared.pending() != null && !committed) {
+            log.warn("메타데이터 커밋 실패. 스트림 항목 재수거 후 재처리. 청크: {}", chunkKey);
+            return ChunkProcessResult.failure(chunkKey, "메타데이터 커밋 실패");
+        }
+        log.info("스트림 청크 처리 완료: {}", chunkKey);
+        return ChunkProcessResult.success(chunkKey, prepared.stateSize(),
+                prepared.pending() == null ? null : prepared.pending().snapshotUrl(),
+                prepared.pending() == null ? null : prepared.pending().glbUrl());
+    }
+
+    /**
+     * prepareChunk 결과
+     * @param pending 발행 대기 (변경 없음이면 null)
+     * @param done    수집 단계에서 이미 끝난 청크(Delta 없음/실패)의 결과
+     */
+    public record PreparedChunk(String chunkKey,
+                                DeltaCollectorService.DeltaCollectionResult deltas,
+                                int stateSize,
+                                SnapshotPublisher.PendingCommit pending,
+                                ChunkProcessResult done) {
+
+        static PreparedChunk done(ChunkProcessResult result) {
+            return new PreparedChunk(result.chunkKey(), null, 0, null, result);
         }
     }
-}
\ No newline at end of file
+}
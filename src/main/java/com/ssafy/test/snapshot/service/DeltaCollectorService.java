@@ -1,74 +1,176 @@
 package com.ssafy.test.snapshot.service;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ssafy.test.snapshot.codec.DeltaCodec;
 import com.ssafy.test.snapshot.dto.DeltaDTO;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.*;
-import java.util.function.Function;
-import java.util.stream.Collectors;
+import java.util.concurrent.TimeUnit;
 
-import static com.ssafy.test.snapshot.service.SnapshotOrchestrator.OPID_PREFIX;
+import static com.ssafy.test.snapshot.service.ChunkOpKeys.bytes;
 
+/**
+ * 청크별 미처리 op 수집
+ * - claim 스크립트 1회로 batch 기준 시각 이전 op/tombstone 을 처리 중 키로 옮기고 payload 까지 반환 (분산 락 없음)
+ * - claim 토큰은 lease TTL 동안 유효, 처리 후 RedisOperationService 가 ack(삭제) 또는 requeue(복원)
+ * - lease 가 만료된 처리 중 op(중단된 배치)는 다음 claim 이 대기열로 복원한 뒤 함께 가져감
+ */
 @Service
 @RequiredArgsConstructor
 public class DeltaCollectorService {
 
     private static final Logger log = LoggerFactory.getLogger(DeltaCollectorService.class);
-    private static final String DELTAS_PREFIX = "deltas:";
-    private static final String TOMBSTONE_PREFIX = "tombstone:";
 
-    private final StringRedisTemplate redisTemplate;
-    private final ObjectMapper objectMapper;
-
-    public DeltaCollectionResult collectDeltas(String chunkKey, double maxScore) {
-        // 처리 대상 op_id 조회
-        Set<String> opIds = redisTemplate.opsForZSet()
-                .rangeByScore(chunkKey, Double.NEGATIVE_INFINITY, maxScore);
+    // KEYS: ops, deltas, tombstones, inflightOps, inflightTombstones, lease
+    // ARGV: maxScore, token, leaseMillis, maxOps
+    // 반환: {0} 다른 claim 진행 중 / {1, opIds, payloads, tombstoneOpIds}
+    private static final byte[] CLAIM_SCRIPT = bytes("""
+            local lease = redis.call('GET', KEYS[6])
+            if lease and lease ~= ARGV[2] then
+                return {0}
+            end
+            if not lease then
+                local stale = redis.call('ZRANGE', KEYS[4], 0, -1, 'WITHSCORES')
+                for i = 1, #stale, 2 do
+                    redis.call('ZADD', KEYS[1], stale[i + 1], stale[i])
+                end
+                local staleTombs = redis.call('ZRANGE', KEYS[5], 0, -1, 'WITHSCORES')
+                for i = 1, #staleTombs, 2 do
+                    redis.call('ZADD', KEYS[3], staleTombs[i + 1], staleTombs[i])
+                end
+                redis.call('DEL', KEYS[4], KEYS[5])
+            end
+            local ops = redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', ARGV[1], 'WITHSCORES', 'LIMIT', 0, tonumber(ARGV[4]))
+            local tombs = redis.call('ZRANGEBYSCORE', KEYS[3], '-inf', ARGV[1], 'WITHSCORES')
+            if #ops == 0 and #tombs == 0 then
+                return {1, {}, {}, {}}
+            end
+            local ids = {}
+            for i = 1, #ops, 2 do
+                ids[#ids + 1] = ops[i]
+                redis.call('ZADD', KEYS[4], ops[i + 1], ops[i])
+                redis.call('ZREM', KEYS[1], ops[i])
+            end
+            local tombIds = {}
+            for i = 1, #tombs, 2 do
+                tombIds[#tombIds + 1] = tombs[i]
+                redis.call('ZADD', KEYS[5], tombs[i + 1], tombs[i])
+                redis.call('ZREM', KEYS[3], tombs[i])
+            end
+            local payloads = {}
+            for i = 1, #ids, 1000 do
+                local page = redis.call('HMGET', KEYS[2], unpack(ids, i, math.min(i + 999, #ids)))
+                for j = 1, #page do
+                    payloads[#payloads + 1] = page[j]
+                end
+            end
+            redis.call('SET', KEYS[6], ARGV[2], 'PX', ARGV[3])
+            return {1, ids, payloads, tombIds}
+            """);
 
-        if (opIds == null || opIds.isEmpty()) {
-            return new DeltaCollectionResult(Map.of(), opIds, Set.of());
+    private final StringRedisTemplate redisTemplate;
+    private final DeltaCodec deltaCodec;
+
+    @Value("${snapshot.collect.max-ops-per-claim:50000}")
+    private int maxOpsPerClaim;
+
+    @Value("${snapshot.collect.claim-lease:5m}")
+    private Duration claimLease;
+
+    /**
+     * batch 기준 시각(maxScore) 이전 op 를 claim
+     * @return 다른 배치가 이 청크를 claim 중이면 null
+     */
+    public DeltaCollectionResult claimDeltas(String chunkKey, double maxScore) {
+        ChunkOpKeys keys = ChunkOpKeys.of(chunkKey);
+        String token = UUID.randomUUID().toString();
+
+        long fetchStart = System.nanoTime();
+        List<Object> reply = redisTemplate.execute((RedisCallback<List<Object>>) connection ->
+                connection.scriptingCommands().eval(CLAIM_SCRIPT, ReturnType.MULTI, 6,
+                        bytes(keys.ops()), bytes(keys.deltas()), bytes(keys.tombstones()),
+                        bytes(keys.inflightOps()), bytes(keys.inflightTombstones()), bytes(keys.lease()),
+                        bytes(Long.toString((long) maxScore)), bytes(token),
+                        bytes(Long.toString(claimLease.toMillis())), bytes(Integer.toString(maxOpsPerClaim))));
+        long fetchMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - fetchStart);
+
+        if (reply == null || reply.isEmpty() || ((Number) reply.get(0)).longValue() == 0) {
+            return null;
+        }
+        List<String> opIds = strings(reply.get(1));
+        List<?> payloads = (List<?>) reply.get(2);
+        Set<String> tombstoneOpIds = new HashSet<>(strings(reply.get(3)));
+        if (opIds.isEmpty() && tombstoneOpIds.isEmpty()) {
+            return new DeltaCollectionResult(Map.of(), Set.of(), Set.of(), fetchMillis, null);
         }
 
-        // Delta 데이터 조회 및 파싱
-        String deltaKey = DELTAS_PREFIX + chunkKey.substring(OPID_PREFIX.length());
-        log.info("deltaKey = {}", deltaKey);
-        Map<UUID, DeltaDTO> currentDeltas = opIds.stream()
-                .map(opId -> fetchAndParseDelta(deltaKey, opId))
-                .filter(Objects::nonNull)
-                .collect(Collectors.toMap(DeltaDTO::opId, Function.identity()));
-
-        // Tombstone 조회
-        String tombKey = TOMBSTONE_PREFIX + chunkKey;
-        Set<String> tombstoneOpIds = redisTemplate.opsForZSet()
-                .rangeByScore(tombKey, Double.NEGATIVE_INFINITY, maxScore);
-
-        if (tombstoneOpIds == null) {
-            tombstoneOpIds = Set.of();
+        // 한 번에 파싱
+        Map<UUID, DeltaDTO> currentDeltas = new HashMap<>(opIds.size() * 2);
+        for (int i = 0; i < opIds.size(); i++) {
+            DeltaDTO delta = parseDelta(opIds.get(i), (byte[]) payloads.get(i));
+            if (delta != null) {
+                currentDeltas.put(delta.opId(), delta);
+            }
         }
 
-        log.info("Delta 수집 완료. 현재: {}, Tombstone: {}",
-                currentDeltas.size(), tombstoneOpIds.size());
+        log.info("Delta claim 완료. 청크: {}, op 수: {}, Tombstone: {}, 조회 시간: {}ms",
+                chunkKey, opIds.size(), tombstoneOpIds.size(), fetchMillis);
 
-        return new DeltaCollectionResult(currentDeltas, opIds, tombstoneOpIds);
+        return new DeltaCollectionResult(currentDeltas, new HashSet<>(opIds), tombstoneOpIds, fetchMillis, token);
     }
 
-    private DeltaDTO fetchAndParseDelta(String deltaKey, String opId) {
-        try {
-            String deltaJson = (String) redisTemplate.opsForHash().get(deltaKey, opId);
-
-            if (deltaJson == null) {
-                log.warn("Delta 데이터 없음. opId: {}", opId);
-                return null;
+    /**
+     * 스트림 모드: 이미 읽어 온 항목으로 수집 결과 구성 (Redis 추가 조회/락 없음)
+     * opIds 는 Delta 의 opId, 같은 opId 가 재전달되면 한 번만 반영
+     */
+    public DeltaCollectionResult collectFromStream(String chunkKey, List<DeltaStreamService.StreamDelta> entries) {
+        Map<UUID, DeltaDTO> currentDeltas = new HashMap<>(entries.size() * 2);
+        Set<String> opIds = new HashSet<>(entries.size() * 2);
+        Set<String> tombstoneOpIds = new HashSet<>();
+        for (DeltaStreamService.StreamDelta entry : entries) {
+            if (entry.tombstoneOpId() != null) {
+                tombstoneOpIds.add(entry.tombstoneOpId());
+                continue;
+            }
+            DeltaDTO delta = parseDelta(entry.id(), entry.payload());
+            if (delta != null) {
+                currentDeltas.put(delta.opId(), delta);
+                opIds.add(delta.opId().toString());
             }
-            return objectMapper.readValue(deltaJson, DeltaDTO.class);
-        } catch (JsonProcessingException e) {
-            log.error("Delta JSON 파싱 실패. opId: {}", opId, e);
+        }
+        log.info("스트림 Delta 수집 완료. 청크: {}, 항목: {}, 현재: {}, Tombstone: {}",
+                chunkKey, entries.size(), currentDeltas.size(), tombstoneOpIds.size());
+        return new DeltaCollectionResult(currentDeltas, opIds, tombstoneOpIds, 0L, null);
+    }
+
+    private static List<String> strings(Object reply) {
+        List<?> values = (List<?>) reply;
+        List<String> result = new ArrayList<>(values.size());
+        for (Object value : values) {
+            result.add(new String((byte[]) value, StandardCharsets.UTF_8));
+        }
+        return result;
+    }
+
+    private DeltaDTO parseDelta(String opId, byte[] payload) {
+        if (payload == null) {
+            log.warn("Delta 데이터 없음. opId: {}", opId);
+            return null;
+        }
+        try {
+            // 바이너리/JSON 자동 판별
+            return deltaCodec.decode(payload);
+        } catch (RuntimeException e) {
+            log.error("Delta 파싱 실패. opId: {}", opId, e);
             return null;
         }
     }
@@ -76,6 +178,8 @@ public class DeltaCollectorService {
     public record DeltaCollectionResult(
             Map<UUID, DeltaDTO> currentDeltas,
             Set<String> opIds,
-            Set<String> tombstoneOpIds
+            Set<String> tombstoneOpIds,
+            long fetchMillis,
+            String claimToken
     ) {}
 }
\ No newline at end of file
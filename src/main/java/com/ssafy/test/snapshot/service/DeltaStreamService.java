@@ -0,0 +1,238 @@
+package com.ssafy.test.snapshot.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.connection.stream.ByteRecord;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+
+import static com.ssafy.test.snapshot.service.SnapshotOrchestrator.OPID_PREFIX;
+
+/**
+ * Redis Streams 기반 op 수집 경로 (snapshot.ingest.mode=STREAM)
+ * - 청크 키 해시로 파티션 스트림 선택: snapshot:ops:{파티션} (같은 청크의 op 는 항상 같은 스트림, 순서 유지)
+ * - 스트림마다 consumer group 하나, 노드마다 consumer 하나 → 분산 락 없이 항목 단위로 작업 분배
+ * - 처리(메타데이터 커밋) 후 XACK + XDEL, 실패 항목은 pending 으로 남아 XAUTOCLAIM 으로 재수거
+ * - 멤버십 활성화 시 파티션 단위로 노드에 배정 (SnapshotMembership), 같은 청크를 여러 노드가 읽지 않음
+ * - 같은 청크를 두 노드가 동시에 처리해도 chunk_index 버전 비교 커밋에서 한쪽만 반영
+ */
+@Service
+public class DeltaStreamService {
+
+    private static final Logger log = LoggerFactory.getLogger(DeltaStreamService.class);
+    public static final String STREAM_PREFIX = "snapshot:ops:";
+
+    private static final byte[] FIELD_CHUNK = bytes("c");
+    private static final byte[] FIELD_DELTA = bytes("d");
+    private static final byte[] FIELD_TOMBSTONE = bytes("t");
+
+    // Spring Data Redis 에 XAUTOCLAIM 이 없어 스크립트로 호출 (값은 바이너리 그대로 반환)
+    private static final byte[] AUTOCLAIM_SCRIPT = bytes(
+            "return redis.call('XAUTOCLAIM', KEYS[1], ARGV[1], ARGV[2], ARGV[3], ARGV[4], 'COUNT', ARGV[5])");
+
+    private final StringRedisTemplate redisTemplate;
+    private final boolean enabled;
+    private final int partitions;
+    private final String group;
+
+    public DeltaStreamService(
+            StringRedisTemplate redisTemplate,
+            @Value("${snapshot.ingest.mode:SORTED_SET}") String mode,
+            @Value("${snapshot.ingest.stream.partitions:16}") int partitions,
+            @Value("${snapshot.ingest.stream.group:snapshot-workers}") String group) {
+        this.redisTemplate = redisTemplate;
+        this.enabled = "STREAM".equalsIgnoreCase(mode);
+        this.partitions = Math.max(1, partitions);
+        this.group = group;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int partitions() {
+        return partitions;
+    }
+
+    /**
+     * 청크 키(op_ids: 접두사 유무 무관) → 파티션 번호
+     */
+    public static int partitionOf(String chunkKey, int partitions) {
+        String chunkId = chunkKey.startsWith(OPID_PREFIX) ? chunkKey.substring(OPID_PREFIX.length()) : chunkKey;
+        return Math.floorMod(chunkId.hashCode(), partitions);
+    }
+
+    public static String streamKey(int partition) {
+        return STREAM_PREFIX + "{" + partition + "}";
+    }
+
+    /**
+     * 쓰기 경로: 직렬화된 Delta 추가
+     */
+    public RecordId append(String chunkKey, byte[] payload) {
+        return add(chunkKey, FIELD_DELTA, payload);
+    }
+
+    /**
+     * 쓰기 경로: 이전 op 취소(tombstone) 추가
+     */
+    public RecordId appendTombstone(String chunkKey, UUID opId) {
+        return add(chunkKey, FIELD_TOMBSTONE, bytes(opId.toString()));
+    }
+
+    private RecordId add(String chunkKey, byte[] field, byte[] value) {
+        byte[] stream = bytes(streamKey(partitionOf(chunkKey, partitions)));
+        Map<byte[], byte[]> body = new LinkedHashMap<>();
+        body.put(FIELD_CHUNK, bytes(normalize(chunkKey)));
+        body.put(field, value);
+        return redisTemplate.execute((RedisCallback<RecordId>) connection ->
+                connection.streamCommands().xAdd(stream, body));
+    }
+
+    /**
+     * 모든 파티션 스트림에 consumer group 생성 (이미 있으면 무시)
+     */
+    public void ensureGroups() {
+        for (int partition = 0; partition < partitions; partition++) {
+            byte[] stream = bytes(streamKey(partition));
+            try {
+                redisTemplate.execute((RedisCallback<String>) connection ->
+                        connection.streamCommands().xGroupCreate(stream, group, ReadOffset.from("0"), true));
+            } catch (DataAccessException e) {
+                if (!String.valueOf(e.getMostSpecificCause().getMessage()).contains("BUSYGROUP")) {
+                    throw e;
+                }
+            }
+        }
+        log.info("스트림 consumer group 준비 완료. group: {}, 파티션 수: {}", group, partitions);
+    }
+
+    /**
+     * 아직 어떤 consumer 에게도 전달되지 않은 항목 읽기 (파티션마다 최대 count 개, 없으면 block 동안 대기)
+     * @param ownedPartitions 이 노드가 읽을 파티션 (멤버십 비활성화 시 전체)
+     */
+    public List<StreamDelta> read(String consumer, List<Integer> ownedPartitions, int count, Duration block) {
+        if (ownedPartitions.isEmpty()) {
+            return List.of();
+        }
+        // xReadGroup 이 가변 인자만 받으므로 제네릭 배열 생성
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        StreamOffset<byte[]>[] offsets = new StreamOffset[ownedPartitions.size()];
+        for (int i = 0; i < offsets.length; i++) {
+            offsets[i] = StreamOffset.create(bytes(streamKey(ownedPartitions.get(i))), ReadOffset.lastConsumed());
+        }
+        StreamReadOptions options = StreamReadOptions.empty().count(count).block(block);
+        List<ByteRecord> records = redisTemplate.execute((RedisCallback<List<ByteRecord>>) connection ->
+                connection.streamCommands().xReadGroup(Consumer.from(group, consumer), options, offsets));
+        if (records == null || records.isEmpty()) {
+            return List.of();
+        }
+        List<StreamDelta> result = new ArrayList<>(records.size());
+        for (ByteRecord record : records) {
+            result.add(toDelta(new String(record.getStream(), StandardCharsets.UTF_8),
+                    record.getId().getValue(), record.getValue()));
+        }
+        return result;
+    }
+
+    /**
+     * minIdle 이상 ack 되지 않은 항목을 이 consumer 로 가져옴 (중단된 노드/커밋 충돌 항목 재처리)
+     * 파티션마다 최대 count 개, 삭제된 항목은 건너뜀
+     */
+    public List<StreamDelta> claimStale(String consumer, List<Integer> ownedPartitions, Duration minIdle, int count) {
+        List<StreamDelta> result = new ArrayList<>();
+        for (int partition : ownedPartitions) {
+            String stream = streamKey(partition);
+            List<Object> reply = redisTemplate.execute((RedisCallback<List<Object>>) connection ->
+                    connection.scriptingCommands().eval(AUTOCLAIM_SCRIPT, ReturnType.MULTI, 1,
+                            bytes(stream), bytes(group), bytes(consumer),
+                            bytes(Long.toString(minIdle.toMillis())), bytes("0-0"), bytes(Integer.toString(count))));
+            if (reply == null || reply.size() < 2) {
+                continue;
+            }
+            for (Object entry : (List<?>) reply.get(1)) {
+                List<?> fields = entry instanceof List<?> pair && pair.size() == 2 ? (List<?>) pair.get(1) : null;
+                if (fields == null) {
+                    continue;
+                }
+                Map<byte[], byte[]> body = new LinkedHashMap<>();
+                for (int i = 0; i + 1 < fields.size(); i += 2) {
+                    body.put((byte[]) fields.get(i), (byte[]) fields.get(i + 1));
+                }
+                String id = new String((byte[]) ((List<?>) entry).get(0), StandardCharsets.UTF_8);
+                result.add(toDelta(stream, id, body));
+            }
+        }
+        if (!result.isEmpty()) {
+            log.info("미처리 스트림 항목 재수거. consumer: {}, 항목 수: {}", consumer, result.size());
+        }
+        return result;
+    }
+
+    /**
+     * 처리 완료 항목 ack 후 스트림에서 삭제 (스트림마다 XACK + XDEL 파이프라인 1회)
+     */
+    public void acknowledge(Collection<StreamDelta> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        Map<String, List<RecordId>> byStream = new HashMap<>();
+        for (StreamDelta delta : deltas) {
+            byStream.computeIfAbsent(delta.stream(), key -> new ArrayList<>()).add(RecordId.of(delta.id()));
+        }
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            byStream.forEach((stream, ids) -> {
+                RecordId[] idArray = ids.toArray(RecordId[]::new);
+                connection.streamCommands().xAck(bytes(stream), group, idArray);
+                connection.streamCommands().xDel(bytes(stream), idArray);
+            });
+            return null;
+        });
+    }
+
+    private static StreamDelta toDelta(String stream, String id, Map<byte[], byte[]> body) {
+        String chunkKey = null;
+        byte[] payload = null;
+        String tombstoneOpId = null;
+        for (Map.Entry<byte[], byte[]> field : body.entrySet()) {
+            if (Arrays.equals(field.getKey(), FIELD_CHUNK)) {
+                chunkKey = new String(field.getValue(), StandardCharsets.UTF_8);
+            } else if (Arrays.equals(field.getKey(), FIELD_DELTA)) {
+                payload = field.getValue();
+            } else if (Arrays.equals(field.getKey(), FIELD_TOMBSTONE)) {
+                tombstoneOpId = new String(field.getValue(), StandardCharsets.UTF_8);
+            }
+        }
+        return new StreamDelta(stream, id, chunkKey, payload, tombstoneOpId);
+    }
+
+    private static String normalize(String chunkKey) {
+        return chunkKey.startsWith(OPID_PREFIX) ? chunkKey : OPID_PREFIX + chunkKey;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 스트림 항목 1개
+     * @param chunkKey      op_ids: 접두사가 붙은 청크 키 (기존 배치 경로와 같은 키)
+     * @param payload       직렬화된 Delta (tombstone 항목이면 null)
+     * @param tombstoneOpId 취소할 opId (Delta 항목이면 null)
+     */
+    public record StreamDelta(String stream, String id, String chunkKey, byte[] payload, String tombstoneOpId) {
+    }
+}
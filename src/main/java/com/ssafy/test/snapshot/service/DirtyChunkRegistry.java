@@ -0,0 +1,181 @@
+package com.ssafy.test.snapshot.service;
+
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static com.ssafy.test.snapshot.service.SnapshotOrchestrator.OPID_PREFIX;
+
+/**
+ * 변경된 청크 인덱스 (dirty-chunk registry)
+ * - 월드별 Sorted Set: dirty_chunks:{world:이름} (member = op_ids 키, score = 가장 오래된 미처리 op 시각)
+ * - 쓰기 시점에 ZADD NX 로 등록, 청크 처리 후 남은 op 기준으로 재계산
+ * - 이벤트 모드(snapshot.trigger.event.enabled)면 등록과 함께 snapshot:dirty 채널로 청크 키 발행
+ * - 배치 탐색 비용이 전체 키 수가 아닌 변경된 청크 수에 비례
+ */
+@Service
+@RequiredArgsConstructor
+public class DirtyChunkRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(DirtyChunkRegistry.class);
+    private static final String DIRTY_PREFIX = "dirty_chunks:";
+    private static final String DIRTY_WORLDS_KEY = "dirty_worlds";
+    public static final String DIRTY_CHANNEL = "snapshot:dirty";
+
+    // 남은 op 가 없으면 인덱스에서 제거, 있으면 가장 오래된 op 시각으로 score 갱신
+    // 같은 {world:이름} 슬롯의 키만 사용 (클러스터 CROSSSLOT 방지), dirty_worlds 는 호출자가 별도 명령으로 갱신
+    // 반환: 1 = 남은 op 있음, 0 = 제거(월드 인덱스에 다른 청크 남음), -1 = 제거 후 월드 인덱스가 빔
+    private static final RedisScript<Long> RECONCILE_SCRIPT = new DefaultRedisScript<>(
+            """
+            local first = redis.call('ZRANGE', KEYS[1], 0, 0, 'WITHSCORES')
+            if #first == 0 then
+                redis.call('ZREM', KEYS[2], ARGV[1])
+                if redis.call('ZCARD', KEYS[2]) == 0 then
+                    return -1
+                end
+                return 0
+            end
+            redis.call('ZADD', KEYS[2], first[2], ARGV[1])
+            return 1
+            """,
+            Long.class
+    );
+
+    private final StringRedisTemplate redisTemplate;
+
+    @Value("${snapshot.dirty-index.max-chunks-per-world:10000}")
+    private int maxChunksPerWorld;
+
+    @Value("${snapshot.dirty-index.scan-fallback:true}")
+    private boolean scanFallback;
+
+    @Value("${snapshot.dirty-index.scan-count:1000}")
+    private int scanCount;
+
+    @Value("${snapshot.trigger.event.enabled:false}")
+    private boolean publishEvents;
+
+    private volatile boolean scanBackfillDone;
+
+    /**
+     * 쓰기 경로에서 op 저장 직후 호출
+     * 순서 주의: 인덱스 등록(ZADD NX) 후 월드 등록(SADD)
+     * (reconcile 이 빈 월드를 SREM 한 직후 등록돼도 SADD 가 다시 넣음)
+     */
+    public void markDirty(String chunkKey, double score) {
+        ChunkInfo chunkInfo = ChunkInfo.fromKey(chunkKey);
+        if (chunkInfo == null || chunkInfo.worldName() == null) {
+            log.warn("dirty 등록 실패 - 잘못된 청크 키: {}", chunkKey);
+            return;
+        }
+        redisTemplate.opsForZSet().addIfAbsent(registryKey(chunkInfo.worldName()), chunkKey, score);
+        redisTemplate.opsForSet().add(DIRTY_WORLDS_KEY, chunkInfo.worldName());
+        if (publishEvents) {
+            // 이벤트 모드: 구독 노드가 debounce 후 처리 (유실돼도 dirty 인덱스 주기 배치에서 처리)
+            redisTemplate.convertAndSend(DIRTY_CHANNEL, chunkKey);
+        }
+    }
+
+    /**
+     * batchStartTime 이전에 미처리 op 가 있는 청크 키 조회
+     */
+    public Set<String> findDirtyChunks(Instant batchStartTime) {
+        if (scanFallback && !scanBackfillDone) {
+            backfillFromScan();
+        }
+
+        Set<String> worlds = redisTemplate.opsForSet().members(DIRTY_WORLDS_KEY);
+        if (worlds == null || worlds.isEmpty()) {
+            return Set.of();
+        }
+
+        double maxScore = (double) batchStartTime.toEpochMilli();
+        Set<String> chunkKeys = new LinkedHashSet<>();
+        for (String world : worlds) {
+            Set<String> dirty = redisTemplate.opsForZSet()
+                    .rangeByScore(registryKey(world), Double.NEGATIVE_INFINITY, maxScore, 0, maxChunksPerWorld);
+            if (dirty != null) {
+                chunkKeys.addAll(dirty);
+            }
+        }
+        return chunkKeys;
+    }
+
+    /**
+     * 청크 처리(또는 빈 조회) 후 인덱스를 실제 남은 op 기준으로 맞춤
+     */
+    public void reconcile(String chunkKey) {
+        ChunkInfo chunkInfo = ChunkInfo.fromKey(chunkKey);
+        if (chunkInfo == null || chunkInfo.worldName() == null) {
+            return;
+        }
+        String worldName = chunkInfo.worldName();
+        try {
+            Long result = redisTemplate.execute(RECONCILE_SCRIPT,
+                    List.of(chunkKey, registryKey(worldName)), chunkKey);
+            if (result == null) {
+                return;
+            }
+            if (result > 0) {
+                redisTemplate.opsForSet().add(DIRTY_WORLDS_KEY, worldName);
+            } else if (result < 0) {
+                // SREM 후 다시 확인: 그사이 markDirty 가 ZADD 했으면 (그 SADD 보다 먼저 지웠을 수 있으므로) 다시 등록
+                redisTemplate.opsForSet().remove(DIRTY_WORLDS_KEY, worldName);
+                Long remaining = redisTemplate.opsForZSet().zCard(registryKey(worldName));
+                if (remaining != null && remaining > 0) {
+                    redisTemplate.opsForSet().add(DIRTY_WORLDS_KEY, worldName);
+                }
+            }
+        } catch (Exception e) {
+            // 실패해도 다음 배치에서 다시 조회되므로 유실 없음
+            log.warn("dirty 인덱스 갱신 실패. 청크: {}", chunkKey, e);
+        }
+    }
+
+    /**
+     * 인덱스 도입 이전 데이터 마이그레이션용
+     * KEYS 대신 커서 기반 SCAN 으로 op_ids:* 를 훑어 인덱스에 반영 (프로세스당 1회)
+     */
+    private synchronized void backfillFromScan() {
+        if (scanBackfillDone) {
+            return;
+        }
+        ScanOptions options = ScanOptions.scanOptions()
+                .match(OPID_PREFIX + "*")
+                .count(scanCount)
+                .build();
+
+        int count = 0;
+        try (Cursor<String> cursor = redisTemplate.scan(options)) {
+            while (cursor.hasNext()) {
+                String chunkKey = cursor.next();
+                ChunkInfo chunkInfo = ChunkInfo.fromKey(chunkKey);
+                if (chunkInfo == null || chunkInfo.worldName() == null) {
+                    continue;
+                }
+                reconcile(chunkKey);
+                count++;
+            }
+            scanBackfillDone = true;
+            log.info("dirty 인덱스 SCAN 마이그레이션 완료. 반영된 청크 수: {}", count);
+        } catch (Exception e) {
+            log.error("dirty 인덱스 SCAN 마이그레이션 실패. 다음 배치에서 재시도", e);
+        }
+    }
+
+    private String registryKey(String worldName) {
+        return DIRTY_PREFIX + "{world:" + worldName + "}";
+    }
+}
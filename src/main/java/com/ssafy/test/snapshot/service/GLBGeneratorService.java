@@ -1,21 +1,21 @@
 package com.ssafy.test.snapshot.service;
 
+import com.example.jooq.generated.enums.ArtifactKindEnum;
+import com.ssafy.test.snapshot.config.MeshProperties;
 import com.ssafy.test.snapshot.dto.DeltaDTO;
-import de.javagl.jgltf.impl.v2.*;
-import de.javagl.jgltf.model.GltfModel;
-import de.javagl.jgltf.model.GltfModels;
-import de.javagl.jgltf.model.io.GltfModelWriter;
-import de.javagl.jgltf.model.io.v2.GltfAssetV2;
+import com.ssafy.test.snapshot.mesh.GlbWriter;
+import com.ssafy.test.snapshot.mesh.GreedyMesher;
+import com.ssafy.test.snapshot.mesh.MeshCompression;
+import com.ssafy.test.snapshot.mesh.MeshData;
+import com.ssafy.test.snapshot.mesh.MeshMode;
+import com.ssafy.test.snapshot.mesh.VertexProfile;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
 import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
-import java.util.*;
+import java.util.List;
 
 @Service
 @RequiredArgsConstructor
@@ -23,210 +23,283 @@ public class GLBGeneratorService {
 
     private static final Logger log = LoggerFactory.getLogger(GLBGeneratorService.class);
     private static final float VOXEL_SIZE = 1.0f; // voxel 단위 크기 (1m 혹은 상대적 단위)
+    private static final String GENERATOR = "RelativeVoxelGLBGenerator";
+    private static final String KHR_MESH_QUANTIZATION = "KHR_mesh_quantization";
+    private static final float DEFAULT_SHADE = 0x80 / 255.0f;
+
+    // 단위 큐브 정점 (상대좌표 기준)
+    private static final int[][] CUBE_CORNERS = {
+            {0, 0, 0}, {1, 0, 0}, {1, 1, 0}, {0, 1, 0},
+            {0, 0, 1}, {1, 0, 1}, {1, 1, 1}, {0, 1, 1}
+    };
+    private static final int[] CUBE_INDICES = {
+            0, 1, 2, 2, 3, 0, // Front
+            5, 4, 7, 7, 6, 5, // Back
+            0, 4, 5, 5, 1, 0, // Bottom
+            3, 2, 6, 6, 7, 3, // Top
+            4, 0, 3, 3, 7, 4, // Left
+            1, 5, 6, 6, 2, 1  // Right
+    };
+
+    private final GreedyMesher greedyMesher;
+    private final MeshProperties meshProperties;
 
     /**
-     * 상대좌표 기반 GLB 생성
-     * 각 DeltaDTO는 청크 내 상대 위치(voxel index)를 기반으로 변환
+     * 월드/LOD 별 설정(snapshot.mesh)에 따라 메쉬 생성 방식 선택
      */
-    public byte[] generateGLBWithSeparateMeshes(List<DeltaDTO> deltas) {
-        GlTF gltf = new GlTF();
-        gltf.setAsset(createAsset());
-
-        Scene scene = new Scene();
-        gltf.addScenes(scene);
-        gltf.setScene(0);
+    public byte[] generateGLB(List<DeltaDTO> deltas, ChunkInfo chunkInfo) {
+        MeshMode mode = meshProperties.modeFor(chunkInfo);
+        VertexProfile profile = meshProperties.getVertexProfile();
+        MeshCompression compression = meshProperties.getCompression();
+        log.debug("GLB 생성 방식: {}, 정점 형식: {}, 압축: {}, 청크: {}", mode, profile, compression, chunkInfo);
+        return switch (mode) {
+            case SEPARATE -> generateGLBWithSeparateMeshes(deltas, profile, compression);
+            case GREEDY -> generateGreedyGLB(deltas, profile, compression);
+        };
+    }
 
-        List<ByteBuffer> allBuffers = new ArrayList<>();
+    public byte[] generateGreedyGLB(List<DeltaDTO> deltas) {
+        return generateGreedyGLB(deltas, meshProperties.getVertexProfile(), meshProperties.getCompression());
+    }
 
-        int nodeIndex = 0;
-        int meshIndex = 0;
-        int accessorIndex = 0;
-        int bufferViewIndex = 0;
+    /**
+     * 청크 단일 메쉬 GLB 생성
+     * 보이지 않는 면 제거 + 같은 색 평면 병합으로 삼각형/노드/머티리얼 수 최소화
+     */
+    public byte[] generateGreedyGLB(List<DeltaDTO> deltas, VertexProfile profile, MeshCompression compression) {
+        VertexLayout layout = VertexLayout.of(profile);
+        // 양자화 시 격자 단위 좌표로 만들고 voxel 크기는 노드 스케일로 적용
+        MeshData mesh = greedyMesher.mesh(deltas, layout.quantized() ? 1.0f : VOXEL_SIZE);
+        log.info("Greedy 메쉬 생성. voxel 수: {}, 정점 수: {}, 삼각형 수: {}",
+                deltas.size(), mesh.vertexCount(), mesh.triangleCount());
+
+        GlbWriter glb = newWriter(compression);
+        if (mesh.isEmpty()) {
+            return glb.toByteArray(glb.allocate());
+        }
+        layout.declare(glb);
+
+        int vertexCount = mesh.vertexCount();
+        int indexType = layout.indexType(vertexCount);
+        int positionView = glb.addBufferView(vertexCount * layout.positionStride(), GlbWriter.ARRAY_BUFFER,
+                layout.positionStride(), layout.quantized());
+        int colorView = glb.addBufferView(vertexCount * layout.colorStride(), GlbWriter.ARRAY_BUFFER,
+                layout.colorStride(), layout.quantized());
+        int indexView = glb.addBufferView(mesh.indexCount() * componentBytes(indexType),
+                GlbWriter.ELEMENT_ARRAY_BUFFER, componentBytes(indexType), false);
+
+        int positions = glb.addAccessor(positionView, 0, layout.positionType(), false,
+                vertexCount, "VEC3", mesh.min(), mesh.max());
+        int colors = glb.addAccessor(colorView, 0, layout.colorType(), layout.quantized(),
+                vertexCount, "VEC3", null, null);
+        int indices = glb.addAccessor(indexView, 0, indexType, false,
+                mesh.indexCount(), "SCALAR", null, null);
+
+        // 면 방향(CCW)이 정리되어 있으므로 단면 렌더링
+        int material = glb.addMaterial(false);
+        int chunkMesh = glb.addMesh("chunk", positions, colors, indices, material);
+        glb.addNode("node_chunk", chunkMesh, layout.nodeScale());
+
+        ByteBuffer out = glb.allocate();
+        if (layout.quantized()) {
+            float[] p = mesh.positions();
+            float[] c = mesh.colors();
+            int positionAt = glb.binPosition(positionView);
+            int colorAt = glb.binPosition(colorView);
+            for (int i = 0; i < vertexCount * 3; i += 3) {
+                putPosition(out, positionAt, layout, p[i], p[i + 1], p[i + 2]);
+                putColor(out, colorAt, layout, c[i], c[i + 1], c[i + 2]);
+                positionAt += layout.positionStride();
+                colorAt += layout.colorStride();
+            }
+        } else {
+            out.position(glb.binPosition(positionView));
+            out.asFloatBuffer().put(mesh.positions(), 0, vertexCount * 3);
+            out.position(glb.binPosition(colorView));
+            out.asFloatBuffer().put(mesh.colors(), 0, vertexCount * 3);
+        }
+        if (indexType == GlbWriter.UNSIGNED_INT) {
+            out.position(glb.binPosition(indexView));
+            out.asIntBuffer().put(mesh.indices(), 0, mesh.indexCount());
+        } else {
+            int[] idx = mesh.indices();
+            int indexAt = glb.binPosition(indexView);
+            for (int i = 0; i < mesh.indexCount(); i++, indexAt += 2) {
+                out.putShort(indexAt, (short) idx[i]);
+            }
+        }
+        return glb.toByteArray(out);
+    }
 
-        for (DeltaDTO delta : deltas) {
+    public byte[] generateGLBWithSeparateMeshes(List<DeltaDTO> deltas) {
+        return generateGLBWithSeparateMeshes(deltas, meshProperties.getVertexProfile(), meshProperties.getCompression());
+    }
 
-            // ✅ [변경됨] — voxelId에서 local index 추출 (청크 내 상대 좌표)
-            int localX = (delta.voxelId() >> 16) & 0xFF;
-            int localY = (delta.voxelId() >> 8) & 0xFF;
-            int localZ = delta.voxelId() & 0xFF;
+    /**
+     * 상대좌표 기반 GLB 생성 (voxel 당 Mesh/Node 1개)
+     * 각 DeltaDTO는 청크 내 상대 위치(voxel index)를 기반으로 변환
+     * - 정점/색/인덱스는 공유 bufferView 3개에 연속 기록하고 voxel 별 accessor 가 byteOffset 으로 구간 참조
+     * - 머티리얼은 1개를 공유
+     */
+    public byte[] generateGLBWithSeparateMeshes(List<DeltaDTO> deltas, VertexProfile profile,
+                                                MeshCompression compression) {
+        GlbWriter glb = newWriter(compression);
+        int count = deltas.size();
+        if (count == 0) {
+            return glb.toByteArray(glb.allocate());
+        }
+        VertexLayout layout = VertexLayout.of(profile);
+        layout.declare(glb);
+
+        // 큐브 정점은 8개뿐이므로 양자화 시 인덱스는 항상 16bit
+        int indexType = layout.indexType(CUBE_CORNERS.length);
+        int cubePositionBytes = CUBE_CORNERS.length * layout.positionStride();
+        int cubeColorBytes = CUBE_CORNERS.length * layout.colorStride();
+        int cubeIndexBytes = CUBE_INDICES.length * componentBytes(indexType);
+        float unit = layout.quantized() ? 1.0f : VOXEL_SIZE;
+
+        int positionView = glb.addBufferView(count * cubePositionBytes, GlbWriter.ARRAY_BUFFER,
+                layout.positionStride(), layout.quantized());
+        int colorView = glb.addBufferView(count * cubeColorBytes, GlbWriter.ARRAY_BUFFER,
+                layout.colorStride(), layout.quantized());
+        int indexView = glb.addBufferView(count * cubeIndexBytes, GlbWriter.ELEMENT_ARRAY_BUFFER,
+                componentBytes(indexType), false);
+        int material = glb.addMaterial(true);
+
+        float[] min = new float[3];
+        float[] max = new float[3];
+        for (int i = 0; i < count; i++) {
+            DeltaDTO delta = deltas.get(i);
+            // voxelId에서 local index 추출 (청크 내 상대 좌표)
+            min[0] = ((delta.voxelId() >> 16) & 0xFF) * unit;
+            min[1] = ((delta.voxelId() >> 8) & 0xFF) * unit;
+            min[2] = (delta.voxelId() & 0xFF) * unit;
+            max[0] = min[0] + unit;
+            max[1] = min[1] + unit;
+            max[2] = min[2] + unit;
+
+            int positions = glb.addAccessor(positionView, i * cubePositionBytes, layout.positionType(), false,
+                    CUBE_CORNERS.length, "VEC3", min, max);
+            int colors = glb.addAccessor(colorView, i * cubeColorBytes, layout.colorType(), layout.quantized(),
+                    CUBE_CORNERS.length, "VEC3", null, null);
+            int indices = glb.addAccessor(indexView, i * cubeIndexBytes, indexType, false,
+                    CUBE_INDICES.length, "SCALAR", null, null);
+
+            int mesh = glb.addMesh("voxel_" + delta.opId(), positions, colors, indices, material);
+            glb.addNode("node_voxel_" + delta.opId(), mesh, layout.nodeScale());
+        }
 
-            // ✅ [변경됨] — 절대좌표계 개념 제거, 청크 내 상대 좌표만 사용
-            float relativeX = localX * VOXEL_SIZE;
-            float relativeY = localY * VOXEL_SIZE;
-            float relativeZ = localZ * VOXEL_SIZE;
+        ByteBuffer out = glb.allocate();
+        int positionAt = glb.binPosition(positionView);
+        int colorAt = glb.binPosition(colorView);
+        int indexAt = glb.binPosition(indexView);
+        for (DeltaDTO delta : deltas) {
+            float x = ((delta.voxelId() >> 16) & 0xFF) * unit;
+            float y = ((delta.voxelId() >> 8) & 0xFF) * unit;
+            float z = (delta.voxelId() & 0xFF) * unit;
 
             // 색상 정규화
-            float r = (delta.colorBytes()[0] & 0xFF) / 255.0f;
-            float g = (delta.colorBytes()[1] & 0xFF) / 255.0f;
-            float b = (delta.colorBytes()[2] & 0xFF) / 255.0f;
-
-            // ✅ [변경됨] — 명시적으로 “상대좌표 기준” cubeVertices 변수명 변경
-            float[][] relativeCubeVertices = {
-                    {relativeX, relativeY, relativeZ},
-                    {relativeX + VOXEL_SIZE, relativeY, relativeZ},
-                    {relativeX + VOXEL_SIZE, relativeY + VOXEL_SIZE, relativeZ},
-                    {relativeX, relativeY + VOXEL_SIZE, relativeZ},
-                    {relativeX, relativeY, relativeZ + VOXEL_SIZE},
-                    {relativeX + VOXEL_SIZE, relativeY, relativeZ + VOXEL_SIZE},
-                    {relativeX + VOXEL_SIZE, relativeY + VOXEL_SIZE, relativeZ + VOXEL_SIZE},
-                    {relativeX, relativeY + VOXEL_SIZE, relativeZ + VOXEL_SIZE}
-            };
-
-            List<Float> positions = new ArrayList<>();
-            List<Float> colors = new ArrayList<>();
-
-            for (float[] vertex : relativeCubeVertices) {
-                positions.add(vertex[0]);
-                positions.add(vertex[1]);
-                positions.add(vertex[2]);
-                colors.add(r);
-                colors.add(g);
-                colors.add(b);
+            byte[] rgb = delta.colorBytes();
+            boolean hasColor = rgb != null && rgb.length >= 3;
+            float r = hasColor ? (rgb[0] & 0xFF) / 255.0f : DEFAULT_SHADE;
+            float g = hasColor ? (rgb[1] & 0xFF) / 255.0f : DEFAULT_SHADE;
+            float b = hasColor ? (rgb[2] & 0xFF) / 255.0f : DEFAULT_SHADE;
+
+            for (int[] corner : CUBE_CORNERS) {
+                putPosition(out, positionAt, layout, x + corner[0] * unit, y + corner[1] * unit, z + corner[2] * unit);
+                putColor(out, colorAt, layout, r, g, b);
+                positionAt += layout.positionStride();
+                colorAt += layout.colorStride();
+            }
+            for (int index : CUBE_INDICES) {
+                if (indexType == GlbWriter.UNSIGNED_INT) {
+                    out.putInt(indexAt, index);
+                } else {
+                    out.putShort(indexAt, (short) index);
+                }
+                indexAt += componentBytes(indexType);
             }
-
-            List<Integer> indices = new ArrayList<>();
-            int[][] cubeFaces = {
-                    {0, 1, 2, 2, 3, 0}, // Front
-                    {5, 4, 7, 7, 6, 5}, // Back
-                    {0, 4, 5, 5, 1, 0}, // Bottom
-                    {3, 2, 6, 6, 7, 3}, // Top
-                    {4, 0, 3, 3, 7, 4}, // Left
-                    {1, 5, 6, 6, 2, 1}  // Right
-            };
-            for (int[] face : cubeFaces) for (int idx : face) indices.add(idx);
-
-            // 버퍼 생성
-            ByteBuffer positionsBuffer = createFloatBuffer(positions);
-            ByteBuffer colorsBuffer = createFloatBuffer(colors);
-            ByteBuffer indicesBuffer = createIntBuffer(indices);
-
-            // ✅ [변경됨] — 단일 voxel 단위 버퍼만 생성 후 전체 합치는 방식 유지
-            int positionsBytes = positionsBuffer.capacity();
-            int colorsBytes = colorsBuffer.capacity();
-            int indicesBytes = indicesBuffer.capacity();
-
-            ByteBuffer combinedBuffer = ByteBuffer.allocate(positionsBytes + colorsBytes + indicesBytes)
-                    .order(ByteOrder.LITTLE_ENDIAN);
-            combinedBuffer.put(positionsBuffer);
-            combinedBuffer.put(colorsBuffer);
-            combinedBuffer.put(indicesBuffer);
-            combinedBuffer.flip();
-
-            allBuffers.add(combinedBuffer);
-
-            // BufferView 및 Accessor는 기존과 동일 (상대좌표 기반이라 변경 없음)
-            gltf.addBufferViews(createBufferView(0, 0, positionsBytes, 34962));
-            gltf.addBufferViews(createBufferView(0, positionsBytes, colorsBytes, 34962));
-            gltf.addBufferViews(createBufferView(0, positionsBytes + colorsBytes, indicesBytes, 34963));
-
-            gltf.addAccessors(createAccessor(bufferViewIndex, 5126, 8, "VEC3"));     // positions
-            gltf.addAccessors(createAccessor(bufferViewIndex + 1, 5126, 8, "VEC3")); // colors
-            gltf.addAccessors(createAccessor(bufferViewIndex + 2, 5125, 36, "SCALAR")); // indices
-
-            MeshPrimitive primitive = new MeshPrimitive();
-            primitive.setIndices(accessorIndex + 2);
-            primitive.addAttributes("POSITION", accessorIndex);
-            primitive.addAttributes("COLOR_0", accessorIndex + 1);
-
-            // 재질 설정
-            Material material = new Material();
-            material.setDoubleSided(true);
-            gltf.addMaterials(material);
-            primitive.setMaterial(gltf.getMaterials().size() - 1);
-
-            Mesh mesh = new Mesh();
-            mesh.setName("voxel_" + delta.opId());
-            mesh.addPrimitives(primitive);
-            gltf.addMeshes(mesh);
-
-            Node node = new Node();
-            node.setMesh(meshIndex);
-            node.setName("node_voxel_" + delta.opId());
-            gltf.addNodes(node);
-            scene.addNodes(nodeIndex);
-
-            nodeIndex++;
-            meshIndex++;
-            accessorIndex += 3;
-            bufferViewIndex += 3;
         }
+        return glb.toByteArray(out);
+    }
 
-        // ✅ [유지됨] — 버퍼 통합 및 오프셋 조정
-        ByteBuffer combinedAllBuffers = mergeAllBuffers(allBuffers, gltf);
+    /**
+     * chunk_mesh.artifact_kind 에 기록할 형식
+     */
+    public ArtifactKindEnum artifactKind() {
+        return meshProperties.getCompression() == MeshCompression.MESHOPT
+                ? ArtifactKindEnum.gltf_2bmeshopt
+                : ArtifactKindEnum.glb;
+    }
 
-        Buffer singleBuffer = new Buffer();
-        singleBuffer.setByteLength(combinedAllBuffers.capacity());
-        gltf.setBuffers(List.of(singleBuffer));
+    // ================== Utility methods ==================
 
-        GltfAssetV2 assetV2 = new GltfAssetV2(gltf, combinedAllBuffers);
-        GltfModel gltfModel = GltfModels.create(assetV2);
+    private static GlbWriter newWriter(MeshCompression compression) {
+        return new GlbWriter(GENERATOR, compression == MeshCompression.MESHOPT);
+    }
 
-        try (ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
-            new GltfModelWriter().writeBinary(gltfModel, outputStream);
-            return outputStream.toByteArray();
-        } catch (IOException e) {
-            throw new RuntimeException(e);
+    private static void putPosition(ByteBuffer out, int at, VertexLayout layout, float x, float y, float z) {
+        if (layout.quantized()) {
+            // 청크 상대 격자 좌표 0~256
+            out.putShort(at, (short) Math.round(x));
+            out.putShort(at + 2, (short) Math.round(y));
+            out.putShort(at + 4, (short) Math.round(z));
+        } else {
+            out.putFloat(at, x);
+            out.putFloat(at + 4, y);
+            out.putFloat(at + 8, z);
         }
     }
 
-    // ================== Utility methods ==================
-
-    private Asset createAsset() {
-        Asset asset = new Asset();
-        asset.setVersion("2.0");
-        asset.setGenerator("RelativeVoxelGLBGenerator");
-        return asset;
+    private static void putColor(ByteBuffer out, int at, VertexLayout layout, float r, float g, float b) {
+        if (layout.quantized()) {
+            out.put(at, (byte) Math.round(r * 255));
+            out.put(at + 1, (byte) Math.round(g * 255));
+            out.put(at + 2, (byte) Math.round(b * 255));
+        } else {
+            out.putFloat(at, r);
+            out.putFloat(at + 4, g);
+            out.putFloat(at + 8, b);
+        }
     }
 
-    private BufferView createBufferView(int buffer, int offset, int length, int target) {
-        BufferView bv = new BufferView();
-        bv.setBuffer(buffer);
-        bv.setByteOffset(offset);
-        bv.setByteLength(length);
-        bv.setTarget(target);
-        return bv;
+    private static int componentBytes(int componentType) {
+        return switch (componentType) {
+            case GlbWriter.BYTE, GlbWriter.UNSIGNED_BYTE -> 1;
+            case GlbWriter.UNSIGNED_SHORT -> 2;
+            default -> 4;
+        };
     }
 
-    private Accessor createAccessor(int bufferView, int componentType, int count, String type) {
-        Accessor acc = new Accessor();
-        acc.setBufferView(bufferView);
-        acc.setComponentType(componentType);
-        acc.setCount(count);
-        acc.setType(type);
-        return acc;
-    }
+    /**
+     * 정점 형식별 컴포넌트 타입/stride
+     * 양자화 속성은 4바이트 정렬을 위해 패딩 포함 stride 사용 (USHORT×3 → 8, UBYTE×3 → 4)
+     */
+    private record VertexLayout(boolean quantized, int positionType, int positionStride,
+                                int colorType, int colorStride) {
 
-    private ByteBuffer mergeAllBuffers(List<ByteBuffer> allBuffers, GlTF gltf) {
-        int totalSize = allBuffers.stream().mapToInt(ByteBuffer::capacity).sum();
-        ByteBuffer merged = ByteBuffer.allocate(totalSize).order(ByteOrder.LITTLE_ENDIAN);
+        private static final VertexLayout FLOAT =
+                new VertexLayout(false, GlbWriter.FLOAT, 12, GlbWriter.FLOAT, 12);
+        private static final VertexLayout QUANTIZED =
+                new VertexLayout(true, GlbWriter.UNSIGNED_SHORT, 8, GlbWriter.UNSIGNED_BYTE, 4);
 
-        int offset = 0;
-        for (int i = 0; i < allBuffers.size(); i++) {
-            ByteBuffer buf = allBuffers.get(i);
-            buf.rewind();
-            merged.put(buf);
+        static VertexLayout of(VertexProfile profile) {
+            return profile == VertexProfile.QUANTIZED ? QUANTIZED : FLOAT;
+        }
 
-            for (int j = 0; j < 3; j++) {
-                BufferView bv = gltf.getBufferViews().get(i * 3 + j);
-                bv.setByteOffset(offset + bv.getByteOffset());
+        void declare(GlbWriter glb) {
+            if (quantized) {
+                glb.useExtension(KHR_MESH_QUANTIZATION, true);
             }
-            offset += buf.capacity();
         }
-        merged.flip();
-        return merged;
-    }
 
-    private ByteBuffer createFloatBuffer(List<Float> data) {
-        ByteBuffer buffer = ByteBuffer.allocate(data.size() * 4).order(ByteOrder.LITTLE_ENDIAN);
-        data.forEach(buffer::putFloat);
-        buffer.flip();
-        return buffer;
-    }
+        // 65535 는 primitive restart 값이라 사용 불가
+        int indexType(int vertexCount) {
+            return quantized && vertexCount <= 0xFFFF ? GlbWriter.UNSIGNED_SHORT : GlbWriter.UNSIGNED_INT;
+        }
 
-    private ByteBuffer createIntBuffer(List<Integer> data) {
-        ByteBuffer buffer = ByteBuffer.allocate(data.size() * 4).order(ByteOrder.LITTLE_ENDIAN);
-        data.forEach(buffer::putInt);
-        buffer.flip();
-        return buffer;
+        float nodeScale() {
+            return quantized ? VOXEL_SIZE : 1.0f;
+        }
     }
 }
@@ -0,0 +1,159 @@
+package com.ssafy.test.snapshot.service;
+
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.RedisZSetCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * 상위 LOD 재생성 대기 인덱스
+ * - Sorted Set lod_dirty (member = 새 버전이 커밋된 자식 청크 ID, score = 처음 등록된 시각)
+ *   → 오래 기다린 자식부터 처리, 자주 변경되는 자식도 뒤로 밀리지 않음
+ * - Hash {lod_dirty}:changes (member → 등록 횟수, 제거 시 비교용, lod_dirty 와 같은 슬롯)
+ * - 자식 커밋 후 등록, 부모가 커밋(또는 변경 없음 확인)된 뒤에만 제거
+ *   → 재생성/커밋 실패나 버전 충돌로 빠진 부모는 맨 뒤로 미뤄 다음 재생성에서 같은 자식들로 다시 시도
+ * - 제거는 읽을 때의 등록 횟수 그대로일 때만 (재생성 중 다시 변경된 자식은 남김)
+ */
+@Service
+@RequiredArgsConstructor
+public class LodDirtyRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(LodDirtyRegistry.class);
+    private static final String LOD_DIRTY_KEY = "lod_dirty";
+    private static final String LOD_CHANGES_KEY = "{lod_dirty}:changes";
+    private static final byte[] LOD_DIRTY_KEY_BYTES = LOD_DIRTY_KEY.getBytes(StandardCharsets.UTF_8);
+    private static final byte[] LOD_CHANGES_KEY_BYTES = LOD_CHANGES_KEY.getBytes(StandardCharsets.UTF_8);
+
+    // KEYS: lod_dirty, {lod_dirty}:changes / ARGV: member, 등록 횟수 쌍 (횟수가 그대로인 member 만 제거)
+    private static final RedisScript<Long> REMOVE_SCRIPT = new DefaultRedisScript<>(
+            """
+            local removed = 0
+            for i = 1, #ARGV, 2 do
+                local changes = redis.call('HGET', KEYS[2], ARGV[i]) or '0'
+                if changes == ARGV[i + 1] then
+                    redis.call('ZREM', KEYS[1], ARGV[i])
+                    redis.call('HDEL', KEYS[2], ARGV[i])
+                    removed = removed + 1
+                end
+            end
+            return removed
+            """,
+            Long.class
+    );
+
+    private final StringRedisTemplate redisTemplate;
+
+    /**
+     * 새 버전이 커밋된 청크 등록 (파이프라인 1회)
+     * - 횟수를 먼저 올린 뒤 ZADD NX: 사이에 제거가 끼어들면 횟수 불일치로 남거나, 다시 등록되어 재처리만 됨
+     * @return 청크 → 등록 후 횟수 (제거 시 비교용)
+     */
+    public Map<ChunkInfo, Long> markChanged(Collection<ChunkInfo> chunks) {
+        if (chunks.isEmpty()) {
+            return Map.of();
+        }
+        List<ChunkInfo> ordered = new ArrayList<>(chunks);
+        long now = System.currentTimeMillis();
+        List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (ChunkInfo chunk : ordered) {
+                byte[] member = chunk.chunkId().getBytes(StandardCharsets.UTF_8);
+                connection.hashCommands().hIncrBy(LOD_CHANGES_KEY_BYTES, member, 1);
+                connection.zSetCommands().zAdd(LOD_DIRTY_KEY_BYTES, now, member,
+                        RedisZSetCommands.ZAddArgs.ifNotExists());
+            }
+            return null;
+        });
+
+        Map<ChunkInfo, Long> marked = new LinkedHashMap<>();
+        for (int i = 0; i < ordered.size(); i++) {
+            marked.put(ordered.get(i), ((Number) results.get(i * 2)).longValue());
+        }
+        return marked;
+    }
+
+    /**
+     * 재생성 대기 중인 자식 청크 중 owned 인 것을 오래된 순으로 최대 limit 개
+     * - 다른 노드 몫은 건너뛰고 다음 페이지까지 읽음 (모든 노드가 같은 앞부분만 보지 않도록)
+     * @return 청크 → 읽은 시점의 등록 횟수 (잘못된 member 는 제거)
+     */
+    public Map<ChunkInfo, Long> findChanged(int limit, Predicate<ChunkInfo> owned) {
+        Map<ChunkInfo, Long> changed = new LinkedHashMap<>();
+        Map<String, Long> malformed = new HashMap<>();
+        long offset = 0;
+        while (changed.size() < limit) {
+            Set<String> page = redisTemplate.opsForZSet().range(LOD_DIRTY_KEY, offset, offset + limit - 1L);
+            if (page == null || page.isEmpty()) {
+                break;
+            }
+            offset += page.size();
+
+            List<Object> members = new ArrayList<>(page);
+            List<Object> counts = redisTemplate.opsForHash().multiGet(LOD_CHANGES_KEY, members);
+            for (int i = 0; i < members.size() && changed.size() < limit; i++) {
+                String member = (String) members.get(i);
+                long count = counts.get(i) == null ? 0 : Long.parseLong((String) counts.get(i));
+                ChunkInfo chunkInfo = ChunkInfo.fromKey(member);
+                if (chunkInfo == null || chunkInfo.worldName() == null) {
+                    malformed.put(member, count);
+                } else if (owned.test(chunkInfo)) {
+                    changed.put(chunkInfo, count);
+                }
+            }
+            if (page.size() < limit) {
+                break;
+            }
+        }
+        if (!malformed.isEmpty()) {
+            log.warn("잘못된 LOD 대기 항목 제거: {}", malformed.keySet());
+            removeMembers(malformed);
+        }
+        return changed;
+    }
+
+    /**
+     * 부모 반영이 끝난 자식 제거 (읽은 뒤 다시 등록된 자식은 남김)
+     */
+    public void remove(Map<ChunkInfo, Long> processed) {
+        if (processed.isEmpty()) {
+            return;
+        }
+        Map<String, Long> members = new LinkedHashMap<>();
+        processed.forEach((chunkInfo, count) -> members.put(chunkInfo.chunkId(), count));
+        removeMembers(members);
+    }
+
+    /**
+     * 부모 재생성이 실패한 자식을 맨 뒤로 미룸 (계속 실패하는 부모가 다른 부모를 막지 않도록)
+     */
+    public void defer(Collection<ChunkInfo> failed) {
+        if (failed.isEmpty()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (ChunkInfo chunk : failed) {
+                connection.zSetCommands().zAdd(LOD_DIRTY_KEY_BYTES, now, chunk.chunkId().getBytes(StandardCharsets.UTF_8),
+                        RedisZSetCommands.ZAddArgs.ifExists());
+            }
+            return null;
+        });
+    }
+
+    private void removeMembers(Map<String, Long> members) {
+        List<String> args = new ArrayList<>(members.size() * 2);
+        members.forEach((member, count) -> {
+            args.add(member);
+            args.add(String.valueOf(count));
+        });
+        redisTemplate.execute(REMOVE_SCRIPT, List.of(LOD_DIRTY_KEY, LOD_CHANGES_KEY), args.toArray());
+    }
+}
@@ -0,0 +1,112 @@
+package com.ssafy.test.snapshot.service;
+
+import com.ssafy.test.snapshot.dto.DeltaDTO;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 자식 청크 8개(2×2×2) → 부모 청크 1개 축소
+ * - 자식 voxel 2×2×2 가 부모 voxel 1개, 자식 청크는 부모의 한 octant(128³) 를 차지
+ * - 점유: 채워진 자식 voxel 수가 minOccupancy 이상
+ * - 색: 채워진 자식 voxel 의 평균 RGB
+ */
+public final class LodDownsampler {
+
+    public static final String ACTOR = "lod";
+
+    private static final int EDGE = 256;
+    private static final int HALF = EDGE / 2;
+    private static final int DEFAULT_SHADE = 0x80;
+    private static final int ALL_FACES = 63;
+
+    private final int minOccupancy;
+
+    public LodDownsampler(int minOccupancy) {
+        this.minOccupancy = Math.max(1, minOccupancy);
+    }
+
+    /**
+     * 부모 상태에서 해당 octant 영역의 voxel 제거
+     */
+    public int clearOctant(VoxelDeltaMap parent, int octant) {
+        return parent.removeIf(delta -> octantOf(delta.voxelId()) == octant);
+    }
+
+    /**
+     * 자식 상태를 축소해 부모의 자식 octant 영역에 기록 (해당 영역은 미리 비워져 있어야 함)
+     * @return 기록된 부모 voxel 수
+     */
+    public int downsampleInto(VoxelDeltaMap parent, ChunkInfo parentInfo, ChunkInfo child, List<DeltaDTO> childVoxels) {
+        int n = childVoxels.size();
+        if (n == 0) {
+            return 0;
+        }
+        int octant = child.octant();
+        int ox = ((octant >> 2) & 1) * HALF;
+        int oy = ((octant >> 1) & 1) * HALF;
+        int oz = (octant & 1) * HALF;
+
+        // (부모 voxelId, 자식 인덱스) 정렬로 같은 부모 voxel 끼리 묶음
+        long[] keys = new long[n];
+        for (int i = 0; i < n; i++) {
+            int voxelId = childVoxels.get(i).voxelId();
+            int px = ox + (((voxelId >> 16) & 0xFF) >> 1);
+            int py = oy + (((voxelId >> 8) & 0xFF) >> 1);
+            int pz = oz + ((voxelId & 0xFF) >> 1);
+            keys[i] = ((long) ((px << 16) | (py << 8) | pz) << 32) | i;
+        }
+        Arrays.sort(keys);
+
+        long seed = UUID.nameUUIDFromBytes(parentInfo.toString().getBytes(StandardCharsets.UTF_8))
+                .getMostSignificantBits();
+        int written = 0;
+        for (int from = 0; from < n; ) {
+            int parentId = (int) (keys[from] >>> 32);
+            int to = from;
+            int r = 0, g = 0, b = 0, vSeq = 0;
+            Instant timestamp = null;
+            while (to < n && (int) (keys[to] >>> 32) == parentId) {
+                DeltaDTO voxel = childVoxels.get((int) keys[to]);
+                byte[] color = voxel.colorBytes();
+                boolean hasColor = color != null && color.length >= 3;
+                r += hasColor ? color[0] & 0xFF : DEFAULT_SHADE;
+                g += hasColor ? color[1] & 0xFF : DEFAULT_SHADE;
+                b += hasColor ? color[2] & 0xFF : DEFAULT_SHADE;
+                vSeq = Math.max(vSeq, voxel.vSeq());
+                if (voxel.timestamp() != null && (timestamp == null || voxel.timestamp().isAfter(timestamp))) {
+                    timestamp = voxel.timestamp();
+                }
+                to++;
+            }
+
+            int count = to - from;
+            if (count >= minOccupancy) {
+                parent.put(new DeltaDTO(
+                        new UUID(seed, parentId),
+                        vSeq,
+                        parentId,
+                        ALL_FACES,
+                        DeltaDTO.ColorSchema.RGB1,
+                        new byte[]{(byte) (r / count), (byte) (g / count), (byte) (b / count)},
+                        ACTOR,
+                        null,
+                        timestamp
+                ));
+                written++;
+            }
+            from = to;
+        }
+        return written;
+    }
+
+    static int octantOf(int voxelId) {
+        int x = (voxelId >> 16) & 0xFF;
+        int y = (voxelId >> 8) & 0xFF;
+        int z = voxelId & 0xFF;
+        return ((x >= HALF ? 1 : 0) << 2) | ((y >= HALF ? 1 : 0) << 1) | (z >= HALF ? 1 : 0);
+    }
+}
@@ -0,0 +1,228 @@
+package com.ssafy.test.snapshot.service;
+
+import com.ssafy.test.snapshot.codec.ChunkStateDigest;
+import com.ssafy.test.snapshot.dto.DeltaDTO;
+import com.ssafy.test.snapshot.repo.ChunkRepository.ChunkHead;
+import com.ssafy.test.snapshot.service.SnapshotBulkheads.Resource;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * 변경된 LOD n 청크로부터 LOD n+1 부모 청크를 증분 재생성
+ * - 부모의 이전 상태에서 변경된 자식 octant 만 비우고 다시 축소해 채움
+ * - 부모 스냅샷이 아직 없으면 자식 8개 모두로 최초 생성
+ * - 월드에 정의된 LOD(world_lod) 또는 snapshot.lod.max-level 까지 반복
+ * - 변경된 자식은 LodDirtyRegistry 에 남겨 두고 부모가 커밋된 뒤에만 제거
+ *   (재생성/커밋 실패, 버전 충돌로 빠진 부모의 자식은 대기 순서 맨 뒤로 미뤄 다음 재생성에서 다시 시도)
+ * - 부모는 부모 청크 키를 소유한 노드만 재생성 (다른 노드 소유 부모의 자식은 대기 인덱스에 남겨 둠)
+ */
+@Service
+@RequiredArgsConstructor
+public class LodPyramidService {
+
+    private static final Logger log = LoggerFactory.getLogger(LodPyramidService.class);
+    private static final int OCTANTS = 8;
+
+    private final ChunkMetadataService chunkMetadataService;
+    private final SnapshotMergeService snapshotMerger;
+    private final SnapshotPublisher snapshotPublisher;
+    private final SnapshotBulkheads bulkheads;
+    private final LodDirtyRegistry lodDirty;
+    private final SnapshotMembership membership;
+
+    @Value("${snapshot.lod.enabled:true}")
+    private boolean enabled;
+
+    @Value("${snapshot.lod.max-level:4}")
+    private int maxLevel;
+
+    @Value("${snapshot.lod.min-occupancy:1}")
+    private int minOccupancy;
+
+    @Value("${snapshot.lod.max-dirty-per-rebuild:10000}")
+    private int maxDirtyPerRebuild;
+
+    @Value("${snapshot.pipeline.max-in-flight:256}")
+    private int maxInFlight;
+
+    /**
+     * 새 버전이 커밋된 청크를 대기 인덱스에 등록하고 대기 중인 부모 전체를 재생성
+     * (changedChunks 가 비어 있어도 이전에 실패한 부모를 재시도)
+     */
+    public void rebuild(Collection<ChunkInfo> changedChunks) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            lodDirty.markChanged(changedChunks);
+            // 부모를 이 노드가 소유한 자식만 (상위 LOD 가 없는 자식도 부모 키 소유 노드가 제거)
+            Map<ChunkInfo, Long> pending = lodDirty.findChanged(maxDirtyPerRebuild,
+                    child -> membership.ownsChunk(child.parent()));
+            if (!pending.isEmpty()) {
+                rebuildPending(pending);
+            }
+        } catch (Exception e) {
+            log.error("상위 LOD 재생성 실패. 변경 청크 수: {}", changedChunks.size(), e);
+        }
+    }
+
+    private void rebuildPending(Map<ChunkInfo, Long> pending) {
+        LodDownsampler downsampler = new LodDownsampler(minOccupancy);
+        Map<String, Boolean> lodDefined = new HashMap<>();
+
+        // 자식 LOD 오름차순: 아래 레벨에서 커밋된 부모가 같은 실행에서 다음 레벨의 자식이 됨
+        TreeMap<Integer, Map<ChunkInfo, Long>> byLod = new TreeMap<>();
+        pending.forEach((child, count) -> byLod.computeIfAbsent(child.lod(), lod -> new HashMap<>()).put(child, count));
+
+        while (!byLod.isEmpty()) {
+            Map.Entry<Integer, Map<ChunkInfo, Long>> level = byLod.pollFirstEntry();
+            int parentLod = level.getKey() + 1;
+            Map<ChunkInfo, Long> children = level.getValue();
+
+            // 반영이 끝난 자식 (상위 LOD 가 없거나 부모가 커밋/변경 없음)
+            Map<ChunkInfo, Long> done = new HashMap<>();
+            Map<ChunkInfo, Set<ChunkInfo>> byParent = new HashMap<>();
+            Set<ChunkInfo> notOwned = new HashSet<>();
+            children.forEach((child, count) -> {
+                if (parentLod > maxLevel || !lodDefined.computeIfAbsent(child.worldName() + ":" + parentLod,
+                        key -> chunkMetadataService.hasLod(child.worldName(), parentLod))) {
+                    done.put(child, count);
+                    return;
+                }
+                ChunkInfo parent = child.parent();
+                if (!membership.ownsChunk(parent)) {
+                    notOwned.add(parent);
+                    return;
+                }
+                byParent.computeIfAbsent(parent, key -> new HashSet<>()).add(child);
+            });
+            if (!notOwned.isEmpty()) {
+                log.debug("소유하지 않은 상위 LOD 청크 제외. LOD: {}, 부모 수: {}", parentLod, notOwned.size());
+            }
+
+            LevelResult result = byParent.isEmpty() ? LevelResult.EMPTY : rebuildLevel(byParent, downsampler);
+            List<ChunkInfo> failed = new ArrayList<>();
+            byParent.forEach((parent, parentChildren) -> {
+                if (result.completed().contains(parent)) {
+                    parentChildren.forEach(child -> done.put(child, children.get(child)));
+                } else {
+                    failed.addAll(parentChildren);
+                }
+            });
+
+            // 커밋된 부모를 먼저 등록한 뒤 자식 제거 (사이에 실패해도 변경 유실 없이 재처리만 됨)
+            Map<ChunkInfo, Long> published = lodDirty.markChanged(result.published());
+            lodDirty.remove(done);
+            lodDirty.defer(failed);
+            if (!published.isEmpty()) {
+                byLod.computeIfAbsent(parentLod, lod -> new HashMap<>()).putAll(published);
+            }
+        }
+    }
+
+    private LevelResult rebuildLevel(Map<ChunkInfo, Set<ChunkInfo>> byParent, LodDownsampler downsampler) {
+        List<SnapshotPublisher.PendingCommit> staged = Collections.synchronizedList(new ArrayList<>());
+        Set<ChunkInfo> unchanged = ConcurrentHashMap.newKeySet();
+        List<CompletableFuture<Void>> futures = new ArrayList<>(byParent.size());
+
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            // 동시에 재생성 중인 부모는 maxInFlight 개까지 (SnapshotOrchestrator 와 같은 한도, 초과분은 제출 전에 대기)
+            Semaphore inFlight = new Semaphore(Math.max(1, maxInFlight));
+            byParent.forEach((parent, children) -> {
+                inFlight.acquireUninterruptibly();
+                futures.add(CompletableFuture.runAsync(() -> {
+                    try {
+                        rebuildParent(parent, children, downsampler)
+                                .ifPresentOrElse(staged::add, () -> unchanged.add(parent));
+                    } catch (Exception e) {
+                        log.error("상위 LOD 청크 재생성 실패. 다음 재생성에서 재시도. 청크: {}", parent, e);
+                    } finally {
+                        inFlight.release();
+                    }
+                }, executor));
+            });
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+        }
+
+        // 레벨 단위로 메타데이터 일괄 기록, 커밋된 부모만 다음 레벨로 전파
+        Set<ChunkInfo> published = new HashSet<>();
+        try {
+            snapshotPublisher.commit(staged).forEach(item -> published.add(item.chunkInfo()));
+        } catch (Exception e) {
+            log.error("상위 LOD 메타데이터 기록 실패. 다음 재생성에서 재시도. 대상 청크 수: {}", staged.size(), e);
+        }
+        if (published.size() < staged.size()) {
+            log.warn("상위 LOD 커밋 누락(버전 충돌/기록 실패). 다음 재생성에서 재시도. 커밋: {}/{}",
+                    published.size(), staged.size());
+        }
+
+        Set<ChunkInfo> completed = new HashSet<>(unchanged);
+        completed.addAll(published);
+        log.info("상위 LOD 재생성 완료. 발행: {}, 변경 없음: {}, 전체: {}", published.size(), unchanged.size(), byParent.size());
+        return new LevelResult(completed, published);
+    }
+
+    /**
+     * @return 새 버전 업로드 결과 (축소 결과가 이전과 같으면 empty, 상위 LOD 로 전파하지 않음)
+     */
+    private Optional<SnapshotPublisher.PendingCommit> rebuildParent(ChunkInfo parent, Set<ChunkInfo> changedChildren,
+                                                                    LodDownsampler downsampler) {
+        ChunkHead head = bulkheads.call(Resource.DATABASE, () -> chunkMetadataService.getOrCreateChunkHead(parent));
+        int curVersion = head.version();
+        VoxelDeltaMap state = snapshotMerger.loadLatestSnapshot(parent, curVersion);
+        state.trackChanges();
+
+        Collection<ChunkInfo> children = curVersion == 0 ? allChildren(parent) : changedChildren;
+        for (ChunkInfo child : children) {
+            int childVersion = bulkheads.call(Resource.DATABASE, () -> chunkMetadataService.findSnapshotVersion(child));
+            VoxelDeltaMap childState = snapshotMerger.loadLatestSnapshot(child, childVersion);
+            bulkheads.run(Resource.CPU, () -> {
+                downsampler.clearOctant(state, child.octant());
+                downsampler.downsampleInto(state, parent, child, childState.toSortedList());
+            });
+        }
+
+        List<DeltaDTO> sorted = state.toSortedList();
+        byte[] checksum = bulkheads.call(Resource.CPU, () -> ChunkStateDigest.sha256(sorted));
+        if (head.hasChecksum(checksum)) {
+            log.info("상위 LOD 청크 변경 없음. 발행 생략. 청크: {}", parent);
+            return Optional.empty();
+        }
+
+        SnapshotPublisher.PendingCommit pending = snapshotPublisher.stage(parent, head, sorted, state.changes(), checksum);
+        log.info("상위 LOD 청크 업로드. 청크: {}, 갱신 자식 수: {}, voxel 수: {}", parent, children.size(), state.size());
+        return Optional.of(pending);
+    }
+
+    private static List<ChunkInfo> allChildren(ChunkInfo parent) {
+        List<ChunkInfo> children = new ArrayList<>(OCTANTS);
+        for (int octant = 0; octant < OCTANTS; octant++) {
+            children.add(new ChunkInfo(
+                    parent.worldName(),
+                    parent.lod() - 1,
+                    parent.x() * 2 + ((octant >> 2) & 1),
+                    parent.y() * 2 + ((octant >> 1) & 1),
+                    parent.z() * 2 + (octant & 1)
+            ));
+        }
+        return children;
+    }
+
+    /**
+     * @param completed 반영이 끝난 부모 (커밋 또는 변경 없음), 이 부모의 자식만 대기 인덱스에서 제거
+     * @param published 새 버전이 커밋된 부모
+     */
+    private record LevelResult(Set<ChunkInfo> completed, Set<ChunkInfo> published) {
+
+        static final LevelResult EMPTY = new LevelResult(Set.of(), Set.of());
+    }
+}
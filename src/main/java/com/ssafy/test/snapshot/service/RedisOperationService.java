@@ -1,72 +1,95 @@
-
 package com.ssafy.test.snapshot.service;
 
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.data.domain.Range;
-import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
-import java.util.Set;
-
-import static com.ssafy.test.snapshot.service.SnapshotOrchestrator.OPID_PREFIX;
 
+/**
+ * claim 된 op 의 마무리 (DeltaCollectorService.claimDeltas 의 짝)
+ * - ack: 처리 완료 → 처리 중 op 와 payload 삭제
+ * - requeue: 처리 실패 → 처리 중 op 를 원래 score 로 대기열에 복원 (다음 배치에서 재처리)
+ * - 둘 다 lease 토큰이 일치할 때만 수행 (lease 만료 후 다른 배치가 가져간 op 는 건드리지 않음)
+ */
 @Service
 @RequiredArgsConstructor
 public class RedisOperationService {
 
     private static final Logger log = LoggerFactory.getLogger(RedisOperationService.class);
-    private static final String DELTAS_PREFIX = "deltas:";
-    private static final String TOMBSTONE_PREFIX = "tombstone:";
-
-    private final StringRedisTemplate redisTemplate;
-
-    @Transactional
-    public void cleanupProcessedData(String chunkKey, Set<String> opIds,
-                                     Set<String> tombstoneOpIds, double maxScore) {
-        try {
-            List<Object> txResults = redisTemplate.execute((RedisCallback<List<Object>>) connection -> {
-                var zSetOps = connection.zSetCommands();
-                var hashOps = connection.hashCommands();
-
-                connection.multi();
-
-                // delta 제거
-                if (opIds != null && !opIds.isEmpty()) {
-                    byte[] chunkKeyBytes = redisTemplate.getStringSerializer().serialize(chunkKey);
-                    zSetOps.zRemRangeByScore(chunkKeyBytes, Range.closed(Double.NEGATIVE_INFINITY, maxScore));
 
-                    String deltaKey = DELTAS_PREFIX + chunkKey.substring(OPID_PREFIX.length());
-                    byte[] deltaKeyBytes = redisTemplate.getStringSerializer().serialize(deltaKey);
-                    byte[][] fields = opIds.stream()
-                            .map(id -> redisTemplate.getStringSerializer().serialize(id))
-                            .toArray(byte[][]::new);
-                    hashOps.hDel(deltaKeyBytes, fields);
-                }
+    // KEYS: deltas, inflightOps, inflightTombstones, lease / ARGV: token
+    private static final RedisScript<Long> ACK_SCRIPT = new DefaultRedisScript<>(
+            """
+            if redis.call('GET', KEYS[4]) ~= ARGV[1] then
+                return 0
+            end
+            local ids = redis.call('ZRANGE', KEYS[2], 0, -1)
+            for i = 1, #ids, 1000 do
+                redis.call('HDEL', KEYS[1], unpack(ids, i, math.min(i + 999, #ids)))
+            end
+            redis.call('DEL', KEYS[2], KEYS[3], KEYS[4])
+            return 1
+            """,
+            Long.class
+    );
+
+    // KEYS: ops, tombstones, inflightOps, inflightTombstones, lease / ARGV: token
+    private static final RedisScript<Long> REQUEUE_SCRIPT = new DefaultRedisScript<>(
+            """
+            if redis.call('GET', KEYS[5]) ~= ARGV[1] then
+                return 0
+            end
+            local ops = redis.call('ZRANGE', KEYS[3], 0, -1, 'WITHSCORES')
+            for i = 1, #ops, 2 do
+                redis.call('ZADD', KEYS[1], ops[i + 1], ops[i])
+            end
+            local tombs = redis.call('ZRANGE', KEYS[4], 0, -1, 'WITHSCORES')
+            for i = 1, #tombs, 2 do
+                redis.call('ZADD', KEYS[2], tombs[i + 1], tombs[i])
+            end
+            redis.call('DEL', KEYS[3], KEYS[4], KEYS[5])
+            return 1
+            """,
+            Long.class
+    );
 
-                // tombstone 제거
-                if (tombstoneOpIds != null && !tombstoneOpIds.isEmpty()) {
-                    String tombKey = TOMBSTONE_PREFIX + chunkKey.substring(OPID_PREFIX.length());
-                    byte[] tombKeyBytes = redisTemplate.getStringSerializer().serialize(tombKey);
-                    zSetOps.zRemRangeByScore(tombKeyBytes, Range.closed(Double.NEGATIVE_INFINITY, maxScore));
-                }
-
-                return connection.exec(); // 트랜잭션 실행
-            });
-
-            if (txResults == null) {
-                log.warn("Redis 트랜잭션이 중단되었습니다 (EXEC 결과 null). 청크: {}", chunkKey);
-                return;
-            }
+    private final StringRedisTemplate redisTemplate;
 
-            log.info("Redis 트랜잭션 완료 ✅ 청크: {}, 작업 개수: {}", chunkKey, txResults.size());
+    /**
+     * @param claimToken null 이면 claim 한 op 가 없으므로 생략
+     */
+    public void acknowledge(String chunkKey, String claimToken) {
+        if (claimToken == null) {
+            return;
+        }
+        ChunkOpKeys keys = ChunkOpKeys.of(chunkKey);
+        Long result = redisTemplate.execute(ACK_SCRIPT,
+                List.of(keys.deltas(), keys.inflightOps(), keys.inflightTombstones(), keys.lease()), claimToken);
+        if (result == null || result == 0) {
+            // lease 만료 후 다른 배치가 복원/재처리: 이미 커밋된 상태라 변경 없음으로 정리됨
+            log.warn("claim lease 만료로 ack 생략. 청크: {}", chunkKey);
+            return;
+        }
+        log.info("처리 Delta 정리 완료 ✅ 청크: {}", chunkKey);
+    }
 
-        } catch (Exception e) {
-            log.error("Redis 트랜잭션 실패 ❌ 청크: {}", chunkKey, e);
+    public void requeue(String chunkKey, String claimToken) {
+        if (claimToken == null) {
+            return;
+        }
+        ChunkOpKeys keys = ChunkOpKeys.of(chunkKey);
+        Long result = redisTemplate.execute(REQUEUE_SCRIPT,
+                List.of(keys.ops(), keys.tombstones(), keys.inflightOps(), keys.inflightTombstones(), keys.lease()),
+                claimToken);
+        if (result == null || result == 0) {
+            log.warn("claim lease 만료로 requeue 생략. 청크: {}", chunkKey);
+            return;
         }
+        log.info("처리 실패 Delta 대기열 복원. 청크: {}", chunkKey);
     }
 }
@@ -17,11 +17,17 @@ import software.amazon.awssdk.services.s3.presigner.model.PresignedGetObjectRequ
 
 import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.StreamSupport;
 
 @Service
@@ -32,9 +38,15 @@ public class S3Service {
     private final S3Client s3Client;
     private final MinioClient minioClient;
 
+    private static final int PIPE_BUFFER_BYTES = 64 * 1024;
+
     @Value("${spring.cloud.aws.s3.bucket-name}")
     private String bucketName;
 
+    // MinIO 최소 part 크기 5MiB
+    @Value("${minio.upload.part-size:8388608}")
+    private long partSize;
+
     public String uploadFile(String key, String jsonData) {
 //        PutObjectRequest putRequest = PutObjectRequest.builder()
 //                .bucket(bucketName)
@@ -45,24 +57,290 @@ public class S3Service {
 //        s3Client.putObject(putRequest, RequestBody.fromString(jsonData, StandardCharsets.UTF_8));
         // return "temp"
 
-        try {
-            ByteArrayInputStream inputStream =
-                    new ByteArrayInputStream(jsonData.getBytes(StandardCharsets.UTF_8));
+        // length() 는 문자 수라 멀티바이트 문자가 있으면 객체 크기와 달라짐 → UTF-8 바이트 길이 사용
+        return uploadFile(key, jsonData.getBytes(StandardCharsets.UTF_8), "application/json");
+    }
 
+    public String uploadFile(String key, byte[] data, String contentType) {
+        try (ByteArrayInputStream inputStream = new ByteArrayInputStream(data)) {
             minioClient.putObject(
                     PutObjectArgs.builder()
                             .bucket(bucketName)
-                            .object(key) // S3의 key와 동일한 역할
-                            .stream(inputStream, jsonData.length(), -1)
-                            .contentType("application/json")
+                            .object(key)
+                            .stream(inputStream, data.length, -1)
+                            .contentType(contentType)
                             .build()
             );
-
             return "uploaded: " + key;
 
         } catch (Exception e) {
-            e.printStackTrace();
-            throw new RuntimeException("파일 업로드 실패", e);
+            throw new RuntimeException("파일 업로드 실패: " + key, e);
+        }
+    }
+
+    /**
+     * 직렬화 결과를 중간 byte[] 없이 업로드
+     * - 생산자(가상 스레드)가 고정 크기 버퍼(StreamPipe)에 기록, MinIO 가 part 단위로 읽어 전송
+     * - size 를 알면 partSize 초과 시 multipart, 힙 사용량은 part 크기로 고정
+     * - size 가 -1 이면(압축 등) part 단위로 끝까지 읽음, 기록된 실제 바이트 수를 반환
+     * - 생산자가 실패하면 업로드 쪽 읽기가 예외로 끝나 업로드 실패
+     * - size 보다 많이 기록하면 MinIO 는 size 바이트에서 업로드를 끝내고 생산자는 그 뒤에 실패하므로,
+     *   업로드 완료 후 생산자 실패가 확인되면 잘린 객체를 삭제하고 실패 처리
+     */
+    public Uploaded uploadStream(String key, long size, String contentType, String contentEncoding, StreamBody body) {
+        StreamPipe pipe = new StreamPipe(PIPE_BUFFER_BYTES);
+        CountingOutputStream outputStream = new CountingOutputStream(pipe.output());
+        Thread producer = Thread.ofVirtual().name("s3-upload-" + key).start(() -> {
+            Exception error = null;
+            try {
+                body.writeTo(outputStream);
+            } catch (Exception e) {
+                error = e;
+            } finally {
+                pipe.closeWriter(error);
+            }
+        });
+
+        try {
+            PutObjectArgs.Builder args = PutObjectArgs.builder()
+                    .bucket(bucketName)
+                    .object(key)
+                    .stream(pipe.input(), size, partSize)
+                    .contentType(contentType);
+            if (contentEncoding != null) {
+                args.headers(Map.of("Content-Encoding", contentEncoding));
+            }
+
+            try {
+                minioClient.putObject(args.build());
+            } finally {
+                // 업로드가 먼저 끝나거나 실패하면 버퍼를 닫아 생산자 블록 해제
+                pipe.closeReader();
+                producer.join();
+            }
+
+            if (pipe.writerError() != null) {
+                removeQuietly(key);
+                throw new IOException("업로드 본문 기록 실패 (크기 불일치 포함)", pipe.writerError());
+            }
+            return new Uploaded(key, outputStream.count);
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("파일 업로드 중단: " + key, e);
+        } catch (Exception e) {
+            throw new RuntimeException("파일 업로드 실패: " + key, e);
+        }
+    }
+
+    /**
+     * 잘린 업로드 정리 (실패해도 어떤 메타데이터도 가리키지 않는 객체라 로그만 남김)
+     */
+    private void removeQuietly(String key) {
+        try {
+            minioClient.removeObject(RemoveObjectArgs.builder()
+                    .bucket(bucketName)
+                    .object(key)
+                    .build());
+        } catch (Exception e) {
+            log.warn("잘린 업로드 객체 삭제 실패. key: {}", key, e);
+        }
+    }
+
+    @FunctionalInterface
+    public interface StreamBody {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    /**
+     * @param uri         객체 키
+     * @param storedBytes 실제 저장된(압축 후) 바이트 수
+     */
+    public record Uploaded(String uri, long storedBytes) {
+    }
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+
+    /**
+     * 생산자 → 업로드 스레드 사이 고정 크기 링 버퍼
+     * PipedInput/OutputStream 은 synchronized + wait() 로 대기해 가상 스레드가 carrier 를 붙잡으므로(pinning)
+     * ReentrantLock/Condition 으로 대기 (대기 중에는 carrier 반납)
+     */
+    private static final class StreamPipe {
+
+        private final byte[] buffer;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition notEmpty = lock.newCondition();
+        private final Condition notFull = lock.newCondition();
+        private int readPos;
+        private int count;
+        private boolean writerClosed;
+        private boolean readerClosed;
+        private Exception writerError;
+
+        StreamPipe(int capacity) {
+            this.buffer = new byte[capacity];
+        }
+
+        void write(byte[] b, int off, int len) throws IOException {
+            lock.lock();
+            try {
+                while (len > 0) {
+                    while (count == buffer.length && !readerClosed) {
+                        await(notFull);
+                    }
+                    if (readerClosed) {
+                        throw new IOException("업로드 스트림이 닫힘");
+                    }
+                    int writePos = (readPos + count) % buffer.length;
+                    int n = Math.min(len, Math.min(buffer.length - count, buffer.length - writePos));
+                    System.arraycopy(b, off, buffer, writePos, n);
+                    count += n;
+                    off += n;
+                    len -= n;
+                    notEmpty.signal();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            lock.lock();
+            try {
+                while (count == 0 && !writerClosed) {
+                    await(notEmpty);
+                }
+                // 생산자 실패는 남은 데이터와 무관하게 즉시 업로드 실패로 전달
+                if (writerError != null) {
+                    throw new IOException("업로드 본문 기록 실패", writerError);
+                }
+                if (count == 0) {
+                    return -1;
+                }
+                int n = Math.min(len, Math.min(count, buffer.length - readPos));
+                System.arraycopy(buffer, readPos, b, off, n);
+                readPos = (readPos + n) % buffer.length;
+                count -= n;
+                notFull.signal();
+                return n;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * @param error 생산자 실패 원인 (정상 종료면 null)
+         */
+        void closeWriter(Exception error) {
+            lock.lock();
+            try {
+                writerClosed = true;
+                writerError = error;
+                notEmpty.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void closeReader() {
+            lock.lock();
+            try {
+                readerClosed = true;
+                notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        Exception writerError() {
+            lock.lock();
+            try {
+                return writerError;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        InputStream input() {
+            return new InputStream() {
+                @Override
+                public int read() throws IOException {
+                    byte[] one = new byte[1];
+                    return StreamPipe.this.read(one, 0, 1) < 0 ? -1 : one[0] & 0xFF;
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    return StreamPipe.this.read(b, off, len);
+                }
+
+                @Override
+                public void close() {
+                    closeReader();
+                }
+            };
+        }
+
+        OutputStream output() {
+            return new OutputStream() {
+                @Override
+                public void write(int b) throws IOException {
+                    StreamPipe.this.write(new byte[]{(byte) b}, 0, 1);
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    StreamPipe.this.write(b, off, len);
+                }
+            };
+        }
+
+        private static void await(Condition condition) throws InterruptedIOException {
+            try {
+                condition.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("업로드 스트림 대기 중단");
+            }
+        }
+    }
+
+    /**
+     * 객체 원본 바이트 조회 (없으면 예외)
+     */
+    public byte[] getFile(String key) {
+        try (InputStream stream = minioClient.getObject(
+                GetObjectArgs.builder()
+                        .bucket(bucketName)
+                        .object(key)
+                        .build()
+        )) {
+            return stream.readAllBytes();
+        } catch (Exception e) {
+            throw new RuntimeException("파일 조회 실패: " + key, e);
         }
     }
 
@@ -76,20 +354,7 @@ public class S3Service {
 //        s3Client.putObject(putRequest, RequestBody.fromBytes(glbData));
 //
 //        return "temp";
-        try (ByteArrayInputStream inputStream = new ByteArrayInputStream(glbData)) {
-            minioClient.putObject(
-                    PutObjectArgs.builder()
-                            .bucket(bucketName)
-                            .object(key)
-                            .stream(inputStream, glbData.length, -1)
-                            .contentType("model/gltf-binary")
-                            .build()
-            );
-            return "uploaded: " + key;
-
-        } catch (Exception e) {
-            throw new RuntimeException("파일 업로드 실패: " + key, e);
-        }
+        return uploadFile(key, glbData, "model/gltf-binary");
     }
 
     public String getChunkFile(String worldName, int lod, int x, int y, int z, int version) {
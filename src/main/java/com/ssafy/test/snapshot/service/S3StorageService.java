@@ -1,11 +1,17 @@
 package com.ssafy.test.snapshot.service;
 
+import com.ssafy.test.snapshot.codec.DeltaCodec;
+import com.ssafy.test.snapshot.codec.StorageCompression;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.io.OutputStream;
+import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
@@ -14,47 +20,136 @@ public class S3StorageService {
     private static final Logger log = LoggerFactory.getLogger(S3StorageService.class);
     private static final String SNAPSHOT_PREFIX = "snapshot";
     private static final String GLB_PREFIX = "glb";
+    private static final String GLB_CONTENT_TYPE = "model/gltf-binary";
+    private static final String SEGMENT_EXTENSION = "seg";
+    private static final String SEGMENT_CONTENT_TYPE = "application/octet-stream";
+    private static final String LEGACY_URI_PREFIX = "uploaded: ";
+    private static final List<DeltaCodec.Format> SNAPSHOT_READ_ORDER =
+            List.of(DeltaCodec.Format.BINARY, DeltaCodec.Format.JSON);
 
     private final S3Service s3Service;
 
-    public String uploadSnapshot(ChunkInfo chunkInfo, int version, String jsonContent) {
-        String key = buildS3Key(SNAPSHOT_PREFIX, chunkInfo, version, "json");
-        return s3Service.uploadFile(key, jsonContent);
+    @Value("${snapshot.storage.snapshot-compression:LZ4}")
+    private StorageCompression snapshotCompression;
+
+    @Value("${snapshot.storage.glb-compression:GZIP}")
+    private StorageCompression glbCompression;
+
+    /**
+     * 스냅샷을 직렬화하면서 바로 업로드 (전체 byte[] 를 만들지 않음)
+     * @param objectId 발행 시도마다 새로 만든 ID, 키에 포함 (버전 충돌에서 진 업로드가 커밋된 객체를 덮어쓰지 않도록)
+     * @return uri 는 객체 키 그대로 (storage_uri 로 저장해 조회에 사용)
+     */
+    public S3Service.Uploaded uploadSnapshot(ChunkInfo chunkInfo, int version, UUID objectId,
+                                             DeltaCodec.SnapshotWriter snapshot, DeltaCodec.Format format) {
+        String key = buildS3Key(SNAPSHOT_PREFIX, chunkInfo, version, objectId, format.extension());
+        return upload(key, snapshot.size(), format.contentType(), snapshotCompression, snapshot::writeTo);
     }
 
-    public String uploadGLB(ChunkInfo chunkInfo, int version, byte[] glbData) {
-        String key = buildS3Key(GLB_PREFIX, chunkInfo, version, "glb");
-        return s3Service.uploadFile(key, glbData);
+    /**
+     * 직전 버전 대비 변경분 세그먼트 업로드 (vN-{objectId}.seg)
+     */
+    public S3Service.Uploaded uploadSegment(ChunkInfo chunkInfo, int version, UUID objectId,
+                                            DeltaCodec.SnapshotWriter segment) {
+        String key = buildS3Key(SNAPSHOT_PREFIX, chunkInfo, version, objectId, SEGMENT_EXTENSION);
+        return upload(key, segment.size(), SEGMENT_CONTENT_TYPE, snapshotCompression, segment::writeTo);
     }
 
-    public Optional<String> getLatestSnapshot(ChunkInfo chunkInfo, int version) {
-        log.info("조회하는 버전: {}", version);
+    /**
+     * @param storageUri chunk_snapshot.storage_uri (null 이면 버전으로 만든 이전 키 vN.seg)
+     */
+    public Optional<byte[]> getSegment(ChunkInfo chunkInfo, int version, String storageUri) {
+        String key = storageUri != null
+                ? objectKey(storageUri)
+                : buildLegacyS3Key(SNAPSHOT_PREFIX, chunkInfo, version, SEGMENT_EXTENSION);
         try {
-            String snapshot = s3Service.getChunkFile(
-                    SNAPSHOT_PREFIX + "/" + chunkInfo.worldName(),
-                    chunkInfo.lod(),
-                    chunkInfo.x(),
-                    chunkInfo.y(),
-                    chunkInfo.z(),
-                    version
-            );
-
-            // null 또는 빈 문자열 체크
-            if (snapshot == null || snapshot.isEmpty()) {
-                log.info("기존 스냅샷 없음 (최초 생성). 청크: {}", chunkInfo);
+            byte[] segment = s3Service.getFile(key);
+            if (segment == null || segment.length == 0) {
                 return Optional.empty();
             }
+            return Optional.of(StorageCompression.decompress(segment));
+        } catch (Exception e) {
+            log.warn("스냅샷 세그먼트 조회 실패. key: {}", key, e);
+            return Optional.empty();
+        }
+    }
 
-            return Optional.of(snapshot);
+    public S3Service.Uploaded uploadGLB(ChunkInfo chunkInfo, int version, UUID objectId, byte[] glbData) {
+        String key = buildS3Key(GLB_PREFIX, chunkInfo, version, objectId, "glb");
+        return upload(key, glbData.length, GLB_CONTENT_TYPE, glbCompression, out -> out.write(glbData));
+    }
 
-        } catch (Exception e) {
-            // S3에서 파일을 찾지 못한 경우 (최초 생성)
-            log.info("기존 스냅샷 없음 (S3 조회 실패). 청크: {}", chunkInfo);
+    /**
+     * 압축 시 결과 크기를 미리 알 수 없으므로 크기 미지정(part 단위) 업로드
+     */
+    private S3Service.Uploaded upload(String key, long rawSize, String contentType,
+                                      StorageCompression compression, S3Service.StreamBody body) {
+        if (compression == StorageCompression.NONE) {
+            return s3Service.uploadStream(key, rawSize, contentType, null, body);
+        }
+        return s3Service.uploadStream(key, -1, contentType, compression.contentEncoding(), out -> {
+            OutputStream compressed = compression.wrap(out);
+            body.writeTo(compressed);
+            compressed.close();
+        });
+    }
+
+    /**
+     * 전체 스냅샷 조회
+     * @param storageUri chunk_snapshot.storage_uri (null 이면 버전으로 만든 이전 키: 바이너리(.bin) 우선, 없으면 .json)
+     */
+    public Optional<byte[]> getLatestSnapshot(ChunkInfo chunkInfo, int version, String storageUri) {
+        log.info("조회하는 버전: {}", version);
+        if (version <= 0) {
+            log.info("기존 스냅샷 없음 (최초 생성). 청크: {}", chunkInfo);
             return Optional.empty();
         }
+
+        List<String> keys = storageUri != null
+                ? List.of(objectKey(storageUri))
+                : SNAPSHOT_READ_ORDER.stream()
+                        .map(format -> buildLegacyS3Key(SNAPSHOT_PREFIX, chunkInfo, version, format.extension()))
+                        .toList();
+        for (String key : keys) {
+            try {
+                byte[] snapshot = s3Service.getFile(key);
+
+                // null 또는 빈 객체 체크
+                if (snapshot == null || snapshot.length == 0) {
+                    log.info("기존 스냅샷 없음 (빈 객체). 청크: {}", chunkInfo);
+                    return Optional.empty();
+                }
+                // Content-Encoding 과 무관하게 매직 바이트로 판별해 해제
+                return Optional.of(StorageCompression.decompress(snapshot));
+
+            } catch (Exception e) {
+                log.debug("스냅샷 조회 실패. key: {}", key);
+            }
+        }
+
+        // S3에서 파일을 찾지 못한 경우 (최초 생성)
+        log.info("기존 스냅샷 없음 (S3 조회 실패). 청크: {}", chunkInfo);
+        return Optional.empty();
+    }
+
+    /**
+     * storage_uri → 객체 키 (이전 발행분은 "uploaded: " 접두어가 붙어 있음)
+     */
+    private static String objectKey(String storageUri) {
+        return storageUri.startsWith(LEGACY_URI_PREFIX) ? storageUri.substring(LEGACY_URI_PREFIX.length()) : storageUri;
+    }
+
+    private String buildS3Key(String prefix, ChunkInfo info, int version, UUID objectId, String ext) {
+        return String.format("%s/%s/l%d/x%d/y%d/z%d/v%d-%s.%s",
+                prefix, info.worldName(), info.lod(),
+                info.x(), info.y(), info.z(), version, objectId, ext
+        );
     }
 
-    private String buildS3Key(String prefix, ChunkInfo info, int version, String ext) {
+    /**
+     * 발행 시도별 ID 도입 이전 키 (storage_uri 가 없는 버전 조회용)
+     */
+    private String buildLegacyS3Key(String prefix, ChunkInfo info, int version, String ext) {
         return String.format("%s/%s/l%d/x%d/y%d/z%d/v%d.%s",
                 prefix, info.worldName(), info.lod(),
                 info.x(), info.y(), info.z(), version, ext
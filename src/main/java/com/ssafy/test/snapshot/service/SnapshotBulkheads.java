@@ -0,0 +1,81 @@
+package com.ssafy.test.snapshot.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+/**
+ * 스냅샷 파이프라인의 자원별 동시 실행 한도 (bulkhead)
+ * - 청크 당 가상 스레드는 그대로 두고, 각 단계가 쓰는 자원(Redis/DB/CPU/오브젝트 저장소) 진입만 제한
+ * - 한도를 넘는 작업은 해당 자원 앞에서 대기 (Redisson/Hikari 풀 고갈로 인한 타임아웃 방지)
+ * - 같은 자원을 중첩 획득하지 않도록 호출 지점은 자원 1개 구간만 감쌈
+ */
+@Component
+public class SnapshotBulkheads {
+
+    private static final Logger log = LoggerFactory.getLogger(SnapshotBulkheads.class);
+
+    public enum Resource {
+        REDIS, DATABASE, CPU, STORAGE
+    }
+
+    private final Map<Resource, Semaphore> permits = new EnumMap<>(Resource.class);
+    private final SnapshotMetrics metrics;
+
+    public SnapshotBulkheads(
+            SnapshotMetrics metrics,
+            @Value("${snapshot.pipeline.redis-concurrency:32}") int redisConcurrency,
+            @Value("${snapshot.pipeline.db-concurrency:8}") int dbConcurrency,
+            @Value("${snapshot.pipeline.cpu-concurrency:0}") int cpuConcurrency,
+            @Value("${snapshot.pipeline.storage-concurrency:32}") int storageConcurrency) {
+        this.metrics = metrics;
+        int cpu = cpuConcurrency > 0 ? cpuConcurrency : Runtime.getRuntime().availableProcessors();
+        permits.put(Resource.REDIS, new Semaphore(Math.max(1, redisConcurrency), true));
+        permits.put(Resource.DATABASE, new Semaphore(Math.max(1, dbConcurrency), true));
+        permits.put(Resource.CPU, new Semaphore(Math.max(1, cpu), true));
+        permits.put(Resource.STORAGE, new Semaphore(Math.max(1, storageConcurrency), true));
+        log.info("스냅샷 파이프라인 동시 실행 한도. REDIS: {}, DATABASE: {}, CPU: {}, STORAGE: {}",
+                redisConcurrency, dbConcurrency, cpu, storageConcurrency);
+    }
+
+    /**
+     * try/finally 에서 close 로 해제 (call/run 으로 감쌀 수 없는 구간용)
+     */
+    public Permit acquire(Resource resource) {
+        Semaphore semaphore = permits.get(resource);
+        long waitStart = System.nanoTime();
+        semaphore.acquireUninterruptibly();
+        metrics.recordBulkheadWait(resource, System.nanoTime() - waitStart);
+        return semaphore::release;
+    }
+
+    public <T> T call(Resource resource, Supplier<T> task) {
+        Permit permit = acquire(resource);
+        try {
+            return task.get();
+        } finally {
+            permit.close();
+        }
+    }
+
+    public void run(Resource resource, Runnable task) {
+        Permit permit = acquire(resource);
+        try {
+            task.run();
+        } finally {
+            permit.close();
+        }
+    }
+
+    @FunctionalInterface
+    public interface Permit extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
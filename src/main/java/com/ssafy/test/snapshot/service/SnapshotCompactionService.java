@@ -0,0 +1,210 @@
+package com.ssafy.test.snapshot.service;
+
+import com.example.jooq.generated.enums.CompactionStatusEnum;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ssafy.test.snapshot.codec.ChunkStateDigest;
+import com.ssafy.test.snapshot.codec.DeltaCodec;
+import com.ssafy.test.snapshot.dto.DeltaDTO;
+import com.ssafy.test.snapshot.repo.CompactionJobRepository;
+import com.ssafy.test.snapshot.repo.CompactionJobRepository.CompactionJob;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 세그먼트 체인 압축 (chunk_compaction_job)
+ * - 체인이 길어진 청크를 대기열에 등록 → 주기적으로 선점(FOR UPDATE SKIP LOCKED)해 실행
+ * - to_version 상태를 전체 스냅샷으로 다시 써서 새 기준으로 표시 (이후 버전은 그 지점부터 복원)
+ * - 스냅샷 배치와 별도의 동시 실행 수 / 초당 업로드 바이트 한도 안에서만 실행
+ * - 복원 상태의 해시가 버전에 기록된 해시와 다르면 기준을 바꾸지 않고 실패 처리
+ */
+@Service
+@RequiredArgsConstructor
+public class SnapshotCompactionService {
+
+    private static final Logger log = LoggerFactory.getLogger(SnapshotCompactionService.class);
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final CompactionJobRepository jobRepository;
+    private final ChunkMetadataService chunkMetadataService;
+    private final SnapshotMergeService snapshotMerger;
+    private final S3StorageService s3Storage;
+    private final DeltaCodec deltaCodec;
+    private final ObjectMapper objectMapper;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    // 다음 업로드가 시작 가능한 시각 (초당 바이트 한도 pacing)
+    private final AtomicLong nextUploadAt = new AtomicLong(System.nanoTime());
+
+    @Value("${snapshot.compaction.enabled:true}")
+    private boolean enabled;
+
+    @Value("${snapshot.compaction.max-concurrency:2}")
+    private int maxConcurrency;
+
+    @Value("${snapshot.compaction.max-bytes-per-second:8388608}")
+    private long maxBytesPerSecond;
+
+    @Value("${snapshot.compaction.stale-after:10m}")
+    private Duration staleAfter;
+
+    private Semaphore permits;
+
+    @PostConstruct
+    void init() {
+        permits = new Semaphore(Math.max(1, maxConcurrency));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 발행 배치에서 커밋된 청크들의 작업을 한 번에 등록
+     */
+    public void enqueueAll(List<CompactionJob> jobs) {
+        if (!enabled || jobs.isEmpty()) {
+            return;
+        }
+        List<UUID> inserted = jobRepository.insertAllIfAbsent(jobs);
+        if (!inserted.isEmpty()) {
+            log.info("스냅샷 압축 작업 등록. 요청: {}, 등록: {}", jobs.size(), inserted.size());
+        }
+    }
+
+    /**
+     * 남은 동시 실행 수만큼 작업을 선점해 백그라운드로 실행
+     * @return 선점한 작업 수
+     */
+    public int dispatch() {
+        if (!enabled) {
+            return 0;
+        }
+        int available = permits.availablePermits();
+        if (available == 0) {
+            return 0;
+        }
+
+        List<CompactionJob> jobs = jobRepository.claim(available, staleAfter);
+        for (CompactionJob job : jobs) {
+            permits.acquireUninterruptibly();
+            executor.execute(() -> {
+                try {
+                    run(job);
+                } finally {
+                    permits.release();
+                }
+            });
+        }
+        if (!jobs.isEmpty()) {
+            log.info("스냅샷 압축 작업 선점: {}", jobs.size());
+        }
+        return jobs.size();
+    }
+
+    private void run(CompactionJob job) {
+        long startedAt = System.nanoTime();
+        try {
+            CompactionStats stats = compact(job);
+            jobRepository.finish(job.uuid(), CompactionStatusEnum.succeeded,
+                    toJson(stats.withDuration(elapsedMillis(startedAt))));
+            log.info("스냅샷 압축 완료. 작업: {}, {}", job.uuid(), stats);
+        } catch (Exception e) {
+            log.error("스냅샷 압축 실패. 작업: {}, Chunk: {}", job.uuid(), job.chunkUuid(), e);
+            jobRepository.finish(job.uuid(), CompactionStatusEnum.failed, toJson(Map.of(
+                    "error", String.valueOf(e.getMessage()),
+                    "durationMs", elapsedMillis(startedAt)
+            )));
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    CompactionStats compact(CompactionJob job) throws InterruptedException {
+        long version = job.toVersion() == null ? job.fromVersion() : job.toVersion();
+        ChunkInfo chunkInfo = chunkMetadataService.findChunkInfo(job.chunkUuid())
+                .orElseThrow(() -> new IllegalStateException("청크 인덱스 없음: " + job.chunkUuid()));
+
+        long baseVersion = chunkMetadataService.findBaseVersion(job.chunkUuid(), version);
+        if (baseVersion >= version) {
+            return CompactionStats.skipped(baseVersion, version);
+        }
+        byte[] expected = chunkMetadataService.findSnapshotChecksum(job.chunkUuid(), version)
+                .orElseThrow(() -> new IllegalStateException("상태 해시 없음: v" + version));
+
+        VoxelDeltaMap state = snapshotMerger.loadLatestSnapshot(chunkInfo, (int) version);
+        List<DeltaDTO> sorted = state.toSortedList();
+        if (!MessageDigest.isEqual(expected, ChunkStateDigest.sha256(sorted))) {
+            throw new IllegalStateException("복원 상태 해시 불일치: v" + version);
+        }
+
+        DeltaCodec.SnapshotWriter snapshot = deltaCodec.snapshotWriter(sorted);
+        awaitUploadBudget(snapshot.size());
+        S3Service.Uploaded uploaded = s3Storage.uploadSnapshot(chunkInfo, (int) version, UUID.randomUUID(), snapshot, deltaCodec.format());
+        chunkMetadataService.rebaseSnapshot(job.chunkUuid(), version, uploaded.uri(), (int) uploaded.storedBytes());
+
+        return new CompactionStats(baseVersion, version, version - baseVersion, sorted.size(),
+                snapshot.size(), uploaded.storedBytes(), 0);
+    }
+
+    /**
+     * 초당 바이트 한도: 이전 업로드들이 예약한 시간 뒤로 이번 업로드 시간을 예약하고 그때까지 대기
+     */
+    private void awaitUploadBudget(long bytes) throws InterruptedException {
+        if (maxBytesPerSecond <= 0) {
+            return;
+        }
+        long cost = bytes * NANOS_PER_SECOND / maxBytesPerSecond;
+        long now = System.nanoTime();
+        long reserved = nextUploadAt.getAndAccumulate(cost, (next, c) -> Math.max(next, now) + c);
+        long waitNanos = reserved - now;
+        if (waitNanos > 0) {
+            Thread.sleep(Duration.ofNanos(waitNanos));
+        }
+    }
+
+    private String toJson(Object stats) {
+        try {
+            return objectMapper.writeValueAsString(stats);
+        } catch (JsonProcessingException e) {
+            return "{}";
+        }
+    }
+
+    private static long elapsedMillis(long startedAt) {
+        return (System.nanoTime() - startedAt) / 1_000_000;
+    }
+
+    /**
+     * chunk_compaction_job.stats 로 기록
+     */
+    record CompactionStats(long baseVersion, long toVersion, long segmentsFolded, int voxels,
+                           long rawBytes, long storedBytes, long durationMs) {
+
+        static CompactionStats skipped(long baseVersion, long toVersion) {
+            return new CompactionStats(baseVersion, toVersion, 0, 0, 0, 0, 0);
+        }
+
+        CompactionStats withDuration(long durationMs) {
+            return new CompactionStats(baseVersion, toVersion, segmentsFolded, voxels, rawBytes, storedBytes, durationMs);
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.ssafy.test.snapshot.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static com.ssafy.test.snapshot.service.SnapshotOrchestrator.OPID_PREFIX;
+
+/**
+ * 스냅샷 노드 멤버십 + 청크 소유권 (snapshot.cluster.ownership.enabled=true)
+ * - 노드마다 heartbeat-interval 마다 snapshot:nodes (Sorted Set, score = 마지막 heartbeat 시각) 갱신
+ * - node-ttl 동안 heartbeat 가 없는 노드는 제거 → 남은 노드로 consistent hash ring 재구성
+ * - 각 노드는 자기 소유 청크(스트림 모드는 파티션)만 처리 → 정상 상태에서 claim 충돌 없음
+ * - 소유권 이전(lease handoff): 잃은 청크는 즉시 놓고, 새로 얻은 청크는 handoff-delay 후 처리 시작
+ *   (이전 소유자가 진행 중인 배치를 끝낼 시간, handoff-delay 는 배치 1회 소요 시간보다 길게)
+ * - 비활성화 시 모든 노드가 모든 청크를 처리 (기존 동작, claim lease 로만 보호)
+ */
+@Component
+public class SnapshotMembership {
+
+    private static final Logger log = LoggerFactory.getLogger(SnapshotMembership.class);
+    private static final String NODES_KEY = "snapshot:nodes";
+    private static final String PARTITION_PREFIX = "partition:";
+
+    private final StringRedisTemplate redisTemplate;
+    private final boolean enabled;
+    private final String nodeId;
+    private final Duration heartbeatInterval;
+    private final Duration nodeTtl;
+    private final int virtualNodes;
+    private final long handoffNanos;
+    private final ScheduledExecutorService heartbeat = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("snapshot-membership").daemon().factory());
+
+    private volatile Ownership ownership;
+
+    public SnapshotMembership(
+            StringRedisTemplate redisTemplate,
+            @Value("${snapshot.cluster.ownership.enabled:false}") boolean enabled,
+            @Value("${snapshot.cluster.node-id:}") String nodeId,
+            @Value("${snapshot.cluster.heartbeat-interval:2s}") Duration heartbeatInterval,
+            @Value("${snapshot.cluster.node-ttl:10s}") Duration nodeTtl,
+            @Value("${snapshot.cluster.virtual-nodes:128}") int virtualNodes,
+            @Value("${snapshot.cluster.handoff-delay:15s}") Duration handoffDelay) {
+        this.redisTemplate = redisTemplate;
+        this.enabled = enabled;
+        this.nodeId = nodeId.isBlank() ? defaultNodeId() : nodeId;
+        this.heartbeatInterval = heartbeatInterval;
+        this.nodeTtl = nodeTtl;
+        this.virtualNodes = virtualNodes;
+        this.handoffNanos = handoffDelay.toNanos();
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        // 기존 클러스터에 합류: 다른 노드들이 쓰던 링을 이전 링으로 두고 handoff
+        // (Redis 장애로 멤버를 못 읽으면 자기 자신만 있는 링으로 시작)
+        Set<String> members = new TreeSet<>(Set.of(nodeId));
+        try {
+            members.addAll(heartbeatAndLoadMembers());
+        } catch (Exception e) {
+            log.warn("노드 heartbeat 실패. 노드: {}", nodeId, e);
+        }
+        Set<String> others = new TreeSet<>(members);
+        others.remove(nodeId);
+        ownership = new Ownership(new ChunkOwnershipRing(members, virtualNodes),
+                others.isEmpty() ? null : new ChunkOwnershipRing(others, virtualNodes), System.nanoTime());
+        long intervalMillis = Math.max(100, heartbeatInterval.toMillis());
+        heartbeat.scheduleWithFixedDelay(this::refresh, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        log.info("스냅샷 노드 멤버십 시작. 노드: {}, heartbeat: {}, ttl: {}", nodeId, heartbeatInterval, nodeTtl);
+    }
+
+    public String nodeId() {
+        return nodeId;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 이 노드가 처리할 청크만 남김
+     */
+    public Set<String> filterOwned(Set<String> chunkKeys) {
+        if (!enabled) {
+            return chunkKeys;
+        }
+        Set<String> owned = new LinkedHashSet<>();
+        for (String chunkKey : chunkKeys) {
+            if (owns(chunkId(chunkKey))) {
+                owned.add(chunkKey);
+            }
+        }
+        if (owned.size() < chunkKeys.size()) {
+            log.debug("소유하지 않은 청크 제외. 전체: {}, 소유: {}", chunkKeys.size(), owned.size());
+        }
+        return owned;
+    }
+
+    /**
+     * 이 노드가 처리할 청크인지 (상위 LOD 부모처럼 op_ids 키 없이 만들어지는 청크용)
+     */
+    public boolean ownsChunk(ChunkInfo chunkInfo) {
+        return !enabled || owns(chunkInfo.chunkId());
+    }
+
+    /**
+     * 스트림 모드: 이 노드가 읽을 파티션 번호
+     */
+    public List<Integer> ownedPartitions(int partitions) {
+        List<Integer> owned = new ArrayList<>();
+        for (int partition = 0; partition < partitions; partition++) {
+            if (!enabled || owns(PARTITION_PREFIX + partition)) {
+                owned.add(partition);
+            }
+        }
+        return owned;
+    }
+
+    private boolean owns(String key) {
+        Ownership current = ownership;
+        if (!nodeId.equals(current.ring().ownerOf(key))) {
+            return false;
+        }
+        // handoff 기간: 이전 링에서도 소유하던 키만 처리 (새로 얻은 키는 이전 소유자가 놓을 때까지 대기)
+        return current.previous() == null
+                || System.nanoTime() - current.changedAt() >= handoffNanos
+                || nodeId.equals(current.previous().ownerOf(key));
+    }
+
+    private void refresh() {
+        try {
+            Set<String> members = new TreeSet<>(heartbeatAndLoadMembers());
+            members.add(nodeId);
+            Ownership current = ownership;
+            if (members.equals(current.ring().members())) {
+                return;
+            }
+            ownership = new Ownership(new ChunkOwnershipRing(members, virtualNodes), current.ring(), System.nanoTime());
+            log.info("스냅샷 노드 멤버 변경. 노드: {}, 멤버: {}", nodeId, members);
+        } catch (Exception e) {
+            // 마지막으로 계산한 링 유지
+            log.warn("노드 heartbeat 실패. 노드: {}", nodeId, e);
+        }
+    }
+
+    /**
+     * 자기 heartbeat 갱신 → 만료 노드 제거 → 살아 있는 노드 목록
+     */
+    private Set<String> heartbeatAndLoadMembers() {
+        long now = System.currentTimeMillis();
+        var zSet = redisTemplate.opsForZSet();
+        zSet.add(NODES_KEY, nodeId, now);
+        zSet.removeRangeByScore(NODES_KEY, Double.NEGATIVE_INFINITY, now - nodeTtl.toMillis());
+        Set<String> live = zSet.range(NODES_KEY, 0, -1);
+        return live == null ? Set.of() : live;
+    }
+
+    private static String chunkId(String chunkKey) {
+        return chunkKey.startsWith(OPID_PREFIX) ? chunkKey.substring(OPID_PREFIX.length()) : chunkKey;
+    }
+
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "unknown";
+        }
+        return host + "-" + ProcessHandle.current().pid();
+    }
+
+    @PreDestroy
+    void stop() {
+        heartbeat.shutdownNow();
+        if (!enabled) {
+            return;
+        }
+        try {
+            // 정상 종료: 바로 빠져서 다른 노드가 node-ttl 을 기다리지 않음
+            redisTemplate.opsForZSet().remove(NODES_KEY, nodeId);
+        } catch (Exception e) {
+            log.warn("노드 등록 해제 실패. 노드: {}", nodeId, e);
+        }
+    }
+
+    /**
+     * @param previous  직전 링 (handoff 판단용, 단독 노드로 시작했으면 null)
+     * @param changedAt 링이 바뀐 시각 (nanoTime)
+     */
+    private record Ownership(ChunkOwnershipRing ring, ChunkOwnershipRing previous, long changedAt) {
+    }
+}
@@ -1,9 +1,9 @@
 package com.ssafy.test.snapshot.service;
 
-import com.fasterxml.jackson.core.JsonParser;
-import com.fasterxml.jackson.core.JsonToken;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ssafy.test.snapshot.codec.ChunkStateDigest;
+import com.ssafy.test.snapshot.codec.DeltaCodec;
 import com.ssafy.test.snapshot.dto.DeltaDTO;
+import com.ssafy.test.snapshot.service.SnapshotBulkheads.Resource;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -11,6 +11,11 @@ import org.springframework.stereotype.Service;
 
 import java.util.*;
 
+/**
+ * voxel 단위 last-writer-wins 병합
+ * - voxelId 당 최신 Delta 1개만 유지 (vSeq → timestamp → opId 순 비교)
+ * - Tombstone 된 op 는 이번 배치에서 무시하고, 기존 상태의 승자였다면 해당 voxel 제거
+ */
 @Service
 @RequiredArgsConstructor
 public class SnapshotMergeService {
@@ -18,63 +23,147 @@ public class SnapshotMergeService {
     private static final Logger log = LoggerFactory.getLogger(SnapshotMergeService.class);
 
     private final S3StorageService s3Storage;
-    private final ObjectMapper objectMapper;
+    private final DeltaCodec deltaCodec;
+    private final SnapshotStateCache stateCache;
+    private final ChunkMetadataService chunkMetadataService;
+    private final SnapshotBulkheads bulkheads;
 
-    public List<DeltaDTO> mergeSnapshot(ChunkInfo chunkInfo,
+    public MergedSnapshot mergeSnapshot(ChunkInfo chunkInfo,
                                         Map<UUID, DeltaDTO> currentDeltas,
                                         Set<String> tombstoneOpIds,
                                         int curVersion) {
-        Map<UUID, DeltaDTO> mergedMap = loadLatestSnapshot(chunkInfo, curVersion);
-
-        mergedMap.putAll(currentDeltas);
-        log.info("Delta 병합 후 크기: {}", mergedMap.size());
-
-        if (tombstoneOpIds != null && !tombstoneOpIds.isEmpty()) {
-            tombstoneOpIds.forEach(opId -> {
-                try {
-                    mergedMap.remove(UUID.fromString(opId));
-                } catch (IllegalArgumentException e) {
-                    log.warn("잘못된 UUID 형식: {}", opId);
-                }
-            });
-            log.info("Tombstone 적용 완료. 제거된 수: {}", tombstoneOpIds.size());
+        VoxelDeltaMap merged = loadLatestSnapshot(chunkInfo, curVersion);
+        return bulkheads.call(Resource.CPU, () -> merge(merged, currentDeltas, tombstoneOpIds));
+    }
+
+    private MergedSnapshot merge(VoxelDeltaMap merged,
+                                 Map<UUID, DeltaDTO> currentDeltas,
+                                 Set<String> tombstoneOpIds) {
+        merged.trackChanges();
+        Set<UUID> tombstones = parseTombstones(tombstoneOpIds);
+
+        int applied = 0;
+        for (DeltaDTO delta : currentDeltas.values()) {
+            if (!tombstones.contains(delta.opId()) && merged.putIfNewer(delta)) {
+                applied++;
+            }
         }
+        log.info("Delta 병합 후 voxel 수: {}, 반영된 Delta: {}/{}", merged.size(), applied, currentDeltas.size());
 
-        return new ArrayList<>(mergedMap.values());
-    }
+        if (!tombstones.isEmpty()) {
+            int removed = merged.removeIf(delta -> tombstones.contains(delta.opId()));
+            log.info("Tombstone 적용 완료. Tombstone 수: {}, 제거된 voxel 수: {}", tombstones.size(), removed);
+        }
 
-    private Map<UUID, DeltaDTO> loadLatestSnapshot(ChunkInfo chunkInfo, int curVersion) {
-        Map<UUID, DeltaDTO> snapMap = new HashMap<>();
+        List<DeltaDTO> state = merged.toSortedList();
+        return new MergedSnapshot(state, merged.changes(), ChunkStateDigest.sha256(state));
+    }
 
-        Optional<String> snapshotOpt = s3Storage.getLatestSnapshot(chunkInfo, curVersion);
+    /**
+     * @param changes  curVersion 대비 변경분 (세그먼트 발행용)
+     * @param checksum 병합 결과의 정규화 SHA-256 (변경 없음 판별용)
+     */
+    public record MergedSnapshot(List<DeltaDTO> state, DeltaCodec.Segment changes, byte[] checksum) {
+    }
 
-        if (snapshotOpt.isEmpty()) {
-            log.info("새 스냅샷 생성 (기존 데이터 없음). 청크: {}", chunkInfo);
+    /**
+     * 청크의 curVersion 스냅샷을 voxel 단위 상태로 로드 (curVersion 0 이면 빈 상태)
+     * - 기준 스냅샷/세그먼트 누락이나 파싱 실패는 예외 (빈 상태로 발행해 이력을 지우지 않도록)
+     * - curVersion 이 세그먼트면 기준 전체 스냅샷 + 이후 세그먼트를 순서대로 적용
+     * - 캐시에 체인 중간 버전이 있으면 그 이후 세그먼트만 적용
+     */
+    public VoxelDeltaMap loadLatestSnapshot(ChunkInfo chunkInfo, int curVersion) {
+        Optional<List<DeltaDTO>> cached = stateCache.get(chunkInfo, curVersion);
+        if (cached.isPresent()) {
+            VoxelDeltaMap snapMap = toMap(cached.get());
+            log.info("기존 스냅샷 캐시 적중. voxel 수: {}, 버전: {}, 청크: {}", snapMap.size(), curVersion, chunkInfo);
             return snapMap;
         }
+        if (curVersion <= 0) {
+            log.info("새 스냅샷 생성 (기존 데이터 없음). 청크: {}", chunkInfo);
+            return new VoxelDeltaMap();
+        }
 
-        String snapshotJson = snapshotOpt.get();
+        int baseVersion = bulkheads.call(Resource.DATABASE,
+                () -> (int) chunkMetadataService.findBaseVersion(chunkInfo, curVersion));
+        Optional<SnapshotStateCache.Versioned> latest = stateCache.latest(chunkInfo)
+                .filter(state -> state.version() >= baseVersion && state.version() < curVersion);
+        int appliedVersion = latest.map(SnapshotStateCache.Versioned::version).orElse(baseVersion);
+        // 객체 키는 발행 시도마다 달라 chunk_snapshot.storage_uri 로 조회 (행이 없는 이전 버전은 버전으로 만든 키)
+        int firstNeeded = latest.isPresent() ? appliedVersion + 1 : baseVersion;
+        Map<Long, String> uris = firstNeeded > curVersion ? Map.of() : bulkheads.call(Resource.DATABASE,
+                () -> chunkMetadataService.findSnapshotUris(chunkInfo, firstNeeded, curVersion));
+        VoxelDeltaMap snapMap = latest.isPresent()
+                ? toMap(latest.get().deltas())
+                : loadBaseSnapshot(chunkInfo, baseVersion, uris.get((long) baseVersion));
 
-        // 빈 배열 체크
-        if (snapshotJson.equals("[]")) {
-            log.info("빈 스냅샷 (기존 Delta 없음). 청크: {}", chunkInfo);
-            return snapMap;
+        // 세그먼트 누락/손상은 빈 상태로 덮어쓰지 않도록 예외로 전파 (다음 배치에서 재시도)
+        for (int version = appliedVersion + 1; version <= curVersion; version++) {
+            int segmentVersion = version;
+            byte[] segment = bulkheads.call(Resource.STORAGE,
+                            () -> s3Storage.getSegment(chunkInfo, segmentVersion, uris.get((long) segmentVersion)))
+                    .orElseThrow(() -> new IllegalStateException(
+                            "스냅샷 세그먼트 없음: v" + segmentVersion + ", 청크: " + chunkInfo));
+            bulkheads.run(Resource.CPU, () -> snapMap.apply(deltaCodec.decodeSegment(segment)));
+        }
+        if (appliedVersion < curVersion) {
+            log.info("스냅샷 세그먼트 적용 완료. v{} + 세그먼트 {}개 → v{}, voxel 수: {}, 청크: {}",
+                    appliedVersion, curVersion - appliedVersion, curVersion, snapMap.size(), chunkInfo);
         }
 
-        try (JsonParser parser = objectMapper.getFactory().createParser(snapshotJson)) {
-            if (parser.nextToken() == JsonToken.START_ARRAY) {
-                int count = 0;
-                while (parser.nextToken() == JsonToken.START_OBJECT) {
-                    DeltaDTO delta = parser.readValueAs(DeltaDTO.class);
-                    snapMap.put(delta.opId(), delta);
-                    count++;
-                }
-                log.info("기존 스냅샷 로드 완료. Delta 수: {}. 청크: {}", count, chunkInfo);
+        stateCache.put(chunkInfo, curVersion, snapMap.toSortedList());
+        return snapMap;
+    }
+
+    private VoxelDeltaMap loadBaseSnapshot(ChunkInfo chunkInfo, int baseVersion, String storageUri) {
+        Optional<byte[]> snapshotOpt = bulkheads.call(Resource.STORAGE,
+                () -> s3Storage.getLatestSnapshot(chunkInfo, baseVersion, storageUri));
+
+        // curVersion > 0 에서만 호출: 기준 스냅샷이 없으면 빈 상태가 아닌 유실이므로 예외 (다음 배치에서 재시도)
+        if (snapshotOpt.isEmpty()) {
+            throw new IllegalStateException("기준 스냅샷 없음: v" + baseVersion + ", 청크: " + chunkInfo);
+        }
+
+        SnapshotBulkheads.Permit permit = bulkheads.acquire(Resource.CPU);
+        try {
+            // 바이너리/JSON 자동 판별
+            List<DeltaDTO> deltas = deltaCodec.decodeSnapshot(snapshotOpt.get());
+
+            // 이전(opId 기준) 스냅샷은 voxel 당 여러 항목이 있을 수 있으므로 로드 시 LWW 로 정리
+            VoxelDeltaMap snapMap = new VoxelDeltaMap(deltas.size());
+            for (DeltaDTO delta : deltas) {
+                snapMap.putIfNewer(delta);
             }
+            log.info("기존 스냅샷 로드 완료. Delta 수: {}, voxel 수: {}. 청크: {}",
+                    deltas.size(), snapMap.size(), chunkInfo);
+            return snapMap;
         } catch (Exception e) {
-            log.error("스냅샷 파싱 실패. 빈 스냅샷으로 시작. 청크: {}", chunkInfo, e);
-            return new HashMap<>();
+            throw new IllegalStateException("기준 스냅샷 파싱 실패: v" + baseVersion + ", 청크: " + chunkInfo, e);
+        } finally {
+            permit.close();
+        }
+    }
+
+    private static VoxelDeltaMap toMap(List<DeltaDTO> state) {
+        VoxelDeltaMap snapMap = new VoxelDeltaMap(state.size());
+        for (DeltaDTO delta : state) {
+            snapMap.put(delta);
         }
         return snapMap;
     }
-}
\ No newline at end of file
+
+    private Set<UUID> parseTombstones(Set<String> tombstoneOpIds) {
+        if (tombstoneOpIds == null || tombstoneOpIds.isEmpty()) {
+            return Set.of();
+        }
+        Set<UUID> tombstones = new HashSet<>(tombstoneOpIds.size() * 2);
+        for (String opId : tombstoneOpIds) {
+            try {
+                tombstones.add(UUID.fromString(opId));
+            } catch (IllegalArgumentException e) {
+                log.warn("잘못된 UUID 형식: {}", opId);
+            }
+        }
+        return tombstones;
+    }
+}
@@ -0,0 +1,118 @@
+package com.ssafy.test.snapshot.service;
+
+import com.ssafy.test.snapshot.service.SnapshotBulkheads.Resource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 스냅샷 파이프라인 지표 (Actuator /actuator/prometheus 로 노출)
+ * - snapshot.stage{stage, world, lod}: 단계별 소요 시간 히스토그램 (자원 대기 시간 제외, merge 는 기준 상태 로드 포함)
+ * - snapshot.bulkhead.wait{resource}: 자원별 동시 실행 한도 대기 시간 (기존 락 대기에 해당)
+ * - snapshot.commit / snapshot.commit.chunks: 배치 메타데이터 커밋 시간, 커밋 당 청크 수
+ * - snapshot.deltas / snapshot.tombstones / snapshot.uploaded.bytes{kind}: 처리량 카운터
+ * - snapshot.chunks{result}: 배치 결과 (published, unchanged, failed, skipped)
+ */
+@Component
+@RequiredArgsConstructor
+public class SnapshotMetrics {
+
+    public enum Stage {
+        COLLECT, MERGE, GLB, SNAPSHOT_UPLOAD, GLB_UPLOAD, CLEANUP;
+
+        private final String tag = name().toLowerCase(Locale.ROOT);
+    }
+
+    private final MeterRegistry registry;
+
+    public <T> T time(Stage stage, ChunkInfo chunkInfo, Supplier<T> task) {
+        long start = System.nanoTime();
+        try {
+            return task.get();
+        } finally {
+            stageTimer(stage, chunkInfo).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public void time(Stage stage, ChunkInfo chunkInfo, Runnable task) {
+        time(stage, chunkInfo, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    public void recordBulkheadWait(Resource resource, long waitNanos) {
+        Timer.builder("snapshot.bulkhead.wait")
+                .tag("resource", resource.name().toLowerCase(Locale.ROOT))
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(waitNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordCommit(long nanos, int chunks) {
+        Timer.builder("snapshot.commit")
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+        DistributionSummary.builder("snapshot.commit.chunks")
+                .register(registry)
+                .record(chunks);
+    }
+
+    public void recordBatch(long nanos) {
+        Timer.builder("snapshot.batch")
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void countCollected(ChunkInfo chunkInfo, int deltas, int tombstones) {
+        counter("snapshot.deltas", chunkInfo).increment(deltas);
+        counter("snapshot.tombstones", chunkInfo).increment(tombstones);
+    }
+
+    /**
+     * @param kind snapshot | segment | glb
+     */
+    public void countUploaded(ChunkInfo chunkInfo, String kind, long storedBytes) {
+        Counter.builder("snapshot.uploaded.bytes")
+                .baseUnit("bytes")
+                .tag("kind", kind)
+                .tag("world", chunkInfo.worldName())
+                .tag("lod", Integer.toString(chunkInfo.lod()))
+                .register(registry)
+                .increment(storedBytes);
+    }
+
+    /**
+     * @param result published | unchanged | failed | skipped
+     */
+    public void countChunks(String result, long count) {
+        if (count > 0) {
+            Counter.builder("snapshot.chunks").tag("result", result).register(registry).increment(count);
+        }
+    }
+
+    private Timer stageTimer(Stage stage, ChunkInfo chunkInfo) {
+        return Timer.builder("snapshot.stage")
+                .tag("stage", stage.tag)
+                .tag("world", chunkInfo.worldName())
+                .tag("lod", Integer.toString(chunkInfo.lod()))
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    private Counter counter(String name, ChunkInfo chunkInfo) {
+        return Counter.builder(name)
+                .tag("world", chunkInfo.worldName())
+                .tag("lod", Integer.toString(chunkInfo.lod()))
+                .register(registry);
+    }
+}
@@ -2,67 +2,164 @@ package com.ssafy.test.snapshot.service;
 
 import com.ssafy.test.global.exception.CustomException;
 import com.ssafy.test.global.exception.ErrorCode;
+import com.ssafy.test.snapshot.service.ChunkProcessorService.PreparedChunk;
+import com.ssafy.test.snapshot.service.SnapshotPublisher.PendingCommit;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 
 /**
- * 최적화된 락 전략:
- * - Redis 읽기/삭제에만 짧은 락 적용 (5초)
- * - 스냅샷 병합, GLB 생성, S3 업로드는 락 없이 수행
+ * 최적화된 처리 전략:
+ * - 분산 락 없이 claim 스크립트로 청크별 op 를 처리 중 키로 옮겨 수집, 처리 후 ack/실패 시 requeue
+ * - 스냅샷 병합, GLB 생성, S3 업로드는 claim 이후 Redis 접근 없이 수행
+ * - 메타데이터는 청크별이 아닌 배치 단위로 일괄 기록 후 처리 Delta 정리
+ * - 동시 진행 청크 수와 자원(Redis/DB/CPU/저장소)별 동시 실행 수를 제한
  * - batchStartTime 기준으로 처리 대상 결정 (중복 방지)
+ * - 처리 대상은 KEYS 스캔 대신 dirty 청크 인덱스에서 조회
+ * - 배치 후 변경된 청크의 상위 LOD 를 재생성
+ * - 주기 배치(dirty 인덱스 전체) 또는 변경 이벤트 debounce 후 청크 단위 배치
+ * - 노드가 여럿이면 consistent hash 로 나눈 자기 소유 청크만 처리 (SnapshotMembership)
+ * - 스트림 모드(snapshot.ingest.mode=STREAM)는 consumer group 으로 읽은 Delta 를 락 없이 같은 파이프라인으로 처리
  */
 @Service
 @RequiredArgsConstructor
 public class SnapshotOrchestrator {
 
     private static final Logger log = LoggerFactory.getLogger(SnapshotOrchestrator.class);
-    private static final String OPID_PATTERN = "op_ids:*";
     public static final String OPID_PREFIX = "op_ids:";
 
-    private final StringRedisTemplate redisTemplate;
+    private final DirtyChunkRegistry dirtyChunkRegistry;
     private final ChunkProcessorService chunkProcessor;
+    private final SnapshotPublisher snapshotPublisher;
+    private final LodPyramidService lodPyramid;
+    private final SnapshotMembership membership;
+    private final SnapshotMetrics metrics;
 
+    @Value("${snapshot.pipeline.max-in-flight:256}")
+    private int maxInFlight;
+
+    // 주기 배치와 이벤트 배치가 같은 청크를 동시에 처리하지 않도록 직렬화
+    private final ReentrantLock batchLock = new ReentrantLock();
+
+    /**
+     * dirty 인덱스 전체 배치 (주기 실행, 이벤트 모드에서는 유실 보정용)
+     */
     public void executeSnapshotBatch() {
-        Instant batchStartTime = Instant.now();
-        log.info("스냅샷 배치 시작. 시간: {}", batchStartTime);
+        batchLock.lock();
+        try {
+            Instant batchStartTime = Instant.now();
+            log.info("스냅샷 배치 시작. 시간: {}", batchStartTime);
+
+            // 배치 대상 청크 조회 -> dirty 인덱스의 'op_ids:...' 키
+            // 멤버십 활성화 시 이 노드 소유 청크만 처리
+            Set<String> chunkKeys = membership.filterOwned(dirtyChunkRegistry.findDirtyChunks(batchStartTime));
+            if (chunkKeys.isEmpty()) {
+                log.info("처리할 청크 없음");
+                // 이전 배치에서 실패/충돌로 남은 상위 LOD 재시도
+                lodPyramid.rebuild(List.of());
+                return;
+            }
+            runBatch(chunkKeys,
+                    chunkKey -> chunkProcessor.prepareChunk(chunkKey, batchStartTime),
+                    chunkProcessor::completeChunk);
+        } finally {
+            batchLock.unlock();
+        }
+    }
 
-        // 배치 대상 청크 조회 -> 'op_ids:*'의 형태
-        Set<String> chunkKeys = redisTemplate.keys(OPID_PATTERN);
-        if (chunkKeys == null || chunkKeys.isEmpty()) {
-            log.info("처리할 청크 없음");
+    /**
+     * 지정한 청크만 처리 (변경 이벤트 debounce 후 호출)
+     */
+    public void executeSnapshotBatch(Set<String> requested) {
+        Set<String> chunkKeys = membership.filterOwned(requested);
+        if (chunkKeys.isEmpty()) {
             return;
         }
+        batchLock.lock();
+        try {
+            Instant batchStartTime = Instant.now();
+            log.info("이벤트 스냅샷 배치 시작. 시간: {}", batchStartTime);
+            runBatch(chunkKeys,
+                    chunkKey -> chunkProcessor.prepareChunk(chunkKey, batchStartTime),
+                    chunkProcessor::completeChunk);
+        } finally {
+            batchLock.unlock();
+        }
+    }
 
-        log.info("처리 대상 청크 수: {}", chunkKeys.size());
+    /**
+     * 스트림 모드: 이미 수집된 청크별 Delta 로 배치 실행 (락/Redis 정리 없음)
+     * @return 처리가 끝나 스트림 항목을 ack 해도 되는 청크 키 (실패 청크는 pending 으로 남겨 재수거)
+     */
+    public Set<String> executeStreamBatch(Map<String, DeltaCollectorService.DeltaCollectionResult> collected) {
+        if (collected.isEmpty()) {
+            return Set.of();
+        }
+        batchLock.lock();
+        try {
+            log.info("스트림 스냅샷 배치 시작. 시간: {}", Instant.now());
+            List<ChunkProcessResult> results = runBatch(collected.keySet(),
+                    chunkKey -> chunkProcessor.prepareCollectedChunk(chunkKey, collected.get(chunkKey)),
+                    chunkProcessor::completeCollectedChunk);
+            Set<String> processed = new HashSet<>();
+            for (ChunkProcessResult result : results) {
+                if (result.success()) {
+                    processed.add(result.chunkKey());
+                }
+            }
+            return processed;
+        } finally {
+            batchLock.unlock();
+        }
+    }
 
-        List<CompletableFuture<ChunkProcessResult>> futures = new ArrayList<>();
+    private List<ChunkProcessResult> runBatch(Set<String> chunkKeys,
+                                              Function<String, PreparedChunk> prepare,
+                                              BiFunction<PreparedChunk, Boolean, ChunkProcessResult> complete) {
+        log.info("처리 대상 청크 수: {}", chunkKeys.size());
+        long batchStart = System.nanoTime();
 
         try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            // 1단계: 청크별 수집 → 병합 → 메쉬 → 업로드 (자원별 한도는 SnapshotBulkheads)
+            // 동시에 진행 중인 청크는 maxInFlight 개까지: 초과분은 제출 전에 대기 (단계 사이 대기열 상한)
+            Semaphore inFlight = new Semaphore(Math.max(1, maxInFlight));
+            List<CompletableFuture<PreparedChunk>> prepareFutures = new ArrayList<>();
             for (String chunkKey : chunkKeys) {
-                CompletableFuture<ChunkProcessResult> future = CompletableFuture.supplyAsync(
-                        () -> chunkProcessor.processChunk(chunkKey, batchStartTime),
-                        executor
-                );
-                futures.add(future);
+                inFlight.acquireUninterruptibly();
+                prepareFutures.add(CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return prepare.apply(chunkKey);
+                    } finally {
+                        inFlight.release();
+                    }
+                }, executor));
             }
-
             // TODO: 단계별 FALLBACK 고려
-            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+            List<PreparedChunk> prepared = joinAll(prepareFutures);
 
-            
-            /// 결과 확인용 코드
-            List<ChunkProcessResult> results = futures.stream()
-                    .map(CompletableFuture::join)
-                    .filter(Objects::nonNull)
-                    .toList();
+            // 2단계(commit): 배치 전체 메타데이터 일괄 기록
+            Set<PendingCommit> committed = commitBatch(prepared);
+
+            // 3단계(cleanup): 커밋된 청크의 처리 Delta 정리 (Redis 한도 안에서 병렬)
+            List<CompletableFuture<ChunkProcessResult>> completeFutures = new ArrayList<>(prepared.size());
+            for (PreparedChunk chunk : prepared) {
+                completeFutures.add(CompletableFuture.supplyAsync(
+                        () -> complete.apply(chunk, committed.contains(chunk.pending())),
+                        executor
+                ));
+            }
+            List<ChunkProcessResult> results = joinAll(completeFutures);
 
+            /// 결과 확인용 코드
             long successCount = results.stream().filter(ChunkProcessResult::success).count();
             long failedCount = results.stream().filter(r -> !r.success()).count();
             long skippedCount = chunkKeys.size() - results.size();
@@ -70,12 +167,53 @@ public class SnapshotOrchestrator {
             log.info("스냅샷 배치 완료. 성공: {}, 실패: {}, 스킵: {}, 전체: {}",
                     successCount, failedCount, skippedCount, chunkKeys.size());
             ///  결과 확인용 코드
+            long publishedCount = results.stream().filter(r -> r.success() && r.snapshotUrl() != null).count();
+            metrics.countChunks("published", publishedCount);
+            metrics.countChunks("unchanged", successCount - publishedCount);
+            metrics.countChunks("failed", failedCount);
+            metrics.countChunks("skipped", skippedCount);
+
+            // 새 스냅샷이 발행된 청크의 상위 LOD 재생성
+            List<ChunkInfo> changedChunks = results.stream()
+                    .filter(r -> r.success() && r.snapshotUrl() != null)
+                    .map(r -> ChunkInfo.fromKey(r.chunkKey()))
+                    .filter(Objects::nonNull)
+                    .toList();
+            lodPyramid.rebuild(changedChunks);
+            metrics.recordBatch(System.nanoTime() - batchStart);
+            return results;
         } catch (Exception e) {
             log.error("스냅샷 배치 처리 중 오류 발생", e);
             throw new CustomException(ErrorCode.SNAPSHOT_BATCH_FAILED);
         }
     }
 
+    /**
+     * 커밋 실패 시 모든 청크의 Delta 를 남겨 다음 배치에서 재처리 (업로드된 객체는 다음 버전이 덮어씀)
+     */
+    private Set<PendingCommit> commitBatch(List<PreparedChunk> prepared) {
+        List<PendingCommit> pending = prepared.stream()
+                .map(PreparedChunk::pending)
+                .filter(Objects::nonNull)
+                .toList();
+        // 상태 리스트까지 비교하지 않도록 동일성 기준 집합 사용
+        Set<PendingCommit> committed = Collections.newSetFromMap(new IdentityHashMap<>());
+        try {
+            committed.addAll(snapshotPublisher.commit(pending));
+        } catch (Exception e) {
+            log.error("배치 메타데이터 기록 실패. 대상 청크 수: {}", pending.size(), e);
+        }
+        return committed;
+    }
+
+    private static <T> List<T> joinAll(List<CompletableFuture<T>> futures) {
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+        return futures.stream()
+                .map(CompletableFuture::join)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
     public record ChunkProcessResult(
             String chunkKey,
             boolean success,
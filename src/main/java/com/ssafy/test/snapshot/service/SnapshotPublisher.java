@@ -0,0 +1,202 @@
+package com.ssafy.test.snapshot.service;
+
+import com.ssafy.test.snapshot.codec.ChunkStateDigest;
+import com.ssafy.test.snapshot.codec.DeltaCodec;
+import com.ssafy.test.snapshot.dto.DeltaDTO;
+import com.ssafy.test.snapshot.repo.ChunkRepository.ChunkHead;
+import com.ssafy.test.snapshot.repo.ChunkRepository.PublishedChunk;
+import com.ssafy.test.snapshot.repo.ChunkRepository.SnapshotChain;
+import com.ssafy.test.snapshot.repo.CompactionJobRepository.CompactionJob;
+import com.ssafy.test.snapshot.service.SnapshotBulkheads.Resource;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * 확정된 청크 상태를 새 버전으로 발행
+ * stage: 스냅샷(전체 또는 변경분 세그먼트) 직렬화/업로드 → (보이는 내용이 바뀐 경우만) GLB 생성/업로드
+ * commit: 배치 전체의 스냅샷/메쉬 메타데이터 저장 → chunk_index 갱신 (청크 수와 무관하게 고정 횟수 쿼리)
+ * (LOD 0 배치와 상위 LOD 재생성이 같은 경로를 사용)
+ */
+@Service
+@RequiredArgsConstructor
+public class SnapshotPublisher {
+
+    private static final Logger log = LoggerFactory.getLogger(SnapshotPublisher.class);
+    private static final int COMPACTION_GRACE = 2;
+
+    private final GLBGeneratorService glbGenerator;
+    private final S3StorageService s3Storage;
+    private final ChunkMetadataService chunkMetadataService;
+    private final DeltaCodec deltaCodec;
+    private final SnapshotStateCache stateCache;
+    private final SnapshotCompactionService compaction;
+    private final SnapshotBulkheads bulkheads;
+    private final SnapshotMetrics metrics;
+
+    @Value("${snapshot.segment.enabled:true}")
+    private boolean segmentsEnabled;
+
+    @Value("${snapshot.segment.max-count:16}")
+    private int maxSegments;
+
+    @Value("${snapshot.segment.max-bytes-ratio:0.5}")
+    private double maxSegmentBytesRatio;
+
+    /**
+     * 스냅샷/GLB 업로드까지만 수행하고 메타데이터는 commit 에서 배치 단위로 기록
+     * - 보이는 내용 해시가 현재 메쉬와 같으면 GLB 생성/업로드/메쉬 행 생략 (승자 메타데이터만 바뀐 덮어쓰기)
+     * @param head     현재 버전 (newVersion = head.version() + 1)
+     * @param changes  head 버전 대비 변경분 (null 이면 항상 전체 스냅샷)
+     * @param checksum state 의 정규화 해시 (ChunkStateDigest), 스냅샷 행에 기록
+     */
+    public PendingCommit stage(ChunkInfo chunkInfo, ChunkHead head, List<DeltaDTO> state,
+                               DeltaCodec.Segment changes, byte[] checksum) {
+        UUID chunkUuid = head.chunkUuid();
+        int newVersion = head.version() + 1;
+        // 행 UUID 를 객체 키에 넣어 시도마다 다른 키로 업로드 (버전 충돌에서 진 시도가 커밋된 객체를 덮어쓰지 않음)
+        UUID snapshotUuid = UUID.randomUUID();
+
+        // Snapshot(전체 또는 세그먼트) 생성, 업로드
+        StoredSnapshot stored = storeSnapshot(chunkInfo, chunkUuid, newVersion, snapshotUuid, state, changes);
+        S3Service.Uploaded snapshotObject = stored.object();
+
+        byte[] meshChecksum = bulkheads.call(Resource.CPU, () -> ChunkStateDigest.visibleSha256(state));
+        PublishedChunk metadata;
+        if (head.hasMeshChecksum(meshChecksum)) {
+            log.info("보이는 내용 변경 없음. GLB 생성 생략. 청크: {}, 버전: v{}", chunkInfo, newVersion);
+            metadata = new PublishedChunk(
+                    chunkUuid, snapshotUuid, newVersion, stored.baseVersion(),
+                    snapshotObject.uri(), (int) snapshotObject.storedBytes(), state.size(), checksum,
+                    head.meshUuid(), null, null, 0, meshChecksum,
+                    Instant.now()
+            );
+        } else {
+            // GLB 생성(mesh), 업로드 (월드/LOD 별 메쉬 방식 선택)
+            UUID meshUuid = UUID.randomUUID();
+            byte[] glbData = bulkheads.call(Resource.CPU, () -> metrics.time(SnapshotMetrics.Stage.GLB, chunkInfo,
+                    () -> glbGenerator.generateGLB(state, chunkInfo)));
+            S3Service.Uploaded glbObject = bulkheads.call(Resource.STORAGE, () -> metrics.time(
+                    SnapshotMetrics.Stage.GLB_UPLOAD, chunkInfo, () -> s3Storage.uploadGLB(chunkInfo, newVersion, meshUuid, glbData)));
+            metrics.countUploaded(chunkInfo, "glb", glbObject.storedBytes());
+            log.info("GLB 업로드 완료: {}, 원본 {} → 저장 {} bytes", glbObject.uri(), glbData.length, glbObject.storedBytes());
+
+            metadata = new PublishedChunk(
+                    chunkUuid, snapshotUuid, newVersion, stored.baseVersion(),
+                    snapshotObject.uri(), (int) snapshotObject.storedBytes(), state.size(), checksum,
+                    meshUuid, glbObject.uri(), glbGenerator.artifactKind(), (int) glbObject.storedBytes(), meshChecksum,
+                    Instant.now()
+            );
+        }
+        return new PendingCommit(chunkInfo, metadata, state, stored.compactionFrom());
+    }
+
+    /**
+     * 업로드가 끝난 청크들의 메타데이터를 한 번에 기록
+     * 커밋된 청크만 상태 캐시 반영 / 압축 작업 등록 (충돌로 빠진 청크는 다음 배치에서 재시도)
+     * @return 커밋된 항목
+     */
+    public List<PendingCommit> commit(List<PendingCommit> pending) {
+        if (pending.isEmpty()) {
+            return List.of();
+        }
+        Set<UUID> committed = bulkheads.call(Resource.DATABASE, () -> {
+            long start = System.nanoTime();
+            Set<UUID> result = chunkMetadataService.commitPublished(pending.stream().map(PendingCommit::metadata).toList());
+            metrics.recordCommit(System.nanoTime() - start, pending.size());
+            return result;
+        });
+
+        List<PendingCommit> result = new ArrayList<>(committed.size());
+        List<CompactionJob> jobs = new ArrayList<>();
+        for (PendingCommit item : pending) {
+            if (!committed.contains(item.metadata().chunkUuid())) {
+                continue;
+            }
+            PublishedChunk metadata = item.metadata();
+            // 다음 배치 병합은 S3 조회 없이 캐시에서 시작
+            stateCache.putAfterCommit(item.chunkInfo(), (int) metadata.version(), item.state());
+            if (item.compactionFrom() != null) {
+                jobs.add(new CompactionJob(UUID.randomUUID(), metadata.chunkUuid(), item.compactionFrom(), metadata.version()));
+            }
+            result.add(item);
+        }
+        if (!jobs.isEmpty()) {
+            bulkheads.run(Resource.DATABASE, () -> compaction.enqueueAll(jobs));
+        }
+        return result;
+    }
+
+    /**
+     * 기준 스냅샷 이후 세그먼트 수/누적 크기가 임계값 이내면 세그먼트만 기록
+     * - 임계값 초과: 압축이 켜져 있으면 세그먼트를 기록하고 압축 작업 등록 (전체 재작성은 배치 밖에서)
+     * - 압축이 밀려 임계값의 COMPACTION_GRACE 배를 넘거나 압축이 꺼져 있으면 전체 스냅샷을 새 기준으로 기록
+     */
+    private StoredSnapshot storeSnapshot(ChunkInfo chunkInfo, UUID chunkUuid, int newVersion, UUID snapshotUuid,
+                                         List<DeltaDTO> state, DeltaCodec.Segment changes) {
+        if (changes != null && segmentsEnabled && deltaCodec.format() == DeltaCodec.Format.BINARY && newVersion > 1) {
+            DeltaCodec.SnapshotWriter segment = bulkheads.call(Resource.CPU, () -> deltaCodec.segmentWriter(changes));
+            Optional<SnapshotChain> chain = bulkheads.call(Resource.DATABASE,
+                    () -> chunkMetadataService.findSnapshotChain(chunkUuid, newVersion - 1));
+            if (chain.isPresent()) {
+                boolean withinBudget = withinSegmentBudget(chain.get(), segment.size(), 1);
+                boolean deferToCompaction = !withinBudget && compaction.isEnabled()
+                        && withinSegmentBudget(chain.get(), segment.size(), COMPACTION_GRACE);
+                if (withinBudget || deferToCompaction) {
+                    S3Service.Uploaded uploaded = bulkheads.call(Resource.STORAGE, () -> metrics.time(
+                            SnapshotMetrics.Stage.SNAPSHOT_UPLOAD, chunkInfo,
+                            () -> s3Storage.uploadSegment(chunkInfo, newVersion, snapshotUuid, segment)));
+                    metrics.countUploaded(chunkInfo, "segment", uploaded.storedBytes());
+                    log.info("스냅샷 세그먼트 업로드 완료: {}, 기준 v{}, 세그먼트 {}번째, 변경 {} / 제거 {}, 저장 {} bytes",
+                            uploaded.uri(), chain.get().baseVersion(), chain.get().segmentCount() + 1,
+                            changes.upserts().size(), changes.removedVoxelIds().length, uploaded.storedBytes());
+                    return new StoredSnapshot(uploaded, chain.get().baseVersion(),
+                            deferToCompaction ? chain.get().baseVersion() : null);
+                }
+            }
+        }
+
+        DeltaCodec.SnapshotWriter snapshot = bulkheads.call(Resource.CPU, () -> deltaCodec.snapshotWriter(state));
+        S3Service.Uploaded uploaded = bulkheads.call(Resource.STORAGE, () -> metrics.time(
+                SnapshotMetrics.Stage.SNAPSHOT_UPLOAD, chunkInfo,
+                () -> s3Storage.uploadSnapshot(chunkInfo, newVersion, snapshotUuid, snapshot, deltaCodec.format())));
+        metrics.countUploaded(chunkInfo, "snapshot", uploaded.storedBytes());
+        log.info("스냅샷 업로드 완료: {}, 원본 {} → 저장 {} bytes", uploaded.uri(), snapshot.size(), uploaded.storedBytes());
+        return new StoredSnapshot(uploaded, newVersion, null);
+    }
+
+    private boolean withinSegmentBudget(SnapshotChain chain, long segmentBytes, int factor) {
+        return chain.segmentCount() < (long) maxSegments * factor
+                && chain.segmentBytes() + segmentBytes <= chain.baseBytes() * maxSegmentBytesRatio * factor;
+    }
+
+    /**
+     * @param compactionFrom 커밋 후 압축 작업을 등록할 기준 버전 (등록 불필요하면 null)
+     */
+    private record StoredSnapshot(S3Service.Uploaded object, long baseVersion, Long compactionFrom) {
+    }
+
+    /**
+     * 업로드 완료, 메타데이터 기록 대기 중인 발행 결과
+     */
+    public record PendingCommit(ChunkInfo chunkInfo, PublishedChunk metadata, List<DeltaDTO> state,
+                                Long compactionFrom) {
+
+        public String snapshotUrl() {
+            return metadata.snapshotUri();
+        }
+
+        public String glbUrl() {
+            return metadata.meshUri();
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.ssafy.test.snapshot.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ssafy.test.snapshot.dto.DeltaDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 디코딩된 청크 상태 로컬 캐시 (S3 스냅샷 GET + 파싱 생략)
+ * - 청크 당 최신 버전 1개만 보관, 조회 시 요청 버전과 다르면 miss (버전 검증 무효화)
+ * - 용량은 항목 수가 아닌 추정 바이트로 제한 (Caffeine W-TinyLFU)
+ * - 발행 시 트랜잭션이 있으면 커밋 이후에 반영
+ */
+@Component
+public class SnapshotStateCache {
+
+    private static final Logger log = LoggerFactory.getLogger(SnapshotStateCache.class);
+
+    // DeltaDTO + UUID + Instant + 배열/문자열 헤더 대략치
+    private static final int DELTA_OVERHEAD_BYTES = 176;
+    private static final int ENTRY_OVERHEAD_BYTES = 128;
+
+    private final boolean enabled;
+    private final Cache<ChunkInfo, CachedState> cache;
+
+    public SnapshotStateCache(
+            @Value("${snapshot.cache.enabled:true}") boolean enabled,
+            @Value("${snapshot.cache.max-bytes:268435456}") long maxBytes,
+            @Value("${snapshot.cache.expire-after-access:30m}") Duration expireAfterAccess) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((ChunkInfo key, CachedState value) -> value.weight())
+                .expireAfterAccess(expireAfterAccess)
+                .build();
+    }
+
+    /**
+     * @return version 과 정확히 일치하는 상태만 반환
+     */
+    public Optional<List<DeltaDTO>> get(ChunkInfo chunkInfo, int version) {
+        if (!enabled || version <= 0) {
+            return Optional.empty();
+        }
+        CachedState state = cache.getIfPresent(chunkInfo);
+        if (state == null) {
+            return Optional.empty();
+        }
+        if (state.version() != version) {
+            log.debug("스냅샷 캐시 버전 불일치. 청크: {}, 캐시: v{}, 요청: v{}", chunkInfo, state.version(), version);
+            return Optional.empty();
+        }
+        return Optional.of(state.deltas());
+    }
+
+    /**
+     * 버전과 무관하게 캐시된 상태 (세그먼트 체인 중간부터 복원할 때 사용)
+     */
+    public Optional<Versioned> latest(ChunkInfo chunkInfo) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        CachedState state = cache.getIfPresent(chunkInfo);
+        return state == null ? Optional.empty() : Optional.of(new Versioned(state.version(), state.deltas()));
+    }
+
+    /**
+     * 더 낮은 버전으로 덮어쓰지 않음
+     */
+    public void put(ChunkInfo chunkInfo, int version, List<DeltaDTO> deltas) {
+        if (!enabled) {
+            return;
+        }
+        CachedState state = new CachedState(version, Collections.unmodifiableList(deltas), estimateBytes(deltas));
+        cache.asMap().merge(chunkInfo, state, (old, fresh) -> fresh.version() >= old.version() ? fresh : old);
+    }
+
+    /**
+     * 새 버전 발행 시 호출: 트랜잭션 커밋 후 반영, 롤백이면 기존 항목 제거
+     */
+    public void putAfterCommit(ChunkInfo chunkInfo, int version, List<DeltaDTO> deltas) {
+        if (!enabled) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            put(chunkInfo, version, deltas);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    put(chunkInfo, version, deltas);
+                } else {
+                    invalidate(chunkInfo);
+                }
+            }
+        });
+    }
+
+    public void invalidate(ChunkInfo chunkInfo) {
+        cache.invalidate(chunkInfo);
+    }
+
+    static int estimateBytes(List<DeltaDTO> deltas) {
+        long bytes = ENTRY_OVERHEAD_BYTES;
+        for (DeltaDTO delta : deltas) {
+            bytes += DELTA_OVERHEAD_BYTES;
+            if (delta.colorBytes() != null) {
+                bytes += delta.colorBytes().length;
+            }
+        }
+        return (int) Math.min(bytes, Integer.MAX_VALUE);
+    }
+
+    public record Versioned(int version, List<DeltaDTO> deltas) {
+    }
+
+    private record CachedState(int version, List<DeltaDTO> deltas, int weight) {
+    }
+}
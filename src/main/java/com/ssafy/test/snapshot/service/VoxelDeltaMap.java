@@ -0,0 +1,301 @@
+package com.ssafy.test.snapshot.service;
+
+import com.ssafy.test.snapshot.codec.DeltaCodec;
+import com.ssafy.test.snapshot.dto.DeltaDTO;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * voxelId → 최종 DeltaDTO (last-writer-wins)
+ * - int 키 open addressing (선형 탐사, backward-shift 삭제) → 박싱/Entry 할당 없음
+ * - voxel 당 1개 항목만 유지하므로 크기는 청크 부피(256³) 이하로 제한
+ */
+public final class VoxelDeltaMap {
+
+    private static final int EMPTY = -1;
+    private static final int MIN_CAPACITY = 16;
+
+    private int[] keys;
+    private DeltaDTO[] values;
+    private int size;
+    private int mask;
+
+    // trackChanges() 이후 변경된 voxelId (중복 허용, null 이면 추적 안 함)
+    private int[] changed;
+    private int changedCount;
+
+    public VoxelDeltaMap() {
+        this(MIN_CAPACITY);
+    }
+
+    public VoxelDeltaMap(int expectedSize) {
+        int capacity = tableSizeFor(Math.max(MIN_CAPACITY, expectedSize * 2));
+        keys = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+        values = new DeltaDTO[capacity];
+        mask = capacity - 1;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public DeltaDTO get(int voxelId) {
+        int slot = indexOf(voxelId);
+        return slot < 0 ? null : values[slot];
+    }
+
+    public boolean contains(int voxelId) {
+        return indexOf(voxelId) >= 0;
+    }
+
+    /**
+     * 기존 항목보다 최신(vSeq → timestamp → opId 순)일 때만 반영
+     * @return 반영 여부
+     */
+    public boolean putIfNewer(DeltaDTO delta) {
+        int voxelId = checkKey(delta.voxelId());
+        int slot = slotOf(voxelId);
+        if (keys[slot] == voxelId) {
+            if (!isNewer(delta, values[slot])) {
+                return false;
+            }
+            values[slot] = delta;
+            recordChange(voxelId);
+            return true;
+        }
+        insertAt(slot, voxelId, delta);
+        recordChange(voxelId);
+        return true;
+    }
+
+    public DeltaDTO put(DeltaDTO delta) {
+        int voxelId = checkKey(delta.voxelId());
+        int slot = slotOf(voxelId);
+        if (keys[slot] == voxelId) {
+            DeltaDTO previous = values[slot];
+            values[slot] = delta;
+            recordChange(voxelId);
+            return previous;
+        }
+        insertAt(slot, voxelId, delta);
+        recordChange(voxelId);
+        return null;
+    }
+
+    public DeltaDTO remove(int voxelId) {
+        int slot = indexOf(voxelId);
+        if (slot < 0) {
+            return null;
+        }
+        DeltaDTO previous = values[slot];
+        deleteAt(slot);
+        recordChange(voxelId);
+        return previous;
+    }
+
+    /**
+     * 조건에 맞는 항목 제거
+     * @return 제거된 수
+     */
+    public int removeIf(Predicate<DeltaDTO> predicate) {
+        int[] matched = new int[size];
+        int count = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY && predicate.test(values[i])) {
+                matched[count++] = keys[i];
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            remove(matched[i]);
+        }
+        return count;
+    }
+
+    /**
+     * voxelId 오름차순 목록 (스냅샷/메쉬 결과가 입력 순서와 무관하게 결정적)
+     */
+    public List<DeltaDTO> toSortedList() {
+        int[] sortedKeys = new int[size];
+        int n = 0;
+        for (int key : keys) {
+            if (key != EMPTY) {
+                sortedKeys[n++] = key;
+            }
+        }
+        Arrays.sort(sortedKeys);
+
+        List<DeltaDTO> result = new ArrayList<>(size);
+        for (int key : sortedKeys) {
+            result.add(values[indexOf(key)]);
+        }
+        return result;
+    }
+
+    /**
+     * 이후 put/remove 된 voxelId 기록 시작 (세그먼트 생성용)
+     */
+    public void trackChanges() {
+        changed = new int[MIN_CAPACITY];
+        changedCount = 0;
+    }
+
+    /**
+     * trackChanges() 이후 변경분: 현재 값이 있으면 갱신, 없으면 제거
+     */
+    public DeltaCodec.Segment changes() {
+        if (changed == null) {
+            throw new IllegalStateException("변경 추적이 시작되지 않음");
+        }
+        int[] voxelIds = Arrays.copyOf(changed, changedCount);
+        Arrays.sort(voxelIds);
+
+        List<DeltaDTO> upserts = new ArrayList<>();
+        int[] removed = new int[voxelIds.length];
+        int removedCount = 0;
+        for (int i = 0; i < voxelIds.length; i++) {
+            if (i > 0 && voxelIds[i] == voxelIds[i - 1]) {
+                continue;
+            }
+            DeltaDTO current = get(voxelIds[i]);
+            if (current != null) {
+                upserts.add(current);
+            } else {
+                removed[removedCount++] = voxelIds[i];
+            }
+        }
+        return new DeltaCodec.Segment(upserts, Arrays.copyOf(removed, removedCount));
+    }
+
+    /**
+     * 세그먼트 적용 (갱신은 무조건 덮어씀, 버전 순서대로 적용해야 함)
+     */
+    public void apply(DeltaCodec.Segment segment) {
+        for (DeltaDTO delta : segment.upserts()) {
+            put(delta);
+        }
+        for (int voxelId : segment.removedVoxelIds()) {
+            remove(voxelId);
+        }
+    }
+
+    public static boolean isNewer(DeltaDTO candidate, DeltaDTO current) {
+        if (candidate.vSeq() != current.vSeq()) {
+            return candidate.vSeq() > current.vSeq();
+        }
+        Instant a = candidate.timestamp();
+        Instant b = current.timestamp();
+        if (a == null || b == null) {
+            if (a != b) {
+                return a != null;
+            }
+        } else if (!a.equals(b)) {
+            return a.isAfter(b);
+        }
+        // 동률이면 opId 로 결정 (노드/입력 순서와 무관한 결과 보장)
+        return candidate.opId().compareTo(current.opId()) > 0;
+    }
+
+    // ================== open addressing ==================
+
+    private int indexOf(int voxelId) {
+        if (voxelId < 0) {
+            return -1;
+        }
+        int slot = slotOf(voxelId);
+        return keys[slot] == voxelId ? slot : -1;
+    }
+
+    /**
+     * 키가 있으면 그 슬롯, 없으면 삽입할 빈 슬롯
+     */
+    private int slotOf(int voxelId) {
+        int slot = hash(voxelId) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != voxelId) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void insertAt(int slot, int voxelId, DeltaDTO delta) {
+        keys[slot] = voxelId;
+        values[slot] = delta;
+        if (++size * 2 > keys.length) {
+            rehash(keys.length * 2);
+        }
+    }
+
+    private void deleteAt(int slot) {
+        keys[slot] = EMPTY;
+        values[slot] = null;
+        size--;
+
+        // 뒤따르는 클러스터를 당겨 탐사 체인 유지
+        int next = (slot + 1) & mask;
+        while (keys[next] != EMPTY) {
+            int key = keys[next];
+            int ideal = hash(key) & mask;
+            if (((next - ideal) & mask) >= ((next - slot) & mask)) {
+                keys[slot] = key;
+                values[slot] = values[next];
+                keys[next] = EMPTY;
+                values[next] = null;
+                slot = next;
+            }
+            next = (next + 1) & mask;
+        }
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        DeltaDTO[] oldValues = values;
+
+        keys = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+        values = new DeltaDTO[capacity];
+        mask = capacity - 1;
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = slotOf(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void recordChange(int voxelId) {
+        if (changed == null) {
+            return;
+        }
+        if (changedCount == changed.length) {
+            changed = Arrays.copyOf(changed, changedCount * 2);
+        }
+        changed[changedCount++] = voxelId;
+    }
+
+    private static int checkKey(int voxelId) {
+        if (voxelId < 0) {
+            throw new IllegalArgumentException("잘못된 voxelId: " + voxelId);
+        }
+        return voxelId;
+    }
+
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static int tableSizeFor(int n) {
+        int capacity = Integer.highestOneBit(n - 1) << 1;
+        return Math.max(MIN_CAPACITY, capacity);
+    }
+}
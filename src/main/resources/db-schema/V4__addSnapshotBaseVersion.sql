@@ -0,0 +1 @@
+ALTER TABLE chunk_snapshot ADD COLUMN base_version BIGINT;
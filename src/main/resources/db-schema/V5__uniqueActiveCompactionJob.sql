@@ -0,0 +1,2 @@
+CREATE UNIQUE INDEX uq_compaction_chunk_active ON chunk_compaction_job(chunk_id)
+    WHERE status IN ('queued', 'running') AND deleted_at IS NULL;
@@ -0,0 +1,7 @@
+-- LOD n: 부모 청크 1개 = LOD n-1 청크 2×2×2, 청크 당 셀 수는 유지하고 voxel 크기만 2배
+INSERT INTO world_lod (world_id, lod, chunk_edge_cells, voxel_size_m)
+SELECT w.uuid, l.lod, 256, power(2, l.lod)
+FROM world w
+         CROSS JOIN generate_series(1, 4) AS l(lod)
+WHERE w.name = 'exampleWorld'
+ON CONFLICT (world_id, lod) DO NOTHING;
@@ -0,0 +1,3 @@
+-- 로그 구조 스냅샷: 세그먼트(.seg) 행은 기준 전체 스냅샷 버전을, 전체 스냅샷 행은 자기 버전을 가리킴
+-- NULL 은 이전에 저장된 전체 스냅샷
+ALTER TABLE chunk_snapshot ADD COLUMN IF NOT EXISTS base_version BIGINT;
@@ -0,0 +1,15 @@
+-- 청크당 대기/실행 중인 압축 작업은 하나만 (동시 등록 시 ON CONFLICT DO NOTHING 으로 한쪽만 삽입)
+-- 기존 중복은 가장 먼저 등록된 작업만 남기고 soft delete
+UPDATE chunk_compaction_job AS job
+SET deleted_at = NOW()
+WHERE job.status IN ('queued', 'running')
+  AND job.deleted_at IS NULL
+  AND EXISTS (SELECT 1
+              FROM chunk_compaction_job AS older
+              WHERE older.chunk_id = job.chunk_id
+                AND older.status IN ('queued', 'running')
+                AND older.deleted_at IS NULL
+                AND (older.created_at, older.uuid) < (job.created_at, job.uuid));
+
+CREATE UNIQUE INDEX IF NOT EXISTS uq_compaction_chunk_active ON chunk_compaction_job(chunk_id)
+    WHERE status IN ('queued', 'running') AND deleted_at IS NULL;
@@ -0,0 +1,61 @@
+package com.ssafy.test.snapshot;
+
+import com.ssafy.test.snapshot.dto.DeltaDTO;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * 테스트 공용 voxel 생성기
+ * - 기본값: 새 opId, vSeq 1, 모든 면 표시(63), RGB1 {1, 2, 3}, actor system, policy test, 현재 시각
+ * - 테스트마다 필요한 값만 Builder 에서 바꿔 build
+ */
+public final class TestVoxels {
+
+    private TestVoxels() {
+    }
+
+    public static DeltaDTO.Builder voxel(int voxelId) {
+        return DeltaDTO.builder()
+                .opId(UUID.randomUUID())
+                .vSeq(1)
+                .voxelId(voxelId)
+                .faceMask(63)
+                .colorSchema(DeltaDTO.ColorSchema.RGB1)
+                .colorBytes(new byte[]{1, 2, 3})
+                .actor("system")
+                .policyTags("test")
+                .timestamp(Instant.now());
+    }
+
+    /**
+     * 청크 내 좌표 (x, y, z 각 8비트) 의 voxel
+     */
+    public static DeltaDTO.Builder voxel(int x, int y, int z) {
+        return voxel((x << 16) | (y << 8) | z);
+    }
+
+    /**
+     * 모든 값을 복사한 Builder (한두 값만 바꾼 변형용)
+     */
+    public static DeltaDTO.Builder copyOf(DeltaDTO delta) {
+        return DeltaDTO.builder()
+                .opId(delta.opId())
+                .vSeq(delta.vSeq())
+                .voxelId(delta.voxelId())
+                .faceMask(delta.faceMask())
+                .colorSchema(delta.colorSchema())
+                .colorBytes(delta.colorBytes() == null ? null : delta.colorBytes().clone())
+                .actor(delta.actor())
+                .policyTags(delta.policyTags())
+                .timestamp(delta.timestamp());
+    }
+
+    public static byte[] rgb(int rgb) {
+        return new byte[]{(byte) (rgb >> 16), (byte) (rgb >> 8), (byte) rgb};
+    }
+
+    public static byte[] gray(int shade) {
+        return new byte[]{(byte) shade, (byte) shade, (byte) shade};
+    }
+}
@@ -0,0 +1,73 @@
+package com.ssafy.test.snapshot.codec;
+
+import com.ssafy.test.snapshot.dto.DeltaDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static com.ssafy.test.snapshot.TestVoxels.copyOf;
+import static com.ssafy.test.snapshot.TestVoxels.gray;
+import static com.ssafy.test.snapshot.TestVoxels.voxel;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChunkStateDigestTest {
+
+    @Test
+    void sameStateHashesEqualRegardlessOfActorAndPolicy() {
+        DeltaDTO first = shaded(1, 10);
+        DeltaDTO sameOp = copyOf(first).actor("b").policyTags("policy").build();
+
+        assertThat(ChunkStateDigest.sha256(List.of(sameOp))).isEqualTo(ChunkStateDigest.sha256(List.of(first)));
+    }
+
+    @Test
+    void sameColorWithNewerWinnerChangesHash() {
+        DeltaDTO first = shaded(1, 10);
+        DeltaDTO newerSeq = copyOf(first).vSeq(first.vSeq() + 1).build();
+        DeltaDTO otherOp = copyOf(first).opId(UUID.randomUUID()).build();
+        byte[] base = ChunkStateDigest.sha256(List.of(first));
+
+        assertThat(ChunkStateDigest.sha256(List.of(newerSeq))).isNotEqualTo(base);
+        assertThat(ChunkStateDigest.sha256(List.of(otherOp))).isNotEqualTo(base);
+    }
+
+    @Test
+    void visibleHashIgnoresWinnerButTracksColor() {
+        DeltaDTO first = shaded(1, 10);
+        DeltaDTO newerWinner = copyOf(first).opId(UUID.randomUUID()).vSeq(first.vSeq() + 1).actor("b")
+                .timestamp(first.timestamp().plusSeconds(1)).build();
+        byte[] base = ChunkStateDigest.visibleSha256(List.of(first));
+
+        assertThat(ChunkStateDigest.visibleSha256(List.of(newerWinner))).isEqualTo(base);
+        assertThat(ChunkStateDigest.visibleSha256(List.of(shaded(1, 11)))).isNotEqualTo(base);
+        assertThat(ChunkStateDigest.visibleSha256(List.of(first))).isNotEqualTo(ChunkStateDigest.sha256(List.of(first)));
+    }
+
+    @Test
+    void colorOrMembershipChangeChangesHash() {
+        byte[] base = ChunkStateDigest.sha256(List.of(shaded(1, 10), shaded(2, 20)));
+
+        assertThat(ChunkStateDigest.sha256(List.of(shaded(1, 10), shaded(2, 21)))).isNotEqualTo(base);
+        assertThat(ChunkStateDigest.sha256(List.of(shaded(1, 10)))).isNotEqualTo(base);
+        assertThat(ChunkStateDigest.sha256(List.of())).hasSize(32);
+    }
+
+    @Test
+    void stateLargerThanBufferIsFullyHashed() {
+        List<DeltaDTO> state = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            state.add(shaded(i, i & 0xFF));
+        }
+        byte[] base = ChunkStateDigest.sha256(state);
+
+        state.set(4999, shaded(4999, 0));
+
+        assertThat(ChunkStateDigest.sha256(state)).isNotEqualTo(base);
+    }
+
+    private static DeltaDTO shaded(int voxelId, int shade) {
+        return voxel(voxelId).colorBytes(gray(shade)).build();
+    }
+}
@@ -0,0 +1,153 @@
+package com.ssafy.test.snapshot.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.ssafy.test.snapshot.dto.DeltaDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DeltaCodecTest {
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+    private DeltaCodec codec;
+
+    @BeforeEach
+    void setUp() {
+        codec = new DeltaCodec(objectMapper);
+        ReflectionTestUtils.setField(codec, "format", DeltaCodec.Format.BINARY);
+    }
+
+    @Test
+    void binaryDeltaRoundTrip() {
+        DeltaDTO delta = delta(7, "system", "test");
+
+        byte[] encoded = codec.encode(delta);
+
+        assertThat(encoded[0]).isEqualTo(DeltaCodec.DELTA_MAGIC);
+        assertThat(encoded.length).isLessThan(objectMapper.valueToTree(delta).toString().length());
+        assertSame(codec.decode(encoded), delta);
+    }
+
+    @Test
+    void binaryDeltaKeepsNulls() {
+        DeltaDTO delta = new DeltaDTO(UUID.randomUUID(), 1, 2, 0, null, null, null, null, null);
+
+        assertSame(codec.decode(codec.encode(delta)), delta);
+    }
+
+    @Test
+    void binarySnapshotRoundTrip() {
+        List<DeltaDTO> deltas = List.of(
+                delta(1, "system", "test"),
+                delta(2, "system", null),
+                delta(3, "player-1", "test")
+        );
+
+        List<DeltaDTO> decoded = codec.decodeSnapshot(codec.encodeSnapshot(deltas));
+
+        assertThat(decoded).hasSize(deltas.size());
+        for (int i = 0; i < deltas.size(); i++) {
+            assertSame(decoded.get(i), deltas.get(i));
+        }
+    }
+
+    @Test
+    void snapshotWriterSizeMatchesWrittenBytes() {
+        List<DeltaDTO> deltas = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            deltas.add(delta(i, "플레이어-" + (i % 150), i % 3 == 0 ? null : "tag-" + i));
+        }
+        deltas.add(new DeltaDTO(UUID.randomUUID(), 1, 2, 0, null, null, null, null, null));
+
+        DeltaCodec.SnapshotWriter writer = codec.snapshotWriter(deltas);
+        byte[] encoded = codec.encodeSnapshot(deltas);
+
+        assertThat(writer.size()).isEqualTo(encoded.length);
+        assertThat(codec.decodeSnapshot(encoded)).hasSize(deltas.size());
+    }
+
+    @Test
+    void segmentRoundTripKeepsUpsertsAndRemovals() {
+        List<DeltaDTO> upserts = List.of(delta(1, "system", "test"), delta(9, "player-1", null));
+        int[] removed = {3, 200, 70000, 16_000_000};
+
+        DeltaCodec.SnapshotWriter writer = codec.segmentWriter(new DeltaCodec.Segment(upserts, removed));
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        assertThatCode(() -> writer.writeTo(bytes)).doesNotThrowAnyException();
+        DeltaCodec.Segment decoded = codec.decodeSegment(bytes.toByteArray());
+
+        assertThat(bytes.size()).isEqualTo(writer.size());
+        assertThat(decoded.removedVoxelIds()).containsExactly(removed);
+        assertThat(decoded.upserts()).hasSize(2);
+        assertSame(decoded.upserts().get(1), upserts.get(1));
+    }
+
+    @Test
+    void unknownColorSchemaIsRejectedAsMalformed() {
+        byte[] encoded = codec.encode(delta(4, "system", "test"));
+        // magic, version, opId(16), vSeq(4), voxelId(4), faceMask(1) 다음 바이트
+        encoded[27] = 0x40;
+
+        assertThatThrownBy(() -> codec.decode(encoded))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("색상 스키마");
+    }
+
+    @Test
+    void corruptLengthOrTimestampIsRejectedAsMalformed() {
+        byte[] badLength = codec.encode(delta(4, "system", "test"));
+        // 색상 길이 varint 를 -1 로
+        System.arraycopy(new byte[]{(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F}, 0, badLength, 28, 5);
+        byte[] badTimestamp = codec.encode(delta(4, "system", "test"));
+        // 마지막 12바이트: epochSecond(8) + nano(4)
+        ByteBuffer.wrap(badTimestamp, badTimestamp.length - 12, 8).putLong(Long.MAX_VALUE - 1);
+        byte[] badSnapshot = codec.encodeSnapshot(List.of(delta(1, "system", "test")));
+        ByteBuffer.wrap(badSnapshot, badSnapshot.length - 12, 8).putLong(Long.MAX_VALUE - 1);
+
+        assertThatThrownBy(() -> codec.decode(badLength)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> codec.decode(badTimestamp)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> codec.decodeSnapshot(badSnapshot)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void legacyJsonIsStillReadable() throws Exception {
+        DeltaDTO delta = delta(5, "system", "test");
+
+        byte[] json = objectMapper.writeValueAsBytes(delta);
+        byte[] snapshotJson = objectMapper.writeValueAsBytes(List.of(delta, delta(6, "a", "b")));
+
+        assertSame(codec.decode(json), delta);
+        assertThat(codec.decodeSnapshot(snapshotJson)).hasSize(2);
+        assertThat(codec.decodeSnapshot("[]".getBytes())).isEmpty();
+    }
+
+    private DeltaDTO delta(int vSeq, String actor, String policyTags) {
+        return new DeltaDTO(
+                UUID.randomUUID(),
+                vSeq,
+                (vSeq << 16) | (vSeq << 8) | vSeq,
+                63,
+                DeltaDTO.ColorSchema.RGB1,
+                new byte[]{(byte) 255, 10, (byte) vSeq},
+                actor,
+                policyTags,
+                Instant.ofEpochSecond(1_700_000_000L, 123_456_789)
+        );
+    }
+
+    private void assertSame(DeltaDTO actual, DeltaDTO expected) {
+        assertThat(actual).usingRecursiveComparison().isEqualTo(expected);
+    }
+}
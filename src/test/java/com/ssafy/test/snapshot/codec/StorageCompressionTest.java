@@ -0,0 +1,39 @@
+package com.ssafy.test.snapshot.codec;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StorageCompressionTest {
+
+    @Test
+    void compressedObjectsAreDetectedAndRestored() throws Exception {
+        byte[] raw = new byte[64 * 1024];
+        for (int i = 0; i < raw.length; i++) {
+            raw[i] = (byte) (i % 7 == 0 ? 0xD8 : i & 0x0F);
+        }
+
+        for (StorageCompression compression : new StorageCompression[]{StorageCompression.GZIP, StorageCompression.LZ4}) {
+            ByteArrayOutputStream stored = new ByteArrayOutputStream();
+            try (OutputStream out = compression.wrap(stored)) {
+                out.write(raw);
+            }
+
+            assertThat(StorageCompression.detect(stored.toByteArray())).isEqualTo(compression);
+            assertThat(stored.size()).isLessThan(raw.length / 2);
+            assertThat(StorageCompression.decompress(stored.toByteArray())).isEqualTo(raw);
+        }
+    }
+
+    @Test
+    void uncompressedObjectsPassThrough() throws Exception {
+        byte[] binary = {DeltaCodec.SNAPSHOT_MAGIC, DeltaCodec.VERSION, 0, 0};
+        byte[] json = "[]".getBytes();
+
+        assertThat(StorageCompression.decompress(binary)).isSameAs(binary);
+        assertThat(StorageCompression.decompress(json)).isSameAs(json);
+    }
+}
@@ -0,0 +1,68 @@
+package com.ssafy.test.snapshot.mesh;
+
+import de.javagl.jgltf.model.AccessorFloatData;
+import de.javagl.jgltf.model.AccessorIntData;
+import de.javagl.jgltf.model.GltfModel;
+import de.javagl.jgltf.model.MeshPrimitiveModel;
+import de.javagl.jgltf.model.io.GltfModelReader;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GlbWriterTest {
+
+    @Test
+    void writesGlbReadableByJgltf() throws IOException {
+        float[] positions = {0, 0, 0, 1, 0, 0, 1, 1, 0};
+        float[] colors = {1, 0, 0, 0, 1, 0, 0, 0, 1};
+        int[] indices = {0, 1, 2};
+
+        GlbWriter glb = new GlbWriter("test");
+        int positionView = glb.addBufferView(positions.length * 4, GlbWriter.ARRAY_BUFFER, 12, false);
+        int colorView = glb.addBufferView(colors.length * 4, GlbWriter.ARRAY_BUFFER, 12, false);
+        int indexView = glb.addBufferView(indices.length * 4, GlbWriter.ELEMENT_ARRAY_BUFFER, 4, false);
+        int position = glb.addAccessor(positionView, 0, GlbWriter.FLOAT, false, 3, "VEC3",
+                new float[]{0, 0, 0}, new float[]{1, 1, 0});
+        int color = glb.addAccessor(colorView, 0, GlbWriter.FLOAT, false, 3, "VEC3", null, null);
+        int index = glb.addAccessor(indexView, 0, GlbWriter.UNSIGNED_INT, false, 3, "SCALAR", null, null);
+        glb.addNode("node", glb.addMesh("mesh", position, color, index, glb.addMaterial(false)));
+
+        ByteBuffer out = glb.allocate();
+        out.position(glb.binPosition(positionView));
+        out.asFloatBuffer().put(positions);
+        out.position(glb.binPosition(colorView));
+        out.asFloatBuffer().put(colors);
+        out.position(glb.binPosition(indexView));
+        out.asIntBuffer().put(indices);
+        byte[] bytes = out.array();
+
+        assertThat(bytes.length % 4).isZero();
+        assertThat(ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).getInt(8)).isEqualTo(bytes.length);
+
+        GltfModel model = new GltfModelReader().readWithoutReferences(new ByteArrayInputStream(bytes));
+        MeshPrimitiveModel primitive = model.getMeshModels().get(0).getMeshPrimitiveModels().get(0);
+
+        AccessorFloatData readPositions = (AccessorFloatData) primitive.getAttributes().get("POSITION").getAccessorData();
+        assertThat(readPositions.get(1, 0)).isEqualTo(1f);
+        assertThat(readPositions.get(2, 1)).isEqualTo(1f);
+        AccessorFloatData readColors = (AccessorFloatData) primitive.getAttributes().get("COLOR_0").getAccessorData();
+        assertThat(readColors.get(2, 2)).isEqualTo(1f);
+        AccessorIntData readIndices = (AccessorIntData) primitive.getIndices().getAccessorData();
+        assertThat(readIndices.get(2)).isEqualTo(2);
+    }
+
+    @Test
+    void emptyDocumentHasNoBinChunk() {
+        byte[] bytes = new GlbWriter("test").allocate().array();
+        ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+
+        assertThat(buffer.getInt(0)).isEqualTo(0x46546C67);
+        assertThat(buffer.getInt(8)).isEqualTo(bytes.length);
+        assertThat(12 + 8 + buffer.getInt(12)).isEqualTo(bytes.length);
+    }
+}
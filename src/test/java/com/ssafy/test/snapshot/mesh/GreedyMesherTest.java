@@ -0,0 +1,81 @@
+package com.ssafy.test.snapshot.mesh;
+
+import com.ssafy.test.snapshot.dto.DeltaDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.ssafy.test.snapshot.TestVoxels.rgb;
+import static com.ssafy.test.snapshot.TestVoxels.voxel;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GreedyMesherTest {
+
+    private final GreedyMesher mesher = new GreedyMesher();
+
+    @Test
+    void singleVoxelProducesSixQuads() {
+        MeshData mesh = mesher.mesh(List.of(voxel(5, 5, 5).colorBytes(rgb(0xFF0000)).build()), 1.0f);
+
+        assertThat(mesh.vertexCount()).isEqualTo(24);
+        assertThat(mesh.triangleCount()).isEqualTo(12);
+        assertThat(mesh.min()).containsExactly(5f, 5f, 5f);
+        assertThat(mesh.max()).containsExactly(6f, 6f, 6f);
+    }
+
+    @Test
+    void solidSameColourBlockCollapsesToSixQuads() {
+        List<DeltaDTO> deltas = new ArrayList<>();
+        for (int x = 0; x < 16; x++)
+            for (int y = 0; y < 16; y++)
+                for (int z = 0; z < 16; z++)
+                    deltas.add(voxel(x, y, z).colorBytes(rgb(0x336699)).build());
+
+        MeshData mesh = mesher.mesh(deltas, 1.0f);
+
+        assertThat(mesh.triangleCount()).isEqualTo(12);
+        assertThat(mesh.max()).containsExactly(16f, 16f, 16f);
+    }
+
+    @Test
+    void differentColoursAreNotMergedButSharedFaceIsHidden() {
+        MeshData mesh = mesher.mesh(List.of(voxel(0, 0, 0).colorBytes(rgb(0xFF0000)).build(), voxel(1, 0, 0).colorBytes(rgb(0x00FF00)).build()), 1.0f);
+
+        // 각 voxel 5면 (맞닿은 면 제외)
+        assertThat(mesh.triangleCount()).isEqualTo(20);
+    }
+
+    @Test
+    void trianglesFaceOutward() {
+        MeshData mesh = mesher.mesh(List.of(voxel(5, 5, 5).colorBytes(rgb(0xFFFFFF)).build()), 1.0f);
+        float[] p = mesh.positions();
+        int[] idx = mesh.indices();
+
+        for (int t = 0; t < mesh.indexCount(); t += 3) {
+            float[] a = vertex(p, idx[t]), b = vertex(p, idx[t + 1]), c = vertex(p, idx[t + 2]);
+            float[] normal = cross(sub(b, a), sub(c, a));
+            float[] outward = sub(new float[]{
+                    (a[0] + b[0] + c[0]) / 3, (a[1] + b[1] + c[1]) / 3, (a[2] + b[2] + c[2]) / 3
+            }, new float[]{5.5f, 5.5f, 5.5f});
+
+            assertThat(dot(normal, outward)).isPositive();
+        }
+    }
+
+    private static float[] vertex(float[] p, int i) {
+        return new float[]{p[i * 3], p[i * 3 + 1], p[i * 3 + 2]};
+    }
+
+    private static float[] sub(float[] a, float[] b) {
+        return new float[]{a[0] - b[0], a[1] - b[1], a[2] - b[2]};
+    }
+
+    private static float[] cross(float[] a, float[] b) {
+        return new float[]{a[1] * b[2] - a[2] * b[1], a[2] * b[0] - a[0] * b[2], a[0] * b[1] - a[1] * b[0]};
+    }
+
+    private static float dot(float[] a, float[] b) {
+        return a[0] * b[0] + a[1] * b[1] + a[2] * b[2];
+    }
+}
@@ -0,0 +1,110 @@
+package com.ssafy.test.snapshot.mesh;
+
+/**
+ * 테스트용 EXT_meshopt_compression 디코더 (meshoptimizer decodeVertexBuffer / decodeIndexSequence 동작을 따름)
+ */
+final class MeshoptDecoder {
+
+    private static final int BYTE_GROUP = 16;
+    private static final int TAIL_MAX = 32;
+
+    private MeshoptDecoder() {
+    }
+
+    static byte[] decodeVertexBuffer(byte[] data, int count, int vertexSize) {
+        if ((data[0] & 0xFF) != 0xA0) {
+            throw new IllegalArgumentException("vertex header 불일치");
+        }
+        int tailSize = Math.max(vertexSize, TAIL_MAX);
+        byte[] last = new byte[vertexSize];
+        System.arraycopy(data, data.length - vertexSize, last, 0, vertexSize);
+
+        int blockSize = Math.min((8192 / vertexSize) & ~(BYTE_GROUP - 1), 256);
+        byte[] out = new byte[count * vertexSize];
+        byte[] buffer = new byte[256];
+        int[] pos = {1};
+
+        for (int start = 0; start < count; start += blockSize) {
+            int blockCount = Math.min(blockSize, count - start);
+            int aligned = (blockCount + BYTE_GROUP - 1) & ~(BYTE_GROUP - 1);
+            for (int k = 0; k < vertexSize; k++) {
+                decodeBytes(data, pos, buffer, aligned);
+                int p = last[k] & 0xFF;
+                for (int i = 0; i < blockCount; i++) {
+                    int z = buffer[i] & 0xFF;
+                    int delta = (z >>> 1) ^ -(z & 1);
+                    p = (p + delta) & 0xFF;
+                    out[(start + i) * vertexSize + k] = (byte) p;
+                }
+                last[k] = (byte) p;
+            }
+        }
+        if (pos[0] != data.length - tailSize) {
+            throw new IllegalArgumentException("vertex 데이터 길이 불일치");
+        }
+        return out;
+    }
+
+    static int[] decodeIndexSequence(byte[] data, int count) {
+        if ((data[0] & 0xFF) != 0xD1) {
+            throw new IllegalArgumentException("index header 불일치");
+        }
+        int[] out = new int[count];
+        int[] last = new int[2];
+        int pos = 1;
+        for (int i = 0; i < count; i++) {
+            int v = 0;
+            int shift = 0;
+            int b;
+            do {
+                b = data[pos++] & 0xFF;
+                v |= (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+
+            int current = v & 1;
+            v >>>= 1;
+            int d = (v >>> 1) ^ -(v & 1);
+            int index = last[current] + d;
+            last[current] = index;
+            out[i] = index;
+        }
+        if (pos != data.length - 4) {
+            throw new IllegalArgumentException("index 데이터 길이 불일치");
+        }
+        return out;
+    }
+
+    private static void decodeBytes(byte[] data, int[] pos, byte[] buffer, int size) {
+        int groups = size / BYTE_GROUP;
+        int header = pos[0];
+        int at = header + (groups + 3) / 4;
+
+        for (int group = 0; group < groups; group++) {
+            int code = ((data[header + group / 4] & 0xFF) >> ((group % 4) * 2)) & 3;
+            int base = group * BYTE_GROUP;
+            switch (code) {
+                case 0 -> {
+                    for (int i = 0; i < BYTE_GROUP; i++) buffer[base + i] = 0;
+                }
+                case 3 -> {
+                    System.arraycopy(data, at, buffer, base, BYTE_GROUP);
+                    at += BYTE_GROUP;
+                }
+                default -> {
+                    int bits = code == 1 ? 2 : 4;
+                    int perByte = 8 / bits;
+                    int sentinel = (1 << bits) - 1;
+                    int extra = at + BYTE_GROUP * bits / 8;
+                    for (int i = 0; i < BYTE_GROUP; i++) {
+                        int packed = data[at + i / perByte] & 0xFF;
+                        int value = (packed >> (8 - bits * (i % perByte + 1))) & sentinel;
+                        buffer[base + i] = (byte) (value == sentinel ? data[extra++] : value);
+                    }
+                    at = extra;
+                }
+            }
+        }
+        pos[0] = at;
+    }
+}
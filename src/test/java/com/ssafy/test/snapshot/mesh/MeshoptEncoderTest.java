@@ -0,0 +1,145 @@
+package com.ssafy.test.snapshot.mesh;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ssafy.test.snapshot.dto.DeltaDTO;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static com.ssafy.test.snapshot.TestVoxels.gray;
+import static com.ssafy.test.snapshot.TestVoxels.voxel;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MeshoptEncoderTest {
+
+    @Test
+    void vertexBufferRoundTripsAcrossBlocks() {
+        Random random = new Random(7);
+        for (int vertexSize : new int[]{4, 8, 12, 16}) {
+            for (int count : new int[]{1, 17, 1000}) {
+                byte[] source = new byte[count * vertexSize];
+                for (int i = 0; i < count; i++) {
+                    for (int k = 0; k < vertexSize; k++) {
+                        // 완만한 값과 무작위 값을 섞어 0/2/4/8bit 그룹이 모두 나오도록
+                        source[i * vertexSize + k] = (byte) (k % 3 == 0 ? random.nextInt(256) : i / 7 + k);
+                    }
+                }
+
+                byte[] encoded = MeshoptEncoder.encodeVertexBuffer(ByteBuffer.wrap(source), 0, count, vertexSize);
+
+                assertThat(MeshoptDecoder.decodeVertexBuffer(encoded, count, vertexSize)).isEqualTo(source);
+            }
+        }
+    }
+
+    @Test
+    void indexSequenceRoundTrips() {
+        Random random = new Random(11);
+        int[] indices = new int[3000];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = i % 97 == 0 ? random.nextInt(60_000) : Math.max(0, i / 2 + random.nextInt(5) - 2);
+        }
+
+        for (int indexSize : new int[]{2, 4}) {
+            ByteBuffer source = ByteBuffer.allocate(indices.length * indexSize).order(ByteOrder.LITTLE_ENDIAN);
+            for (int index : indices) {
+                if (indexSize == 2) source.putShort((short) index);
+                else source.putInt(index);
+            }
+
+            byte[] encoded = MeshoptEncoder.encodeIndexSequence(source, 0, indices.length, indexSize);
+
+            assertThat(MeshoptDecoder.decodeIndexSequence(encoded, indices.length)).isEqualTo(indices);
+            assertThat(encoded.length).isLessThan(indices.length * indexSize);
+        }
+    }
+
+    @Test
+    void meshoptGlbDecodesToUncompressedLayout() throws IOException {
+        MeshData mesh = new GreedyMesher().mesh(checkerboard(), 1.0f);
+        byte[] plain = write(mesh, false);
+        byte[] packed = write(mesh, true);
+
+        JsonNode gltf = new ObjectMapper().readTree(json(packed));
+        assertThat(gltf.path("extensionsRequired").toString()).contains(MeshoptEncoder.EXTENSION);
+        assertThat(gltf.path("buffers").get(1).path("extensions").path(MeshoptEncoder.EXTENSION)
+                .path("fallback").asBoolean()).isTrue();
+        assertThat(packed.length).isLessThan(plain.length);
+
+        byte[] plainBin = bin(plain);
+        byte[] packedBin = bin(packed);
+        for (JsonNode view : gltf.path("bufferViews")) {
+            JsonNode ext = view.path("extensions").path(MeshoptEncoder.EXTENSION);
+            byte[] compressed = Arrays.copyOfRange(packedBin, ext.path("byteOffset").asInt(),
+                    ext.path("byteOffset").asInt() + ext.path("byteLength").asInt());
+            int count = ext.path("count").asInt();
+            int stride = ext.path("byteStride").asInt();
+            int offset = view.path("byteOffset").asInt();
+
+            byte[] decoded;
+            if ("INDICES".equals(ext.path("mode").asText())) {
+                int[] indices = MeshoptDecoder.decodeIndexSequence(compressed, count);
+                ByteBuffer buffer = ByteBuffer.allocate(count * stride).order(ByteOrder.LITTLE_ENDIAN);
+                for (int index : indices) buffer.putInt(index);
+                decoded = buffer.array();
+            } else {
+                decoded = MeshoptDecoder.decodeVertexBuffer(compressed, count, stride);
+            }
+
+            assertThat(decoded).isEqualTo(Arrays.copyOfRange(plainBin, offset, offset + count * stride));
+        }
+    }
+
+    private static byte[] write(MeshData mesh, boolean meshopt) {
+        GlbWriter glb = new GlbWriter("test", meshopt);
+        int floats = mesh.vertexCount() * 3;
+        int positionView = glb.addBufferView(floats * 4, GlbWriter.ARRAY_BUFFER, 12, false);
+        int colorView = glb.addBufferView(floats * 4, GlbWriter.ARRAY_BUFFER, 12, false);
+        int indexView = glb.addBufferView(mesh.indexCount() * 4, GlbWriter.ELEMENT_ARRAY_BUFFER, 4, false);
+        int position = glb.addAccessor(positionView, 0, GlbWriter.FLOAT, false, mesh.vertexCount(), "VEC3",
+                mesh.min(), mesh.max());
+        int color = glb.addAccessor(colorView, 0, GlbWriter.FLOAT, false, mesh.vertexCount(), "VEC3", null, null);
+        int index = glb.addAccessor(indexView, 0, GlbWriter.UNSIGNED_INT, false, mesh.indexCount(), "SCALAR",
+                null, null);
+        glb.addNode("node", glb.addMesh("mesh", position, color, index, glb.addMaterial(false)));
+
+        ByteBuffer out = glb.allocate();
+        out.position(glb.binPosition(positionView));
+        out.asFloatBuffer().put(mesh.positions(), 0, floats);
+        out.position(glb.binPosition(colorView));
+        out.asFloatBuffer().put(mesh.colors(), 0, floats);
+        out.position(glb.binPosition(indexView));
+        out.asIntBuffer().put(mesh.indices(), 0, mesh.indexCount());
+        return glb.toByteArray(out);
+    }
+
+    private static List<DeltaDTO> checkerboard() {
+        List<DeltaDTO> deltas = new ArrayList<>();
+        for (int x = 0; x < 8; x++)
+            for (int y = 0; y < 8; y++)
+                for (int z = 0; z < 8; z++) {
+                    int shade = ((x + y + z) & 1) == 0 ? 0x20 : 0xE0;
+                    deltas.add(voxel(x, y, z).colorBytes(gray(shade)).build());
+                }
+        return deltas;
+    }
+
+    private static String json(byte[] glb) {
+        int length = ByteBuffer.wrap(glb).order(ByteOrder.LITTLE_ENDIAN).getInt(12);
+        return new String(glb, 20, length, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] bin(byte[] glb) {
+        int jsonLength = ByteBuffer.wrap(glb).order(ByteOrder.LITTLE_ENDIAN).getInt(12);
+        int binStart = 20 + jsonLength + 8;
+        return Arrays.copyOfRange(glb, binStart, glb.length);
+    }
+}
@@ -0,0 +1,44 @@
+package com.ssafy.test.snapshot.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChunkDebouncerTest {
+
+    private static final long MS = 1_000_000L;
+
+    private final ChunkDebouncer debouncer = new ChunkDebouncer(Duration.ofMillis(100), Duration.ofMillis(500));
+
+    @Test
+    void quietChunkIsDueAfterDebounce() {
+        debouncer.record("a", 0);
+
+        assertThat(debouncer.drainDue(99 * MS)).isEmpty();
+        assertThat(debouncer.drainDue(100 * MS)).containsExactly("a");
+        assertThat(debouncer.size()).isZero();
+    }
+
+    @Test
+    void busyChunkIsDueAtMaxDelay() {
+        for (long t = 0; t < 500; t += 50) {
+            debouncer.record("a", t * MS);
+            assertThat(debouncer.drainDue(t * MS)).isEmpty();
+        }
+
+        debouncer.record("a", 500 * MS);
+        assertThat(debouncer.drainDue(500 * MS)).containsExactly("a");
+    }
+
+    @Test
+    void eventsCoalescePerChunk() {
+        debouncer.record("a", 0);
+        debouncer.record("a", 10 * MS);
+        debouncer.record("b", 10 * MS);
+
+        assertThat(debouncer.size()).isEqualTo(2);
+        assertThat(debouncer.drainDue(110 * MS)).containsExactlyInAnyOrder("a", "b");
+    }
+}
@@ -0,0 +1,58 @@
+package com.ssafy.test.snapshot.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChunkLookupCacheTest {
+
+    private final ChunkLookupCache cache = new ChunkLookupCache(true, 1_000, Duration.ofMinutes(1));
+    private final ChunkInfo chunk = new ChunkInfo("w", 0, 1, 2, 3);
+
+    @Test
+    void loadsOnceForKnownChunk() {
+        UUID chunkUuid = UUID.randomUUID();
+        AtomicInteger loads = new AtomicInteger();
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(cache.chunkUuid(chunk, key -> {
+                loads.incrementAndGet();
+                return Optional.of(chunkUuid);
+            })).contains(chunkUuid);
+        }
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void missingResultIsNotCached() {
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.chunkUuid(chunk, key -> {
+            loads.incrementAndGet();
+            return Optional.empty();
+        });
+        cache.chunkUuid(chunk, key -> {
+            loads.incrementAndGet();
+            return Optional.empty();
+        });
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void evictChunkDropsOnlyThatChunk() {
+        ChunkInfo other = new ChunkInfo("w", 0, 4, 5, 6);
+        cache.putChunkUuidAfterCommit(chunk, UUID.randomUUID());
+        cache.putChunkUuidAfterCommit(other, UUID.randomUUID());
+
+        cache.evictChunk(chunk);
+
+        assertThat(cache.peekChunkUuid(chunk)).isEmpty();
+        assertThat(cache.peekChunkUuid(other)).isPresent();
+    }
+}
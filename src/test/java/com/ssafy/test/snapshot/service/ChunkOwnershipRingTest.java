@@ -0,0 +1,64 @@
+package com.ssafy.test.snapshot.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChunkOwnershipRingTest {
+
+    private static final int KEYS = 20_000;
+
+    @Test
+    void ownerDoesNotDependOnMemberOrder() {
+        ChunkOwnershipRing a = new ChunkOwnershipRing(List.of("n1", "n2", "n3"), 64);
+        ChunkOwnershipRing b = new ChunkOwnershipRing(List.of("n3", "n1", "n2"), 64);
+
+        for (int i = 0; i < 1_000; i++) {
+            String key = chunkKey(i);
+            assertThat(a.ownerOf(key)).isEqualTo(b.ownerOf(key));
+        }
+    }
+
+    @Test
+    void keysSpreadAcrossMembers() {
+        ChunkOwnershipRing ring = new ChunkOwnershipRing(List.of("n1", "n2", "n3", "n4"), 128);
+
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < KEYS; i++) {
+            counts.merge(ring.ownerOf(chunkKey(i)), 1, Integer::sum);
+        }
+
+        assertThat(counts).hasSize(4);
+        assertThat(counts.values()).allSatisfy(count -> assertThat(count).isBetween(KEYS / 4 * 7 / 10, KEYS / 4 * 13 / 10));
+    }
+
+    @Test
+    void joiningNodeOnlyTakesKeysFromOthers() {
+        ChunkOwnershipRing before = new ChunkOwnershipRing(List.of("n1", "n2", "n3"), 128);
+        ChunkOwnershipRing after = new ChunkOwnershipRing(List.of("n1", "n2", "n3", "n4"), 128);
+
+        int moved = 0;
+        for (int i = 0; i < KEYS; i++) {
+            String key = chunkKey(i);
+            String owner = after.ownerOf(key);
+            if (!owner.equals(before.ownerOf(key))) {
+                assertThat(owner).isEqualTo("n4");
+                moved++;
+            }
+        }
+        assertThat(moved).isBetween(KEYS / 4 * 7 / 10, KEYS / 4 * 13 / 10);
+    }
+
+    @Test
+    void emptyRingHasNoOwner() {
+        assertThat(new ChunkOwnershipRing(List.of(), 16).ownerOf("x")).isNull();
+    }
+
+    private static String chunkKey(int i) {
+        return "{world:w}:l0:x" + (i % 200 - 100) + ":y" + (i / 200) + ":z0";
+    }
+}
@@ -0,0 +1,29 @@
+package com.ssafy.test.snapshot.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DeltaStreamServiceTest {
+
+    @Test
+    void partitionIgnoresOpIdsPrefix() {
+        String chunkId = "{world:exampleWorld}:l0:x-11921:y15797:z15084";
+
+        assertThat(DeltaStreamService.partitionOf("op_ids:" + chunkId, 16))
+                .isEqualTo(DeltaStreamService.partitionOf(chunkId, 16));
+    }
+
+    @Test
+    void partitionStaysInRange() {
+        for (int x = -50; x < 50; x++) {
+            String chunkKey = "op_ids:{world:w}:l0:x" + x + ":y" + (x * 7) + ":z" + (-x);
+            assertThat(DeltaStreamService.partitionOf(chunkKey, 7)).isBetween(0, 6);
+        }
+    }
+
+    @Test
+    void streamKeyUsesHashTagPerPartition() {
+        assertThat(DeltaStreamService.streamKey(3)).isEqualTo("snapshot:ops:{3}");
+    }
+}
@@ -0,0 +1,74 @@
+package com.ssafy.test.snapshot.service;
+
+import com.ssafy.test.snapshot.config.MeshProperties;
+import com.ssafy.test.snapshot.dto.DeltaDTO;
+import com.ssafy.test.snapshot.mesh.GlbWriter;
+import com.ssafy.test.snapshot.mesh.GreedyMesher;
+import com.ssafy.test.snapshot.mesh.MeshCompression;
+import com.ssafy.test.snapshot.mesh.VertexProfile;
+import de.javagl.jgltf.model.AccessorModel;
+import de.javagl.jgltf.model.GltfModel;
+import de.javagl.jgltf.model.MeshPrimitiveModel;
+import de.javagl.jgltf.model.io.GltfModelReader;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static com.ssafy.test.snapshot.TestVoxels.rgb;
+import static com.ssafy.test.snapshot.TestVoxels.voxel;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GLBGeneratorServiceTest {
+
+    private final GLBGeneratorService generator = new GLBGeneratorService(new GreedyMesher(), new MeshProperties());
+
+    private final List<DeltaDTO> deltas = List.of(voxel(0, 0, 0).colorBytes(rgb(0xFF0000)).build(), voxel(1, 0, 0).colorBytes(rgb(0x00FF00)).build());
+
+    @Test
+    void quantizedGreedyMeshUsesCompactComponents() throws IOException {
+        byte[] quantized = generator.generateGreedyGLB(deltas, VertexProfile.QUANTIZED, MeshCompression.NONE);
+        byte[] plain = generator.generateGreedyGLB(deltas, VertexProfile.FLOAT, MeshCompression.NONE);
+
+        GltfModel model = read(quantized);
+        MeshPrimitiveModel primitive = model.getMeshModels().get(0).getMeshPrimitiveModels().get(0);
+        AccessorModel position = primitive.getAttributes().get("POSITION");
+        AccessorModel color = primitive.getAttributes().get("COLOR_0");
+
+        assertThat(json(quantized)).contains("\"extensionsRequired\":[\"KHR_mesh_quantization\"]");
+        assertThat(position.getComponentType()).isEqualTo(GlbWriter.UNSIGNED_SHORT);
+        assertThat(position.getMax()).containsExactly(2, 1, 1);
+        assertThat(color.getComponentType()).isEqualTo(GlbWriter.UNSIGNED_BYTE);
+        assertThat(color.isNormalized()).isTrue();
+        assertThat(primitive.getIndices().getComponentType()).isEqualTo(GlbWriter.UNSIGNED_SHORT);
+        assertThat(binLength(quantized)).isLessThanOrEqualTo(binLength(plain) / 2);
+    }
+
+    @Test
+    void quantizedSeparateMeshesShareOneMaterial() throws IOException {
+        GltfModel model = read(generator.generateGLBWithSeparateMeshes(deltas, VertexProfile.QUANTIZED, MeshCompression.NONE));
+
+        assertThat(model.getMeshModels()).hasSize(2);
+        assertThat(model.getMaterialModels()).hasSize(1);
+        MeshPrimitiveModel second = model.getMeshModels().get(1).getMeshPrimitiveModels().get(0);
+        assertThat(second.getAttributes().get("POSITION").getMin()).containsExactly(1, 0, 0);
+    }
+
+    private static GltfModel read(byte[] glb) throws IOException {
+        return new GltfModelReader().readWithoutReferences(new ByteArrayInputStream(glb));
+    }
+
+    private static String json(byte[] glb) {
+        int length = ByteBuffer.wrap(glb).order(ByteOrder.LITTLE_ENDIAN).getInt(12);
+        return new String(glb, 20, length, StandardCharsets.UTF_8);
+    }
+
+    private static int binLength(byte[] glb) {
+        int jsonLength = ByteBuffer.wrap(glb).order(ByteOrder.LITTLE_ENDIAN).getInt(12);
+        return glb.length - 12 - 8 - jsonLength - 8;
+    }
+}
@@ -0,0 +1,64 @@
+package com.ssafy.test.snapshot.service;
+
+import com.ssafy.test.snapshot.dto.DeltaDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.ssafy.test.snapshot.TestVoxels.gray;
+import static com.ssafy.test.snapshot.TestVoxels.voxel;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LodDownsamplerTest {
+
+    private final LodDownsampler downsampler = new LodDownsampler(1);
+
+    @Test
+    void parentAndOctantFollowFloorDivision() {
+        ChunkInfo child = new ChunkInfo("w", 0, -1, 2, 3);
+
+        assertThat(child.parent()).isEqualTo(new ChunkInfo("w", 1, -1, 1, 1));
+        assertThat(child.octant()).isEqualTo(0b101);
+    }
+
+    @Test
+    void chunkIdParsesBackToSameChunk() {
+        ChunkInfo parent = new ChunkInfo("w", 2, -3, 0, 7);
+
+        assertThat(parent.chunkId()).isEqualTo("{world:w}:l2:x-3:y0:z7");
+        assertThat(ChunkInfo.fromKey(parent.chunkId())).isEqualTo(parent);
+    }
+
+    @Test
+    void averagesTwoByTwoBlockIntoChildOctant() {
+        ChunkInfo child = new ChunkInfo("w", 0, 1, 0, 1);
+        List<DeltaDTO> voxels = new ArrayList<>();
+        for (int x = 0; x < 2; x++)
+            for (int y = 0; y < 2; y++)
+                for (int z = 0; z < 2; z++)
+                    voxels.add(voxel(x, y, z).colorBytes(gray((x + y + z) % 2 == 0 ? 0 : 200)).build());
+        voxels.add(voxel(255, 255, 255).colorBytes(gray(50)).build());
+
+        VoxelDeltaMap parent = new VoxelDeltaMap();
+        int written = downsampler.downsampleInto(parent, child.parent(), child, voxels);
+
+        assertThat(written).isEqualTo(2);
+        DeltaDTO merged = parent.get((128 << 16) | 128);
+        assertThat(merged.colorBytes()[0] & 0xFF).isEqualTo(100);
+        assertThat(merged.actor()).isEqualTo(LodDownsampler.ACTOR);
+        assertThat(parent.contains((255 << 16) | (127 << 8) | 255)).isTrue();
+    }
+
+    @Test
+    void clearOctantKeepsOtherOctants() {
+        VoxelDeltaMap parent = new VoxelDeltaMap();
+        parent.put(voxel(10, 10, 10).colorBytes(gray(1)).build());      // octant 0
+        parent.put(voxel(200, 10, 200).colorBytes(gray(1)).build());    // octant 5
+        parent.put(voxel(200, 200, 200).colorBytes(gray(1)).build());   // octant 7
+
+        assertThat(downsampler.clearOctant(parent, 5)).isEqualTo(1);
+        assertThat(parent.size()).isEqualTo(2);
+        assertThat(parent.contains((200 << 16) | (10 << 8) | 200)).isFalse();
+    }
+}
@@ -0,0 +1,223 @@
+package com.ssafy.test.snapshot.service;
+
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.ssafy.test.snapshot.codec.ChunkStateDigest;
+import com.ssafy.test.snapshot.codec.DeltaCodec;
+import com.ssafy.test.snapshot.dto.DeltaDTO;
+import com.ssafy.test.snapshot.repo.CompactionJobRepository.CompactionJob;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.*;
+
+import static com.ssafy.test.snapshot.TestVoxels.voxel;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SnapshotCompactionServiceTest {
+
+    private final ChunkInfo chunk = new ChunkInfo("w", 0, 1, 2, 3);
+    private final UUID chunkUuid = UUID.randomUUID();
+    private DeltaCodec codec;
+    private InMemoryMetadata metadata;
+    private InMemoryStorage storage;
+    private SnapshotMergeService merger;
+    private SnapshotCompactionService compaction;
+
+    @BeforeEach
+    void setUp() {
+        codec = new DeltaCodec(JsonMapper.builder().findAndAddModules().build());
+        ReflectionTestUtils.setField(codec, "format", DeltaCodec.Format.BINARY);
+        metadata = new InMemoryMetadata(chunk, chunkUuid);
+        storage = new InMemoryStorage();
+        // 상태 캐시를 끄고 항상 저장소의 기준 스냅샷 + 세그먼트로 복원
+        merger = new SnapshotMergeService(storage, codec,
+                new SnapshotStateCache(false, 0, Duration.ofMinutes(1)), metadata,
+                new SnapshotBulkheads(new SnapshotMetrics(new SimpleMeterRegistry()), 4, 4, 0, 4));
+        compaction = new SnapshotCompactionService(null, metadata, merger, storage, codec, null);
+
+        // v1 전체 스냅샷 → v2 voxel 3 추가 → v3 voxel 1 제거
+        DeltaDTO first = voxel(1).build();
+        DeltaDTO second = voxel(2).build();
+        DeltaDTO third = voxel(3).build();
+        publishSnapshot(1, List.of(first, second));
+        publishSegment(2, List.of(third), new int[0], List.of(first, second, third));
+        publishSegment(3, List.of(), new int[]{1}, List.of(second, third));
+    }
+
+    @Test
+    void rebasesVerifiedStateAndLaterVersionsRestoreFromNewBase() throws Exception {
+        SnapshotCompactionService.CompactionStats stats = compaction.compact(job(1, 3));
+
+        assertThat(stats.segmentsFolded()).isEqualTo(2);
+        assertThat(metadata.findBaseVersion(chunkUuid, 3)).isEqualTo(3);
+
+        // 이후 세그먼트는 새 기준(v3)부터 복원: v1/v2 객체와 v3 세그먼트 없이도 복원되어야 함
+        DeltaDTO fourth = voxel(4).build();
+        publishSegment(4, List.of(fourth), new int[0], null);
+        storage.objects.keySet().removeIf(key -> !key.equals(metadata.rows.get(3L).uri())
+                && !key.equals(metadata.rows.get(4L).uri()));
+
+        assertThat(metadata.findBaseVersion(chunk, 4)).isEqualTo(3);
+        assertThat(merger.loadLatestSnapshot(chunk, 4).toSortedList())
+                .extracting(DeltaDTO::voxelId)
+                .containsExactly(2, 3, 4);
+    }
+
+    @Test
+    void checksumMismatchKeepsSegmentChain() {
+        String segmentUri = metadata.rows.get(3L).uri();
+        metadata.rows.put(3L, metadata.rows.get(3L).withChecksum(new byte[32]));
+        int objects = storage.objects.size();
+
+        assertThatThrownBy(() -> compaction.compact(job(1, 3)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("해시 불일치");
+
+        assertThat(metadata.findBaseVersion(chunkUuid, 3)).isEqualTo(1);
+        assertThat(metadata.rows.get(3L).uri()).isEqualTo(segmentUri);
+        assertThat(storage.objects).hasSize(objects);
+    }
+
+    @Test
+    void alreadyFullSnapshotIsSkipped() throws Exception {
+        int objects = storage.objects.size();
+
+        SnapshotCompactionService.CompactionStats stats = compaction.compact(job(1, 1));
+
+        assertThat(stats.segmentsFolded()).isZero();
+        assertThat(storage.objects).hasSize(objects);
+    }
+
+    private CompactionJob job(long fromVersion, long toVersion) {
+        return new CompactionJob(UUID.randomUUID(), chunkUuid, fromVersion, toVersion);
+    }
+
+    private void publishSnapshot(int version, List<DeltaDTO> state) {
+        S3Service.Uploaded uploaded = storage.uploadSnapshot(chunk, version, UUID.randomUUID(),
+                codec.snapshotWriter(state), codec.format());
+        metadata.rows.put((long) version, new Row(version, uploaded.uri(), ChunkStateDigest.sha256(state)));
+    }
+
+    /**
+     * @param state 세그먼트 적용 후 상태 (해시 기록용, null 이면 해시 없음)
+     */
+    private void publishSegment(int version, List<DeltaDTO> upserts, int[] removed, List<DeltaDTO> state) {
+        S3Service.Uploaded uploaded = storage.uploadSegment(chunk, version, UUID.randomUUID(),
+                codec.segmentWriter(new DeltaCodec.Segment(upserts, removed)));
+        long baseVersion = metadata.findBaseVersion(chunkUuid, version - 1L);
+        metadata.rows.put((long) version, new Row(baseVersion, uploaded.uri(),
+                state == null ? null : ChunkStateDigest.sha256(state)));
+    }
+
+    /**
+     * chunk_snapshot 행 (baseVersion == 자기 버전이면 전체 스냅샷)
+     */
+    private record Row(long baseVersion, String uri, byte[] checksum) {
+
+        Row withChecksum(byte[] checksum) {
+            return new Row(baseVersion, uri, checksum);
+        }
+    }
+
+    /**
+     * chunk_snapshot 을 메모리로 대신 (기준 버전 선택은 ChunkRepository.findBaseVersion 과 같은 규칙)
+     */
+    private static final class InMemoryMetadata extends ChunkMetadataService {
+
+        private final ChunkInfo chunkInfo;
+        private final UUID chunkUuid;
+        private final NavigableMap<Long, Row> rows = new TreeMap<>();
+
+        InMemoryMetadata(ChunkInfo chunkInfo, UUID chunkUuid) {
+            super(null, null);
+            this.chunkInfo = chunkInfo;
+            this.chunkUuid = chunkUuid;
+        }
+
+        @Override
+        public Optional<ChunkInfo> findChunkInfo(UUID uuid) {
+            return uuid.equals(chunkUuid) ? Optional.of(chunkInfo) : Optional.empty();
+        }
+
+        @Override
+        public long findBaseVersion(ChunkInfo info, long version) {
+            return findBaseVersion(chunkUuid, version);
+        }
+
+        @Override
+        public long findBaseVersion(UUID uuid, long version) {
+            return rows.headMap(version, true).descendingMap().entrySet().stream()
+                    .filter(entry -> entry.getValue().baseVersion() == entry.getKey())
+                    .map(Map.Entry::getKey)
+                    .findFirst()
+                    .orElse(version);
+        }
+
+        @Override
+        public Optional<byte[]> findSnapshotChecksum(UUID uuid, long version) {
+            return Optional.ofNullable(rows.get(version)).map(Row::checksum);
+        }
+
+        @Override
+        public Map<Long, String> findSnapshotUris(ChunkInfo info, long fromVersion, long toVersion) {
+            Map<Long, String> uris = new HashMap<>();
+            rows.subMap(fromVersion, true, toVersion, true).forEach((version, row) -> uris.put(version, row.uri()));
+            return uris;
+        }
+
+        @Override
+        public void rebaseSnapshot(UUID uuid, long version, String storageUri, int compressedBytes) {
+            Row row = rows.get(version);
+            rows.put(version, new Row(version, storageUri, row.checksum()));
+        }
+    }
+
+    private static final class InMemoryStorage extends S3StorageService {
+
+        private final Map<String, byte[]> objects = new HashMap<>();
+
+        InMemoryStorage() {
+            super(null);
+        }
+
+        @Override
+        public S3Service.Uploaded uploadSnapshot(ChunkInfo chunkInfo, int version, UUID objectId,
+                                                 DeltaCodec.SnapshotWriter snapshot, DeltaCodec.Format format) {
+            return put("snapshot/v" + version + "-" + objectId + "." + format.extension(), snapshot);
+        }
+
+        @Override
+        public S3Service.Uploaded uploadSegment(ChunkInfo chunkInfo, int version, UUID objectId,
+                                                DeltaCodec.SnapshotWriter segment) {
+            return put("snapshot/v" + version + "-" + objectId + ".seg", segment);
+        }
+
+        @Override
+        public Optional<byte[]> getLatestSnapshot(ChunkInfo chunkInfo, int version, String storageUri) {
+            return Optional.ofNullable(storageUri).map(objects::get);
+        }
+
+        @Override
+        public Optional<byte[]> getSegment(ChunkInfo chunkInfo, int version, String storageUri) {
+            return Optional.ofNullable(storageUri).map(objects::get);
+        }
+
+        private S3Service.Uploaded put(String key, DeltaCodec.SnapshotWriter writer) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            try {
+                writer.writeTo(out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            objects.put(key, out.toByteArray());
+            return new S3Service.Uploaded(key, out.size());
+        }
+    }
+}
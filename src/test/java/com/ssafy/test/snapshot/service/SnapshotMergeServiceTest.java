@@ -0,0 +1,62 @@
+package com.ssafy.test.snapshot.service;
+
+import com.ssafy.test.snapshot.codec.ChunkStateDigest;
+import com.ssafy.test.snapshot.dto.DeltaDTO;
+import com.ssafy.test.snapshot.repo.ChunkRepository.ChunkHead;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static com.ssafy.test.snapshot.TestVoxels.voxel;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SnapshotMergeServiceTest {
+
+    private static final byte[] RED = {(byte) 255, 0, 0};
+    private static final byte[] BLUE = {0, 0, (byte) 255};
+
+    private final ChunkInfo chunk = new ChunkInfo("w", 0, 1, 2, 3);
+    private final SnapshotStateCache cache = new SnapshotStateCache(true, 1 << 20, Duration.ofMinutes(1));
+    // 캐시 적중 경로만 사용 (저장소/메타데이터 조회 없음)
+    private final SnapshotMergeService merger = new SnapshotMergeService(null, null, cache, null,
+            new SnapshotBulkheads(new SnapshotMetrics(new SimpleMeterRegistry()), 4, 4, 0, 4));
+
+    @Test
+    void sameColorWithNewerSeqIsPublishedAndOlderSeqCannotRegress() {
+        DeltaDTO red5 = voxel(7).vSeq(5).colorBytes(RED.clone()).build();
+        cache.put(chunk, 5, List.of(red5));
+        ChunkHead v5 = head(5, List.of(red5));
+
+        // 같은 색, 더 새 vSeq: 보이는 내용은 같아도 승자가 바뀌었으므로 발행 대상
+        DeltaDTO red7 = voxel(7).vSeq(7).colorBytes(RED.clone()).build();
+        SnapshotMergeService.MergedSnapshot merged = merger.mergeSnapshot(chunk, Map.of(red7.opId(), red7), Set.of(), 5);
+        assertThat(v5.hasChecksum(merged.checksum())).isFalse();
+        assertThat(merged.state()).singleElement().extracting(DeltaDTO::opId).isEqualTo(red7.opId());
+
+        cache.put(chunk, 6, merged.state());
+        ChunkHead v6 = head(6, merged.state());
+
+        // 이후 도착한 더 오래된 vSeq 는 v7 승자를 이기지 못함 → 상태 그대로, 발행 생략
+        DeltaDTO blue6 = voxel(7).vSeq(6).colorBytes(BLUE.clone()).build();
+        SnapshotMergeService.MergedSnapshot stale = merger.mergeSnapshot(chunk, Map.of(blue6.opId(), blue6), Set.of(), 6);
+        assertThat(stale.state()).singleElement().satisfies(delta -> {
+            assertThat(delta.vSeq()).isEqualTo(7);
+            assertThat(delta.colorBytes()).isEqualTo(RED);
+        });
+        assertThat(v6.hasChecksum(stale.checksum())).isTrue();
+
+        // v7 op 의 tombstone 은 현재 승자를 제거
+        SnapshotMergeService.MergedSnapshot removed = merger.mergeSnapshot(chunk, Map.of(), Set.of(red7.opId().toString()), 6);
+        assertThat(removed.state()).isEmpty();
+        assertThat(v6.hasChecksum(removed.checksum())).isFalse();
+    }
+
+    private static ChunkHead head(int version, List<DeltaDTO> state) {
+        return new ChunkHead(UUID.randomUUID(), version, ChunkStateDigest.sha256(state), null, null);
+    }
+}
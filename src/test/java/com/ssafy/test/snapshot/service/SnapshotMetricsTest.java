@@ -0,0 +1,41 @@
+package com.ssafy.test.snapshot.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SnapshotMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final SnapshotMetrics metrics = new SnapshotMetrics(registry);
+    private final ChunkInfo chunk = new ChunkInfo("w", 1, 0, 0, 0);
+
+    @Test
+    void stageTimerIsTaggedByWorldAndLod() {
+        assertThat(metrics.time(SnapshotMetrics.Stage.GLB_UPLOAD, chunk, () -> 42)).isEqualTo(42);
+
+        assertThat(registry.get("snapshot.stage")
+                .tags("stage", "glb_upload", "world", "w", "lod", "1")
+                .timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void failedStageIsStillTimed() {
+        assertThatThrownBy(() -> metrics.time(SnapshotMetrics.Stage.MERGE, chunk, () -> {
+            throw new IllegalStateException("boom");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(registry.get("snapshot.stage").tag("stage", "merge").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void emptyResultCountIsNotRegistered() {
+        metrics.countChunks("skipped", 0);
+        metrics.countChunks("failed", 2);
+
+        assertThat(registry.find("snapshot.chunks").tag("result", "skipped").counter()).isNull();
+        assertThat(registry.get("snapshot.chunks").tag("result", "failed").counter().count()).isEqualTo(2);
+    }
+}
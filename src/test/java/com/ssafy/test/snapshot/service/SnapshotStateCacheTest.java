@@ -0,0 +1,43 @@
+package com.ssafy.test.snapshot.service;
+
+import com.ssafy.test.snapshot.dto.DeltaDTO;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static com.ssafy.test.snapshot.TestVoxels.voxel;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SnapshotStateCacheTest {
+
+    private final ChunkInfo chunk = new ChunkInfo("w", 0, 1, 2, 3);
+
+    @Test
+    void hitOnlyWhenVersionMatches() {
+        SnapshotStateCache cache = new SnapshotStateCache(true, 1 << 20, Duration.ofMinutes(1));
+        cache.put(chunk, 3, List.of(voxel(1).build()));
+
+        assertThat(cache.get(chunk, 3)).hasValueSatisfying(deltas -> assertThat(deltas).hasSize(1));
+        assertThat(cache.get(chunk, 2)).isEmpty();
+        assertThat(cache.get(chunk, 4)).isEmpty();
+    }
+
+    @Test
+    void olderVersionDoesNotOverwriteNewer() {
+        SnapshotStateCache cache = new SnapshotStateCache(true, 1 << 20, Duration.ofMinutes(1));
+        cache.put(chunk, 5, List.of(voxel(1).build(), voxel(2).build()));
+        cache.put(chunk, 4, List.of(voxel(1).build()));
+
+        assertThat(cache.get(chunk, 5)).hasValueSatisfying(deltas -> assertThat(deltas).hasSize(2));
+        assertThat(cache.get(chunk, 4)).isEmpty();
+    }
+
+    @Test
+    void disabledCacheNeverHits() {
+        SnapshotStateCache cache = new SnapshotStateCache(false, 1 << 20, Duration.ofMinutes(1));
+        cache.put(chunk, 1, List.of(voxel(1).build()));
+
+        assertThat(cache.get(chunk, 1)).isEmpty();
+    }
+}
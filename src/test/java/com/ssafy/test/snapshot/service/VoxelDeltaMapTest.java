@@ -0,0 +1,106 @@
+package com.ssafy.test.snapshot.service;
+
+import com.ssafy.test.snapshot.dto.DeltaDTO;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.*;
+
+import static com.ssafy.test.snapshot.TestVoxels.voxel;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VoxelDeltaMapTest {
+
+    @Test
+    void keepsOneEntryPerVoxelWithHighestVSeq() {
+        VoxelDeltaMap map = new VoxelDeltaMap();
+
+        assertThat(map.putIfNewer(delta(10, 1, 0))).isTrue();
+        assertThat(map.putIfNewer(delta(10, 3, 0))).isTrue();
+        assertThat(map.putIfNewer(delta(10, 2, 0))).isFalse();
+
+        assertThat(map.size()).isEqualTo(1);
+        assertThat(map.get(10).vSeq()).isEqualTo(3);
+    }
+
+    @Test
+    void breaksVSeqTiesByTimestamp() {
+        VoxelDeltaMap map = new VoxelDeltaMap();
+
+        map.putIfNewer(delta(0, 1, 200));
+        assertThat(map.putIfNewer(delta(0, 1, 100))).isFalse();
+        assertThat(map.putIfNewer(delta(0, 1, 300))).isTrue();
+
+        assertThat(map.get(0).timestamp()).isEqualTo(Instant.ofEpochMilli(300));
+    }
+
+    @Test
+    void behavesLikeHashMapUnderRandomPutsAndRemoves() {
+        VoxelDeltaMap map = new VoxelDeltaMap();
+        Map<Integer, DeltaDTO> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 50_000; i++) {
+            int voxelId = random.nextInt(4096);
+            if (random.nextInt(4) == 0) {
+                assertThat(map.remove(voxelId)).isEqualTo(expected.remove(voxelId));
+            } else {
+                DeltaDTO delta = delta(voxelId, i, 0);
+                assertThat(map.put(delta)).isEqualTo(expected.put(voxelId, delta));
+            }
+        }
+
+        assertThat(map.size()).isEqualTo(expected.size());
+        for (Map.Entry<Integer, DeltaDTO> entry : expected.entrySet()) {
+            assertThat(map.get(entry.getKey())).isSameAs(entry.getValue());
+        }
+        assertThat(map.toSortedList())
+                .extracting(DeltaDTO::voxelId)
+                .containsExactlyElementsOf(new TreeSet<>(expected.keySet()));
+    }
+
+    @Test
+    void removeIfDropsMatchingEntries() {
+        VoxelDeltaMap map = new VoxelDeltaMap();
+        DeltaDTO keep = delta(1, 1, 0);
+        DeltaDTO drop = delta(2, 1, 0);
+        map.put(keep);
+        map.put(drop);
+
+        int removed = map.removeIf(delta -> delta.opId().equals(drop.opId()));
+
+        assertThat(removed).isEqualTo(1);
+        assertThat(map.contains(2)).isFalse();
+        assertThat(map.get(1)).isSameAs(keep);
+    }
+
+    @Test
+    void trackedChangesReplayedOnPreviousStateGiveSameState() {
+        VoxelDeltaMap previous = new VoxelDeltaMap();
+        for (int voxelId = 0; voxelId < 100; voxelId++) {
+            previous.put(delta(voxelId, 1, 0));
+        }
+        VoxelDeltaMap current = new VoxelDeltaMap();
+        for (DeltaDTO delta : previous.toSortedList()) {
+            current.put(delta);
+        }
+
+        current.trackChanges();
+        current.putIfNewer(delta(5, 2, 0));
+        current.putIfNewer(delta(5, 1, 0));     // 반영 안 됨
+        current.putIfNewer(delta(501, 1, 0));
+        current.removeIf(delta -> delta.voxelId() % 10 == 0);
+        current.remove(12345);                  // 없는 voxel
+
+        var changes = current.changes();
+        assertThat(changes.upserts()).extracting(DeltaDTO::voxelId).containsExactly(5, 501);
+        assertThat(changes.removedVoxelIds()).hasSize(10).startsWith(0, 10);
+
+        previous.apply(changes);
+        assertThat(previous.toSortedList()).isEqualTo(current.toSortedList());
+    }
+
+    private static DeltaDTO delta(int voxelId, int vSeq, long epochMilli) {
+        return voxel(voxelId).vSeq(vSeq).timestamp(Instant.ofEpochMilli(epochMilli)).build();
+    }
+}